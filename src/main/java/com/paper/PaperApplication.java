@@ -5,6 +5,7 @@ import java.nio.charset.StandardCharsets;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import com.paper.utils.DatabaseInitializer;
 
@@ -19,6 +20,7 @@ import com.paper.utils.DatabaseInitializer;
  * - com.paper.utils: 工具类（数据库配置、初始化等）
  */
 @SpringBootApplication
+@EnableScheduling
 public class PaperApplication {
 
     public static void main(String[] args) {
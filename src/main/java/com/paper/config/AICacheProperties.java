@@ -0,0 +1,41 @@
+package com.paper.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI响应缓存配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ai.cache")
+public class AICacheProperties {
+    
+    private boolean enabled = true;
+    private int memorySize = 500;
+    private int ttlHours = 168;
+    
+    // Getters and Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getMemorySize() {
+        return memorySize;
+    }
+    
+    public void setMemorySize(int memorySize) {
+        this.memorySize = memorySize;
+    }
+    
+    public int getTtlHours() {
+        return ttlHours;
+    }
+    
+    public void setTtlHours(int ttlHours) {
+        this.ttlHours = ttlHours;
+    }
+}
@@ -0,0 +1,74 @@
+package com.paper.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 分析页AI助手配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ai.chat")
+public class AIChatProperties {
+    
+    /** 分析结果上下文的 token 预算（估算值） */
+    private int contextTokenBudget = 1200;
+    /** 压缩后上下文的缓存条目数 */
+    private int contextCacheSize = 200;
+    /** 会话数上限 */
+    private int sessionCacheSize = 1000;
+    /** 会话空闲过期时间（分钟） */
+    private int sessionIdleMinutes = 30;
+    /** 会话保留的最近对话轮数 */
+    private int historyTurns = 6;
+    /** 会话历史的 token 预算（估算值） */
+    private int historyTokenBudget = 1500;
+    
+    // Getters and Setters
+    public int getContextTokenBudget() {
+        return contextTokenBudget;
+    }
+    
+    public void setContextTokenBudget(int contextTokenBudget) {
+        this.contextTokenBudget = contextTokenBudget;
+    }
+    
+    public int getContextCacheSize() {
+        return contextCacheSize;
+    }
+    
+    public void setContextCacheSize(int contextCacheSize) {
+        this.contextCacheSize = contextCacheSize;
+    }
+    
+    public int getSessionCacheSize() {
+        return sessionCacheSize;
+    }
+    
+    public void setSessionCacheSize(int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+    }
+    
+    public int getSessionIdleMinutes() {
+        return sessionIdleMinutes;
+    }
+    
+    public void setSessionIdleMinutes(int sessionIdleMinutes) {
+        this.sessionIdleMinutes = sessionIdleMinutes;
+    }
+    
+    public int getHistoryTurns() {
+        return historyTurns;
+    }
+    
+    public void setHistoryTurns(int historyTurns) {
+        this.historyTurns = historyTurns;
+    }
+    
+    public int getHistoryTokenBudget() {
+        return historyTokenBudget;
+    }
+    
+    public void setHistoryTokenBudget(int historyTokenBudget) {
+        this.historyTokenBudget = historyTokenBudget;
+    }
+}
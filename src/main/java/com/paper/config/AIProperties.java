@@ -3,6 +3,9 @@ package com.paper.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * AI服务配置类
  */
@@ -14,6 +17,22 @@ public class AIProperties {
     private String key;
     private String model;
     private int timeout = 60;
+    private int connectTimeout = 10;
+    /** 各路由的请求超时（秒），未配置的路由使用 timeout */
+    private Map<String, Integer> routeTimeouts = new HashMap<>();
+    /** 连接失败、429、5xx 时的最大重试次数 */
+    private int maxRetries = 2;
+    /** 首次重试的等待时间（毫秒），之后逐次翻倍 */
+    private long retryBackoffMs = 500;
+    /** 一次调用（含所有重试与等待）的总时限（秒），剩余时间不足一次完整请求时不再重试 */
+    private int totalTimeout = 85;
+    /** 自适应并发限制：初始、最小、最大并发数 */
+    private int limitInitial = 8;
+    private int limitMin = 1;
+    private int limitMax = 64;
+    /** 连续失败多少次后熔断，熔断持续时间（秒） */
+    private int breakerFailures = 5;
+    private int breakerOpenSeconds = 30;
     
     // Getters and Setters
     public String getBaseUrl() {
@@ -47,4 +66,84 @@ public class AIProperties {
     public void setTimeout(int timeout) {
         this.timeout = timeout;
     }
+    
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+    
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+    
+    public Map<String, Integer> getRouteTimeouts() {
+        return routeTimeouts;
+    }
+    
+    public void setRouteTimeouts(Map<String, Integer> routeTimeouts) {
+        this.routeTimeouts = routeTimeouts;
+    }
+    
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+    
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+    
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+    
+    public void setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+    }
+    
+    public int getTotalTimeout() {
+        return totalTimeout;
+    }
+    
+    public void setTotalTimeout(int totalTimeout) {
+        this.totalTimeout = totalTimeout;
+    }
+    
+    public int getLimitInitial() {
+        return limitInitial;
+    }
+    
+    public void setLimitInitial(int limitInitial) {
+        this.limitInitial = limitInitial;
+    }
+    
+    public int getLimitMin() {
+        return limitMin;
+    }
+    
+    public void setLimitMin(int limitMin) {
+        this.limitMin = limitMin;
+    }
+    
+    public int getLimitMax() {
+        return limitMax;
+    }
+    
+    public void setLimitMax(int limitMax) {
+        this.limitMax = limitMax;
+    }
+    
+    public int getBreakerFailures() {
+        return breakerFailures;
+    }
+    
+    public void setBreakerFailures(int breakerFailures) {
+        this.breakerFailures = breakerFailures;
+    }
+    
+    public int getBreakerOpenSeconds() {
+        return breakerOpenSeconds;
+    }
+    
+    public void setBreakerOpenSeconds(int breakerOpenSeconds) {
+        this.breakerOpenSeconds = breakerOpenSeconds;
+    }
 }
@@ -0,0 +1,64 @@
+package com.paper.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 异步分析任务配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "analysis.job")
+public class AnalysisJobProperties {
+    
+    /** 同时执行的分析任务数 */
+    private int threads = 2;
+    /** 等待中的任务上限，超出时直接拒绝 */
+    private int queueCapacity = 20;
+    /** 内存中保留的任务数（完成后的状态与结果） */
+    private int retainedJobs = 500;
+    /** 已完成任务在内存中的保留时间（分钟），过期后从数据库查询状态 */
+    private int retentionMinutes = 60;
+    /** 进度推送（SSE）连接的最长保持时间（分钟），超时后客户端改为轮询 */
+    private int eventsTimeoutMinutes = 30;
+    
+    // Getters and Setters
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public int getRetainedJobs() {
+        return retainedJobs;
+    }
+    
+    public void setRetainedJobs(int retainedJobs) {
+        this.retainedJobs = retainedJobs;
+    }
+    
+    public int getRetentionMinutes() {
+        return retentionMinutes;
+    }
+    
+    public void setRetentionMinutes(int retentionMinutes) {
+        this.retentionMinutes = retentionMinutes;
+    }
+    
+    public int getEventsTimeoutMinutes() {
+        return eventsTimeoutMinutes;
+    }
+    
+    public void setEventsTimeoutMinutes(int eventsTimeoutMinutes) {
+        this.eventsTimeoutMinutes = eventsTimeoutMinutes;
+    }
+}
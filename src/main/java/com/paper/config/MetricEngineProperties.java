@@ -0,0 +1,47 @@
+package com.paper.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Java 指标引擎配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "analysis.engine")
+public class MetricEngineProperties {
+    
+    /** 由 Java 引擎计算的指标（Python 工作进程跳过这些阶段）；为空时全部由 Python 计算 */
+    private List<String> javaMetrics = new ArrayList<>(List.of("disruption", "novelty", "interdisciplinary", "topic", "theme"));
+    /** 并行计算线程数，0 表示使用 CPU 核数 */
+    private int parallelism = 0;
+    /** 数据目录中 CSV 总大小超过该值（MB）时全部指标交给 Python 计算，0 表示不限制 */
+    private long maxInputMb = 256;
+    
+    // Getters and Setters
+    public List<String> getJavaMetrics() {
+        return javaMetrics;
+    }
+    
+    public void setJavaMetrics(List<String> javaMetrics) {
+        this.javaMetrics = javaMetrics;
+    }
+    
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+    
+    public long getMaxInputMb() {
+        return maxInputMb;
+    }
+    
+    public void setMaxInputMb(long maxInputMb) {
+        this.maxInputMb = maxInputMb;
+    }
+}
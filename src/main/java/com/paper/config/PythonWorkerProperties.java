@@ -0,0 +1,94 @@
+package com.paper.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Python分析工作进程池配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "python.worker")
+public class PythonWorkerProperties {
+    
+    /** Python 解释器命令 */
+    private String command = "python";
+    /** 分析主脚本路径（以 --worker 模式启动） */
+    private String script = "src/main/resources/python/main.py";
+    /** 常驻工作进程数 */
+    private int size = 2;
+    /** 单个进程处理多少个任务后回收重建，防止内存持续增长 */
+    private int maxJobsPerWorker = 20;
+    /** 等待中的任务上限，超出时直接拒绝 */
+    private int queueCapacity = 10;
+    /** 进程启动（加载 pandas 与指标模块）超时（秒） */
+    private int startupTimeoutSeconds = 120;
+    /** 单个分析任务超时（秒） */
+    private int jobTimeoutSeconds = 1800;
+    /** 健康检查 ping 超时（秒） */
+    private int pingTimeoutSeconds = 10;
+    
+    // Getters and Setters
+    public String getCommand() {
+        return command;
+    }
+    
+    public void setCommand(String command) {
+        this.command = command;
+    }
+    
+    public String getScript() {
+        return script;
+    }
+    
+    public void setScript(String script) {
+        this.script = script;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public void setSize(int size) {
+        this.size = size;
+    }
+    
+    public int getMaxJobsPerWorker() {
+        return maxJobsPerWorker;
+    }
+    
+    public void setMaxJobsPerWorker(int maxJobsPerWorker) {
+        this.maxJobsPerWorker = maxJobsPerWorker;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public int getStartupTimeoutSeconds() {
+        return startupTimeoutSeconds;
+    }
+    
+    public void setStartupTimeoutSeconds(int startupTimeoutSeconds) {
+        this.startupTimeoutSeconds = startupTimeoutSeconds;
+    }
+    
+    public int getJobTimeoutSeconds() {
+        return jobTimeoutSeconds;
+    }
+    
+    public void setJobTimeoutSeconds(int jobTimeoutSeconds) {
+        this.jobTimeoutSeconds = jobTimeoutSeconds;
+    }
+    
+    public int getPingTimeoutSeconds() {
+        return pingTimeoutSeconds;
+    }
+    
+    public void setPingTimeoutSeconds(int pingTimeoutSeconds) {
+        this.pingTimeoutSeconds = pingTimeoutSeconds;
+    }
+}
@@ -0,0 +1,68 @@
+package com.paper.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 期刊推荐配置类
+ */
+@Configuration
+@ConfigurationProperties(prefix = "journal.recommend")
+public class RecommendProperties {
+    
+    private int topK = 10;
+    private int parallelThreshold = 20000;
+    private int parallelChunkSize = 4096;
+    private int surveyCacheSize = 10000;
+    private int surveyCacheTtlMinutes = 60;
+    private int resultCacheSize = 2000;
+    
+    // Getters and Setters
+    public int getTopK() {
+        return topK;
+    }
+    
+    public void setTopK(int topK) {
+        this.topK = topK;
+    }
+    
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+    
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+    
+    public int getParallelChunkSize() {
+        return parallelChunkSize;
+    }
+    
+    public void setParallelChunkSize(int parallelChunkSize) {
+        this.parallelChunkSize = parallelChunkSize;
+    }
+    
+    public int getSurveyCacheSize() {
+        return surveyCacheSize;
+    }
+    
+    public void setSurveyCacheSize(int surveyCacheSize) {
+        this.surveyCacheSize = surveyCacheSize;
+    }
+    
+    public int getSurveyCacheTtlMinutes() {
+        return surveyCacheTtlMinutes;
+    }
+    
+    public void setSurveyCacheTtlMinutes(int surveyCacheTtlMinutes) {
+        this.surveyCacheTtlMinutes = surveyCacheTtlMinutes;
+    }
+    
+    public int getResultCacheSize() {
+        return resultCacheSize;
+    }
+    
+    public void setResultCacheSize(int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+    }
+}
@@ -10,25 +10,37 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.paper.dao.AnalysisDAO;
 import com.paper.model.AnalysisRecord;
-import com.paper.service.AnalysisService;
+import com.paper.service.AnalysisChatService;
+import com.paper.service.AnalysisContextBuilder;
+import com.paper.service.AnalysisJob;
+import com.paper.service.AnalysisJobService;
+import com.paper.service.ChatSession;
+import com.paper.service.ChatSessionStore;
+import com.paper.service.PythonWorkerPool;
+import com.paper.utils.AIClient;
 import com.paper.utils.ResponseUtils;
 import com.paper.utils.ValidationUtils;
 
@@ -45,6 +57,25 @@ public class AnalysisController {
     private static final long MAX_FILE_SIZE = 1000 * 1024 * 1024; // 100MB
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    private final AnalysisChatService chatService;
+    private final AnalysisContextBuilder contextBuilder;
+    private final ChatSessionStore sessionStore;
+    private final PythonWorkerPool workerPool;
+    private final AnalysisJobService jobService;
+    private final AIClient aiClient;
+
+    @Autowired
+    public AnalysisController(AnalysisChatService chatService, AnalysisContextBuilder contextBuilder,
+                              ChatSessionStore sessionStore, PythonWorkerPool workerPool,
+                              AnalysisJobService jobService, AIClient aiClient) {
+        this.chatService = chatService;
+        this.contextBuilder = contextBuilder;
+        this.sessionStore = sessionStore;
+        this.workerPool = workerPool;
+        this.jobService = jobService;
+        this.aiClient = aiClient;
+    }
+
     /**
      * 获取用户上传目录
      */
@@ -116,7 +147,8 @@ public class AnalysisController {
     }
 
     /**
-     * 运行数据分析（保存结果到数据库）
+     * 提交数据分析任务（异步执行，结果保存到数据库）
+     * 立即返回任务ID，通过 /analysis/jobs/{jobId} 轮询状态
      */
     @PostMapping("/run")
     @ResponseBody
@@ -124,9 +156,8 @@ public class AnalysisController {
             @RequestParam(required = false) String filename,
             @RequestParam(required = false) String username) {
         try {
-            AnalysisService analysisService = new AnalysisService();
-            Map<String, Object> result;
-            String analysisFilename = filename;
+            String user = ValidationUtils.isNotBlank(username) ? username : null;
+            AnalysisJobService.Submission submission;
             
             if (ValidationUtils.isNotBlank(filename)) {
                 if (!ValidationUtils.isSafeFilename(filename)) {
@@ -134,91 +165,172 @@ public class AnalysisController {
                 }
                 // 使用用户专属目录
                 Path userDir = getUserUploadDir(username);
-                result = analysisService.analyzeFile(userDir.resolve(filename).toString());
-            } else if (ValidationUtils.isNotBlank(username)) {
+                submission = jobService.submit(user, AnalysisJob.Mode.FILE,
+                    userDir.resolve(filename).toString(), filename);
+            } else if (user != null) {
                 // 分析用户目录下的所有文件
                 Path userDir = getUserUploadDir(username);
-                result = analysisService.analyzeUserDirectory(userDir.toString());
-                // 为用户目录分析生成一个唯一文件名标识
-                analysisFilename = "user_analysis_" + System.currentTimeMillis() + ".json";
+                submission = jobService.submit(user, AnalysisJob.Mode.USER_DIR, userDir.toString(), null);
             } else {
-                result = analysisService.analyzeAllData();
-                analysisFilename = "db_analysis_" + System.currentTimeMillis() + ".json";
+                submission = jobService.submit(null, AnalysisJob.Mode.DATABASE, null, null);
             }
             
-            // 保存分析结果到数据库
-            if (Boolean.TRUE.equals(result.get("success")) && ValidationUtils.isNotBlank(username)) {
-                try {
-                    AnalysisDAO dao = new AnalysisDAO();
-                    Object analysisObj = result.get("analysis");
-                    String analysisJson = analysisObj != null ? objectMapper.writeValueAsString(analysisObj) : "{}";
-                    
-                    // 如果是新分析，先创建记录
-                    if (analysisFilename != null && analysisFilename.startsWith("user_analysis_")) {
-                        dao.saveAnalysisRecord(username, analysisFilename, "用户数据分析", analysisJson);
-                    } else if (analysisFilename != null) {
-                        dao.updateAnalysisResult(analysisFilename, analysisJson);
-                    }
-                    dao.close();
-                    
-                    // 在返回结果中添加分析记录ID
-                    result.put("analysisId", analysisFilename);
-                } catch (Exception e) {
-                    System.err.println("Failed to save analysis result: " + e.getMessage());
-                    e.printStackTrace();
-                }
+            Map<String, Object> data = submission.getJob().toStatusMap();
+            data.put("deduplicated", submission.isDeduplicated());
+            if (submission.getJob().getOwnerToken() != null) {
+                // 匿名任务凭令牌查询
+                data.put("token", submission.getJob().getOwnerToken());
             }
+            return ResponseUtils.success(submission.isDeduplicated() ? "已有分析任务在进行中" : "分析任务已提交", data);
             
-            return result;
-            
+        } catch (RejectedExecutionException e) {
+            return ResponseUtils.error(e.getMessage());
         } catch (Exception e) {
             return ResponseUtils.error("数据分析失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 查询分析任务状态
+     */
+    @GetMapping("/jobs/{jobId}")
+    @ResponseBody
+    public Map<String, Object> getJobStatus(
+            @PathVariable String jobId,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String token) {
+        AnalysisJob job = findJob(jobId, username, token);
+        if (job == null) {
+            return ResponseUtils.error("任务不存在");
+        }
+        return ResponseUtils.success(job.getMessage(), job.toStatusMap());
+    }
+
+    /**
+     * 分析任务进度（SSE）：status → progress... → done
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter jobEvents(
+            @PathVariable String jobId,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String token) {
+        AnalysisJob job = findJob(jobId, username, token);
+        if (job == null) {
+            SseEmitter emitter = new SseEmitter();
+            try {
+                emitter.send(SseEmitter.event().name("error")
+                    .data(Map.of("error", "任务不存在"), MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+        return jobService.subscribe(job);
+    }
+
+    /**
+     * 获取分析任务结果（格式与原同步 /analysis/run 返回一致）
+     */
+    @GetMapping("/jobs/{jobId}/result")
+    @ResponseBody
+    public Map<String, Object> getJobResult(
+            @PathVariable String jobId,
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) String token) {
+        AnalysisJob job = findJob(jobId, username, token);
+        if (job == null) {
+            return ResponseUtils.error("任务不存在");
+        }
+        if (!job.isFinished()) {
+            return ResponseUtils.error("任务尚未完成");
+        }
+        Map<String, Object> result = job.getResult();
+        if (result == null) {
+            return ResponseUtils.error(job.getMessage());
+        }
+        return result;
+    }
+
+    // 辅助方法：按任务ID查找，带用户名的任务只允许本人查询，匿名任务需提交时返回的令牌
+    private AnalysisJob findJob(String jobId, String username, String token) {
+        if (ValidationUtils.isBlank(jobId)) {
+            return null;
+        }
+        AnalysisJob job = jobService.get(jobId);
+        if (job == null || !job.isOwnedBy(username, token)) {
+            return null;
+        }
+        return job;
+    }
+
     /**
      * AI对话接口（包含分析上下文）
      */
     @PostMapping("/chat")
     @ResponseBody
-    public Map<String, Object> chat(@RequestBody Map<String, String> request) {
+    public CompletableFuture<Map<String, Object>> chat(@RequestBody Map<String, String> request) {
         String message = request.get("message");
         String context = request.get("context");
         String username = request.get("username");
+        String sessionId = request.get("sessionId");
         
         if (ValidationUtils.isBlank(message)) {
-            return ResponseUtils.error("请输入消息");
+            return CompletableFuture.completedFuture(ResponseUtils.error("请输入消息"));
         }
         
         if (message.length() > 1000) {
-            return ResponseUtils.error("消息内容过长");
+            return CompletableFuture.completedFuture(ResponseUtils.error("消息内容过长"));
         }
         
         try {
-            // 如果没有传入 context，尝试获取用户最近的分析结果
-            if (ValidationUtils.isBlank(context) && ValidationUtils.isNotBlank(username)) {
-                try {
-                    AnalysisDAO dao = new AnalysisDAO();
-                    AnalysisRecord record = dao.getLatestByUsername(username);
-                    if (record != null && record.getAnalysisResult() != null) {
-                        context = record.getAnalysisResult();
-                    }
-                    dao.close();
-                } catch (Exception e) {
-                    System.err.println("Failed to get analysis context: " + e.getMessage());
+            // 追问时复用会话中的上下文与历史；传入新的 context 时切换上下文
+            ChatSession session = sessionStore.get(sessionId, username);
+            long generation = sessionStore.analysisGeneration(username);
+            if (ValidationUtils.isNotBlank(context)) {
+                AnalysisContextBuilder.CompactContext compact = contextBuilder.compact(null, context);
+                if (session == null) {
+                    session = sessionStore.create(username, compact, generation);
+                } else {
+                    session.switchContext(compact, generation);
                 }
+            } else if (session == null) {
+                // 新会话且没有传入 context，尝试获取用户最近的分析结果
+                session = sessionStore.create(username, loadLatestContext(username), generation);
+            } else if (session.getContextGeneration() != generation) {
+                // 会话建立后该用户又完成了新的分析，换成最新的分析结果
+                session.switchContext(loadLatestContext(username), generation);
             }
             
-            AnalysisService analysisService = new AnalysisService();
-            String reply = analysisService.chat(message.trim(), context);
-            
-            Map<String, Object> data = new HashMap<>();
-            data.put("reply", reply);
-            return ResponseUtils.success("success", data);
+            String currentSessionId = session.getId();
+            return chatService.chatAsync(session, message.trim()).thenApply(reply -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("reply", reply);
+                data.put("sessionId", currentSessionId);
+                return ResponseUtils.success("success", data);
+            });
             
         } catch (Exception e) {
-            return ResponseUtils.error("AI对话失败: " + e.getMessage());
+            return CompletableFuture.completedFuture(ResponseUtils.error("AI对话失败: " + e.getMessage()));
+        }
+    }
+
+    // 辅助方法：读取用户最近一次分析结果并压缩，没有时返回 null
+    private AnalysisContextBuilder.CompactContext loadLatestContext(String username) {
+        if (ValidationUtils.isBlank(username)) {
+            return null;
+        }
+        try {
+            AnalysisDAO dao = new AnalysisDAO();
+            AnalysisRecord record = dao.getLatestByUsername(username);
+            dao.close();
+            if (record != null && record.getAnalysisResult() != null) {
+                return contextBuilder.compact(record.getId(), record.getAnalysisResult());
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to get analysis context: " + e.getMessage());
         }
+        return null;
     }
 
     /**
@@ -307,6 +419,17 @@ public class AnalysisController {
         }
     }
 
+    /**
+     * Python分析工作进程池与分析任务队列状态
+     */
+    @GetMapping("/worker-stats")
+    @ResponseBody
+    public Map<String, Object> getWorkerStats() {
+        Map<String, Object> data = new HashMap<>(workerPool.stats());
+        data.put("jobs", jobService.stats());
+        return ResponseUtils.success("success", data);
+    }
+
     /**
      * 获取 AI 配置状态
      */
@@ -315,15 +438,14 @@ public class AnalysisController {
     public Map<String, Object> getAIStatus() {
         Map<String, Object> data = new HashMap<>();
         
-        boolean isConfigured = com.paper.config.EnvConfig.hasValidDeepSeekKey();
+        boolean isConfigured = aiClient.isConfigured();
         
         data.put("configured", isConfigured);
         data.put("provider", "deepseek");
-        data.put("model", com.paper.config.EnvConfig.get(
-            com.paper.config.EnvConfig.DEEPSEEK_MODEL, "deepseek-chat"));
+        data.put("model", aiClient.getModel());
         
         if (!isConfigured) {
-            data.put("message", "AI 功能未启用。请在 .env 文件中配置 DEEPSEEK_API_KEY");
+            data.put("message", "AI 功能未启用。请在 .env 文件中配置 DEEPSEEK_API_KEY（或设置 ai.api.key）");
         }
         
         return ResponseUtils.success("success", data);
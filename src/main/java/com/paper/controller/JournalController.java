@@ -3,20 +3,31 @@ package com.paper.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.paper.model.JournalMetrics;
 import com.paper.model.UserSurvey;
+import com.paper.service.AIRequestCoalescer;
+import com.paper.service.AIResponseCache;
+import com.paper.service.JournalCatalog;
 import com.paper.service.JournalService;
+import com.paper.service.RecommendResultCache;
+import com.paper.service.SurveyProfile;
+import com.paper.service.SurveyProfileStore;
 import com.paper.utils.AIClient;
+import com.paper.utils.AIUnavailableException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 期刊控制器 - 处理期刊展示、推荐、对比等功能
@@ -26,14 +37,27 @@ import java.util.stream.Collectors;
 public class JournalController {
     
     private static final String SURVEY_COOKIE_NAME = "pm_survey";
+    private static final String SURVEY_TOKEN_COOKIE_NAME = "pm_survey_token";
+    private static final int SURVEY_COOKIE_MAX_AGE = 60 * 60 * 24 * 7; // 7天
+    private static final String RULE_BASED_MODEL = "rule-based";
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
     private final JournalService service;
+    private final RecommendResultCache resultCache;
+    private final SurveyProfileStore profileStore;
+    private final AIResponseCache responseCache;
+    private final AIRequestCoalescer coalescer;
     private final AIClient aiClient;
     
     @Autowired
-    public JournalController(JournalService service, AIClient aiClient) {
+    public JournalController(JournalService service, RecommendResultCache resultCache,
+                             SurveyProfileStore profileStore, AIResponseCache responseCache,
+                             AIRequestCoalescer coalescer, AIClient aiClient) {
         this.service = service;
+        this.resultCache = resultCache;
+        this.profileStore = profileStore;
+        this.responseCache = responseCache;
+        this.coalescer = coalescer;
         this.aiClient = aiClient;
     }
     
@@ -97,26 +121,91 @@ public class JournalController {
      */
     @PostMapping("/{journal}/ai-analysis")
     @ResponseBody
-    public Map<String, Object> journalAIAnalysis(@PathVariable String journal) {
+    public CompletableFuture<Map<String, Object>> journalAIAnalysis(@PathVariable String journal) {
         Map<String, Object> result = new HashMap<>();
-        try {
-            List<JournalMetrics> rows = service.fetchJournalRows(journal);
-            if (rows.isEmpty()) {
-                result.put("error", "未找到该期刊");
+        List<JournalMetrics> rows = service.fetchJournalRows(journal);
+        if (rows.isEmpty()) {
+            result.put("error", "未找到该期刊");
+            return CompletableFuture.completedFuture(result);
+        }
+        
+        JournalMetrics latestRow = rows.get(0);
+        return service.generateJournalAIAnalysisAsync(latestRow)
+            .handle((analysis, e) -> {
+                boolean fallback = e != null && isUnavailable(e);
+                if (e != null && !fallback) {
+                    result.put("error", "AI 分析失败：" + causeMessage(e));
+                    return result;
+                }
+                result.put("journal", journal);
+                result.put("year", latestRow.getYear());
+                result.put("analysis", fallback
+                    ? service.buildFallbackAnalysis(service.buildCommentsFromRow(latestRow)) : analysis);
+                result.put("used_model", fallback ? RULE_BASED_MODEL : aiClient.getModel());
+                result.put("fallback", fallback);
                 return result;
-            }
-            
-            JournalMetrics latestRow = rows.get(0);
-            String analysis = service.generateJournalAIAnalysis(latestRow);
-            
-            result.put("journal", journal);
-            result.put("year", latestRow.getYear());
-            result.put("analysis", analysis);
-            result.put("used_model", aiClient.getConfig().get("model"));
-            
+            });
+    }
+    
+    /**
+     * 期刊AI分析（SSE 流式输出）
+     */
+    @GetMapping(value = "/{journal}/ai-analysis/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter journalAIAnalysisStream(@PathVariable String journal) {
+        SseEmitter emitter = new SseEmitter();
+        List<JournalMetrics> rows = service.fetchJournalRows(journal);
+        if (rows.isEmpty()) {
+            sendError(emitter, "未找到该期刊");
+            return emitter;
+        }
+        
+        JournalMetrics latestRow = rows.get(0);
+        String systemPrompt = aiClient.loadJournalDetailPrompt();
+        String userPrompt;
+        try {
+            userPrompt = service.buildJournalAIPrompt(latestRow);
         } catch (Exception e) {
-            result.put("error", "AI 分析失败：" + e.getMessage());
+            sendError(emitter, "AI 分析失败：" + e.getMessage());
+            return emitter;
+        }
+        
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("journal", journal);
+        meta.put("year", latestRow.getYear());
+        meta.put("used_model", aiClient.getModel());
+        
+        // 相同提示词已有缓存结果时一次性推送，否则流式调用并在结束后写入缓存
+        String cacheKey = responseCache.key(systemPrompt, userPrompt);
+        String cached = responseCache.lookup(cacheKey);
+        if (cached != null) {
+            Map<String, Object> done = new HashMap<>();
+            done.put("used_model", meta.get("used_model"));
+            done.put("usage", Map.of());
+            done.put("first_token_ms", 0);
+            done.put("total_ms", 0);
+            done.put("cached", true);
+            if (sendEvent(emitter, "meta", meta)) {
+                sendWhole(emitter, cached, done);
+            }
+            return emitter;
         }
+        streamAnalysis(emitter, AIClient.Route.JOURNAL_DETAIL, systemPrompt, userPrompt, meta, "AI 分析失败：",
+            cacheKey, true,
+            service.buildFallbackAnalysis(service.buildCommentsFromRow(latestRow)));
+        return emitter;
+    }
+    
+    /**
+     * AI调用与缓存统计
+     */
+    @GetMapping("/ai-metrics")
+    @ResponseBody
+    public Map<String, Object> aiMetrics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("response_cache", responseCache.stats());
+        result.put("coalescing", coalescer.stats());
+        result.put("guard", aiClient.getGuardStats());
+        result.put("gateway", aiClient.getRouteStats());
         return result;
     }
     
@@ -124,9 +213,9 @@ public class JournalController {
      * 问卷页面
      */
     @GetMapping("/survey")
-    public String surveyPage(HttpServletRequest request, Model model) {
-        UserSurvey survey = loadSurvey(request);
-        model.addAttribute("survey", survey != null ? survey : new UserSurvey());
+    public String surveyPage(HttpServletRequest request, HttpServletResponse response, Model model) {
+        SurveyProfile profile = loadProfile(request, response);
+        model.addAttribute("survey", profile != null ? profile.getSurvey() : new UserSurvey());
         return "journal/survey";
     }
     
@@ -162,16 +251,16 @@ public class JournalController {
         
         // 保存到Cookie
         try {
-            String cookieValue = encodeSurvey(survey);
-            Cookie cookie = new Cookie(SURVEY_COOKIE_NAME, cookieValue);
-            cookie.setMaxAge(60 * 60 * 24 * 7); // 7天
-            cookie.setHttpOnly(true);
-            cookie.setPath("/");
-            response.addCookie(cookie);
+            response.addCookie(buildCookie(SURVEY_COOKIE_NAME, encodeSurvey(survey)));
         } catch (Exception e) {
             System.err.println("Failed to save survey cookie: " + e.getMessage());
         }
         
+        // 服务端缓存画像，后续请求凭令牌直接取用
+        String token = profileStore.newToken();
+        profileStore.put(token, survey);
+        response.addCookie(buildCookie(SURVEY_TOKEN_COOKIE_NAME, token));
+        
         return "redirect:/journal/recommend";
     }
     
@@ -179,91 +268,25 @@ public class JournalController {
      * 推荐页面
      */
     @GetMapping("/recommend")
-    public String recommendPage(HttpServletRequest request, Model model) {
-        UserSurvey survey = loadSurvey(request);
-        if (survey == null) {
+    public String recommendPage(HttpServletRequest request, HttpServletResponse response, Model model) {
+        SurveyProfile profile = loadProfile(request, response);
+        if (profile == null) {
             return "redirect:/journal/survey";
         }
         
         try {
-            List<JournalMetrics> latestRows = service.fetchLatestJournalRows();
-            Map<String, Object> userRadar = service.buildUserRadar(survey);
-            Set<String> userNorm = survey.getKeywords().stream()
-                .map(service::normalizeKeyword)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toSet());
-            
+            UserSurvey survey = profile.getSurvey();
             int targetYear = LocalDateTime.now().getYear();
-            Map<String, List<String>> kwHits = new HashMap<>();
-            for (String kw : survey.getKeywords()) {
-                kwHits.put(kw, new ArrayList<>());
-            }
             
-            List<Map<String, Object>> recs = new ArrayList<>();
-            
-            for (JournalMetrics row : latestRows) {
-                String jname = row.getJournal();
-                if (jname == null || jname.trim().isEmpty()) {
-                    continue;
-                }
-                
-                List<String> journalKw = service.pickKeywordsForYear(row, targetYear);
-                Map<String, String> jNormMap = new HashMap<>();
-                for (String k : journalKw) {
-                    String norm = service.normalizeKeyword(k);
-                    if (!norm.isEmpty()) {
-                        jNormMap.put(norm, k);
-                    }
-                }
-                
-                List<String> matchedNorm = userNorm.stream()
-                    .filter(jNormMap::containsKey)
-                    .collect(Collectors.toList());
-                List<String> matchedDisplay = matchedNorm.stream()
-                    .map(jNormMap::get)
-                    .collect(Collectors.toList());
-                
-                // 记录每个用户关键词命中哪些期刊
-                for (String uk : survey.getKeywords()) {
-                    if (jNormMap.containsKey(service.normalizeKeyword(uk))) {
-                        kwHits.get(uk).add(jname);
-                    }
-                }
-                
-                Map<String, Object> journalRadar = service.buildRadarFromRow(row);
-                double sim = service.computeSimilarity(userRadar, journalRadar);
-                double kwRatio = matchedDisplay.size() / (double) Math.max(1, userNorm.size());
-                double score = kwRatio * 60.0 + sim * 40.0;
-                
-                Map<String, Object> rec = new HashMap<>();
-                rec.put("journal", jname);
-                rec.put("year", row.getYear());
-                rec.put("category", row.getCategory());
-                rec.put("matched_keywords", matchedDisplay);
-                rec.put("kw_hit", matchedDisplay.size());
-                rec.put("match_pct", (int) Math.round(sim * 100));
-                rec.put("score", score);
-                recs.add(rec);
-            }
-            
-            // 排序并取前10
-            recs.sort((a, b) -> {
-                int scoreComp = Double.compare((Double) b.get("score"), (Double) a.get("score"));
-                if (scoreComp != 0) return scoreComp;
-                int kwComp = Integer.compare((Integer) b.get("kw_hit"), (Integer) a.get("kw_hit"));
-                if (kwComp != 0) return kwComp;
-                return Integer.compare((Integer) b.get("match_pct"), (Integer) a.get("match_pct"));
-            });
-            
-            List<Map<String, Object>> topRecs = recs.stream().limit(10).collect(Collectors.toList());
+            // 打分并保留前K名（相同问卷指纹直接复用缓存结果）
+            RecommendResultCache.Page page = resultCache.get(profile, targetYear);
             
             model.addAttribute("survey", survey);
             model.addAttribute("targetYear", targetYear);
-            model.addAttribute("kwHits", kwHits);
-            model.addAttribute("recs", topRecs);
-            model.addAttribute("userRadarJson", objectMapper.writeValueAsString(userRadar));
-            model.addAttribute("userComments", service.buildCommentsFromRow(
-                convertSurveyToMetrics(survey)));
+            model.addAttribute("kwHits", page.getKwHits(survey.getKeywords()));
+            model.addAttribute("recs", page.getRecs());
+            model.addAttribute("userRadarJson", page.getUserRadarJson());
+            model.addAttribute("userComments", profile.getUserComments());
             
             return "journal/recommend";
         } catch (Exception e) {
@@ -272,23 +295,53 @@ public class JournalController {
         }
     }
     
-    // 辅助方法：从Cookie加载问卷
-    private UserSurvey loadSurvey(HttpServletRequest request) {
+    // 辅助方法：加载问卷画像（优先按令牌取服务端缓存，未命中时解析问卷Cookie并写回缓存）
+    private SurveyProfile loadProfile(HttpServletRequest request, HttpServletResponse response) {
+        String token = readCookie(request, SURVEY_TOKEN_COOKIE_NAME);
+        SurveyProfile profile = profileStore.get(token);
+        if (profile != null) {
+            return profile;
+        }
+        
+        String surveyCookie = readCookie(request, SURVEY_COOKIE_NAME);
+        if (surveyCookie == null) {
+            return null;
+        }
+        try {
+            UserSurvey survey = decodeSurvey(surveyCookie);
+            if (token == null) {
+                token = profileStore.newToken();
+                response.addCookie(buildCookie(SURVEY_TOKEN_COOKIE_NAME, token));
+            }
+            return profileStore.put(token, survey);
+        } catch (Exception e) {
+            System.err.println("Failed to parse survey cookie: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    // 辅助方法：读取Cookie值
+    private String readCookie(HttpServletRequest request, String name) {
         Cookie[] cookies = request.getCookies();
         if (cookies == null) return null;
         
         for (Cookie cookie : cookies) {
-            if (SURVEY_COOKIE_NAME.equals(cookie.getName())) {
-                try {
-                    return decodeSurvey(cookie.getValue());
-                } catch (Exception e) {
-                    System.err.println("Failed to parse survey cookie: " + e.getMessage());
-                }
+            if (name.equals(cookie.getName())) {
+                return cookie.getValue();
             }
         }
         return null;
     }
     
+    // 辅助方法：构建问卷相关Cookie
+    private Cookie buildCookie(String name, String value) {
+        Cookie cookie = new Cookie(name, value);
+        cookie.setMaxAge(SURVEY_COOKIE_MAX_AGE);
+        cookie.setHttpOnly(true);
+        cookie.setPath("/");
+        return cookie;
+    }
+    
     // 辅助方法：编码问卷为Base64
     private String encodeSurvey(UserSurvey survey) throws Exception {
         Map<String, Object> data = new HashMap<>();
@@ -332,37 +385,28 @@ public class JournalController {
         return survey;
     }
     
-    // 辅助方法：将Survey转换为Metrics格式以复用评语生成逻辑
-    private JournalMetrics convertSurveyToMetrics(UserSurvey survey) {
-        JournalMetrics metrics = new JournalMetrics();
-        metrics.setNovelty(survey.getNovelty());
-        metrics.setDisruption(survey.getDisruption());
-        metrics.setInterdisciplinary(survey.getInterdisciplinary());
-        metrics.setThemeConcentration(survey.getThemeConcentration());
-        metrics.setTopic(survey.getTopic());
-        metrics.setHotResponse(survey.getHotResponse());
-        return metrics;
-    }
-    
     /**
      * 推荐详情页面
      */
     @GetMapping("/recommend/{journal}")
     public String recommendDetailPage(@PathVariable String journal, 
-                                     HttpServletRequest request, Model model) {
-        UserSurvey survey = loadSurvey(request);
-        if (survey == null) {
+                                     HttpServletRequest request, HttpServletResponse response,
+                                     Model model) {
+        SurveyProfile profile = loadProfile(request, response);
+        if (profile == null) {
             return "redirect:/journal/survey";
         }
         
         try {
-            JournalMetrics row = service.fetchLatestRowForJournal(journal);
+            UserSurvey survey = profile.getSurvey();
+            JournalCatalog.Snapshot catalog = service.fetchCatalog();
+            JournalMetrics row = catalog.getLatest(journal);
             if (row == null) {
                 model.addAttribute("error", "未找到该期刊");
                 return "error";
             }
             
-            Map<String, Object> userRadar = service.buildUserRadar(survey);
+            Map<String, Object> userRadar = profile.getUserRadar();
             Map<String, Object> journalRadar = service.buildRadarFromRow(row);
             double sim = service.computeSimilarity(userRadar, journalRadar);
             
@@ -384,15 +428,8 @@ public class JournalController {
             
             // 关键词命中
             int targetYear = LocalDateTime.now().getYear();
-            List<String> jKwYear = service.pickKeywordsForYear(row, targetYear);
-            Set<String> jKwNorm = jKwYear.stream()
-                .map(service::normalizeKeyword)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toSet());
-            
-            List<String> matchedUserKeywords = survey.getKeywords().stream()
-                .filter(k -> jKwNorm.contains(service.normalizeKeyword(k)))
-                .collect(Collectors.toList());
+            List<String> matchedUserKeywords = service.matchUserKeywords(
+                catalog, survey.getKeywords(), journal, targetYear);
             
             // 维度差异
             @SuppressWarnings("unchecked")
@@ -427,8 +464,7 @@ public class JournalController {
             model.addAttribute("targetYear", targetYear);
             model.addAttribute("matchedUserKeywords", matchedUserKeywords);
             model.addAttribute("overlayJson", objectMapper.writeValueAsString(overlay));
-            model.addAttribute("userComments", service.buildCommentsFromRow(
-                convertSurveyToMetrics(survey)));
+            model.addAttribute("userComments", profile.getUserComments());
             model.addAttribute("journalComments", service.buildCommentsFromRow(row));
             model.addAttribute("matchPct", (int) Math.round(sim * 100));
             model.addAttribute("diffs", diffs);
@@ -445,128 +481,291 @@ public class JournalController {
      */
     @PostMapping("/recommend/{journal}/ai-analysis")
     @ResponseBody
-    public Map<String, Object> recommendAIAnalysis(@PathVariable String journal, 
-                                                   HttpServletRequest request) {
+    public CompletableFuture<Map<String, Object>> recommendAIAnalysis(@PathVariable String journal, 
+                                                                      HttpServletRequest request,
+                                                                      HttpServletResponse response) {
         Map<String, Object> result = new HashMap<>();
         
-        UserSurvey survey = loadSurvey(request);
-        if (survey == null) {
+        SurveyProfile profile = loadProfile(request, response);
+        if (profile == null) {
             result.put("error", "未填写问卷，无法进行 AI 匹配分析");
-            return result;
+            return CompletableFuture.completedFuture(result);
         }
         
+        JournalCatalog.Snapshot catalog = service.fetchCatalog();
+        JournalMetrics row = catalog.getLatest(journal);
+        if (row == null) {
+            result.put("error", "未找到该期刊");
+            return CompletableFuture.completedFuture(result);
+        }
+        
+        Map<String, Object> journalRadar = service.buildRadarFromRow(row);
+        double sim = service.computeSimilarity(profile.getUserRadar(), journalRadar);
+        
+        String userPrompt;
         try {
-            JournalMetrics row = service.fetchLatestRowForJournal(journal);
-            if (row == null) {
-                result.put("error", "未找到该期刊");
+            userPrompt = buildRecommendMatchPrompt(profile, catalog, journal, row, journalRadar, sim);
+        } catch (Exception e) {
+            result.put("error", "AI 匹配分析失败：" + e.getMessage());
+            return CompletableFuture.completedFuture(result);
+        }
+        
+        String systemPrompt = aiClient.loadRecommendMatchPrompt();
+        return coalescer.completion(responseCache.key(systemPrompt, userPrompt),
+                () -> aiClient.callChatCompletionAsync(AIClient.Route.RECOMMEND_MATCH, systemPrompt, userPrompt))
+            .handle((analysis, e) -> {
+                boolean fallback = e != null && isUnavailable(e);
+                if (e != null && !fallback) {
+                    result.put("error", "AI 匹配分析失败：" + causeMessage(e));
+                    return result;
+                }
+                result.put("journal", journal);
+                result.put("year", row.getYear());
+                result.put("analysis", fallback ? buildMatchFallback(profile, row) : analysis);
+                result.put("used_model", fallback ? RULE_BASED_MODEL : aiClient.getModel());
+                result.put("fallback", fallback);
+                result.put("match_pct", (int) Math.round(sim * 100));
                 return result;
+            });
+    }
+    
+    /**
+     * 推荐期刊AI匹配分析（SSE 流式输出）
+     */
+    @GetMapping(value = "/recommend/{journal}/ai-analysis/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter recommendAIAnalysisStream(@PathVariable String journal,
+                                                HttpServletRequest request,
+                                                HttpServletResponse response) {
+        SseEmitter emitter = new SseEmitter();
+        SurveyProfile profile = loadProfile(request, response);
+        if (profile == null) {
+            sendError(emitter, "未填写问卷，无法进行 AI 匹配分析");
+            return emitter;
+        }
+        
+        JournalCatalog.Snapshot catalog = service.fetchCatalog();
+        JournalMetrics row = catalog.getLatest(journal);
+        if (row == null) {
+            sendError(emitter, "未找到该期刊");
+            return emitter;
+        }
+        
+        Map<String, Object> journalRadar = service.buildRadarFromRow(row);
+        double sim = service.computeSimilarity(profile.getUserRadar(), journalRadar);
+        String userPrompt;
+        try {
+            userPrompt = buildRecommendMatchPrompt(profile, catalog, journal, row, journalRadar, sim);
+        } catch (Exception e) {
+            sendError(emitter, "AI 匹配分析失败：" + e.getMessage());
+            return emitter;
+        }
+        
+        Map<String, Object> meta = new HashMap<>();
+        meta.put("journal", journal);
+        meta.put("year", row.getYear());
+        meta.put("used_model", aiClient.getModel());
+        meta.put("match_pct", (int) Math.round(sim * 100));
+        String systemPrompt = aiClient.loadRecommendMatchPrompt();
+        streamAnalysis(emitter, AIClient.Route.RECOMMEND_MATCH, systemPrompt, userPrompt, meta, "AI 匹配分析失败：",
+            responseCache.key(systemPrompt, userPrompt), false, buildMatchFallback(profile, row));
+        return emitter;
+    }
+    
+    // 辅助方法：依次推送 meta → delta... → done 事件，失败时推送 error 事件
+    // 相同 key 的并发请求合并为一次上游调用，跟随者在结束后一次性收到完整结果；storeResult 为 true 时写入响应缓存
+    // AI服务熔断或限流时推送 fallback 规则评语
+    private void streamAnalysis(SseEmitter emitter, AIClient.Route route, String systemPrompt, String userPrompt,
+                                Map<String, Object> meta, String errorPrefix, String key, boolean storeResult,
+                                String fallback) {
+        if (!sendEvent(emitter, "meta", meta)) {
+            return;
+        }
+        
+        boolean[] leading = {false};
+        CompletableFuture<AIClient.StreamResult> call = coalescer.stream(key, () -> {
+            leading[0] = true;
+            return aiClient.streamChatCompletion(route, systemPrompt, userPrompt, delta -> {
+                if (!sendEvent(emitter, "delta", Map.of("content", delta))) {
+                    throw new IllegalStateException("SSE client disconnected");
+                }
+            });
+        });
+        
+        boolean coalesced = !leading[0];
+        call.whenComplete((result, e) -> {
+            if (e != null && isUnavailable(e)) {
+                Map<String, Object> done = new HashMap<>();
+                done.put("used_model", RULE_BASED_MODEL);
+                done.put("usage", Map.of());
+                done.put("first_token_ms", 0);
+                done.put("total_ms", 0);
+                done.put("cached", false);
+                done.put("fallback", true);
+                sendWhole(emitter, fallback, done);
+                return;
             }
-            
-            Map<String, Object> userRadar = service.buildUserRadar(survey);
-            Map<String, Object> journalRadar = service.buildRadarFromRow(row);
-            double sim = service.computeSimilarity(userRadar, journalRadar);
-            
-            int targetYear = LocalDateTime.now().getYear();
-            List<String> jKwYear = service.pickKeywordsForYear(row, targetYear);
-            Set<String> jKwNorm = jKwYear.stream()
-                .map(service::normalizeKeyword)
-                .filter(s -> !s.isEmpty())
-                .collect(Collectors.toSet());
-            
-            List<String> matchedUserKeywords = survey.getKeywords().stream()
-                .filter(k -> jKwNorm.contains(service.normalizeKeyword(k)))
-                .collect(Collectors.toList());
-            
-            // 构建维度差异
-            @SuppressWarnings("unchecked")
-            List<Double> uVals = (List<Double>) userRadar.get("values");
-            @SuppressWarnings("unchecked")
-            List<Double> jVals = (List<Double>) journalRadar.get("values");
-            @SuppressWarnings("unchecked")
-            List<String> labels = (List<String>) userRadar.get("labels");
-            
-            double[] ranges = {200.0, 100.0, 100.0, 100.0, 100.0};
-            List<Map<String, Object>> diffs = new ArrayList<>();
-            
-            for (int i = 0; i < labels.size(); i++) {
-                Map<String, Object> diff = new HashMap<>();
-                diff.put("dim", labels.get(i));
-                diff.put("user", uVals.get(i));
-                diff.put("journal", jVals.get(i));
-                diff.put("gap", Math.abs(uVals.get(i) - jVals.get(i)));
-                int dimMatch = (int) Math.round((1.0 - (Math.abs(uVals.get(i) - jVals.get(i)) / ranges[i])) * 100);
-                diff.put("match", Math.max(0, dimMatch));
-                diffs.add(diff);
+            if (e != null) {
+                sendError(emitter, errorPrefix + causeMessage(e));
+                return;
             }
-            
-            // 构建AI请求payload
-            Map<String, Object> payload = new HashMap<>();
-            
-            Map<String, Object> surveyData = new HashMap<>();
-            surveyData.put("keywords", survey.getKeywords());
-            Map<String, Double> scores = new HashMap<>();
-            scores.put("novelty", survey.getNovelty());
-            scores.put("disruption", survey.getDisruption());
-            scores.put("interdisciplinary", survey.getInterdisciplinary());
-            scores.put("theme_concentration", survey.getThemeConcentration());
-            scores.put("topic", survey.getTopic());
-            scores.put("hot_response", survey.getHotResponse());
-            surveyData.put("scores", scores);
-            surveyData.put("created_at", survey.getCreatedAt());
-            payload.put("survey", surveyData);
-            
-            Map<String, Object> authorProfile = new HashMap<>();
-            authorProfile.put("radar", userRadar);
-            authorProfile.put("rule_based_comments", service.buildCommentsFromRow(
-                convertSurveyToMetrics(survey)));
-            payload.put("author_profile", authorProfile);
-            
-            Map<String, Object> journalData = new HashMap<>();
-            journalData.put("name", journal);
-            journalData.put("latest_year", row.getYear());
-            
-            Map<String, Object> metrics = new HashMap<>();
-            metrics.put("disruption", row.getDisruption());
-            metrics.put("novelty", row.getNovelty());
-            metrics.put("interdisciplinary", row.getInterdisciplinary());
-            metrics.put("theme_concentration", row.getThemeConcentration());
-            metrics.put("topic", row.getTopic());
-            metrics.put("hot_response", row.getHotResponse());
-            metrics.put("paper_count", row.getPaperCount());
-            metrics.put("category", row.getCategory());
-            journalData.put("metrics", metrics);
-            
-            journalData.put("radar", journalRadar);
-            journalData.put("rule_based_comments", service.buildCommentsFromRow(row));
-            journalData.put("top_keywords_2021_2025", service.pickTopKeywords(row));
-            journalData.put("target_year", targetYear);
-            journalData.put("target_year_keywords", jKwYear);
-            payload.put("journal", journalData);
-            
-            Map<String, Object> match = new HashMap<>();
-            match.put("overall_match_pct", (int) Math.round(sim * 100));
-            match.put("matched_keywords", matchedUserKeywords);
-            match.put("dimension_diffs", diffs);
-            payload.put("match", match);
-            
-            String systemPrompt = aiClient.loadRecommendMatchPrompt();
-            String userPrompt = "请基于下面 JSON 输入，对作者画像与该期刊的适配性做一次分析，并给出投稿建议。\n" +
-                "注意：不得编造不存在的字段或数据。\n\n" +
-                objectMapper.writeValueAsString(payload);
-            
-            String analysis = aiClient.callChatCompletion(systemPrompt, userPrompt);
-            
-            result.put("journal", journal);
-            result.put("year", row.getYear());
-            result.put("analysis", analysis);
-            result.put("used_model", aiClient.getConfig().get("model"));
-            result.put("match_pct", (int) Math.round(sim * 100));
-            
+            if (storeResult && !coalesced) {
+                responseCache.store(key, result.getContent(), result.getTotalMillis());
+            }
+            Map<String, Object> done = new HashMap<>();
+            done.put("used_model", result.getModel() != null ? result.getModel() : meta.get("used_model"));
+            done.put("usage", result.getUsage());
+            done.put("first_token_ms", result.getFirstTokenMillis());
+            done.put("total_ms", result.getTotalMillis());
+            done.put("cached", false);
+            done.put("coalesced", coalesced);
+            if (coalesced) {
+                // 跟随者未收到增量，一次性推送完整内容
+                sendWhole(emitter, result.getContent(), done);
+            } else if (sendEvent(emitter, "done", done)) {
+                emitter.complete();
+            }
+        });
+    }
+    
+    // 辅助方法：以单个 delta 推送完整结果并结束流
+    private void sendWhole(SseEmitter emitter, String content, Map<String, Object> done) {
+        if (sendEvent(emitter, "delta", Map.of("content", content))
+                && sendEvent(emitter, "done", done)) {
+            emitter.complete();
+        }
+    }
+    
+    // 辅助方法：推送单个SSE事件，客户端已断开时返回false
+    private boolean sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            return true;
         } catch (Exception e) {
-            result.put("error", "AI 匹配分析失败：" + e.getMessage());
+            emitter.completeWithError(e);
+            return false;
         }
+    }
+    
+    // 辅助方法：推送错误事件并结束流
+    private void sendError(SseEmitter emitter, String message) {
+        if (sendEvent(emitter, "error", Map.of("error", message))) {
+            emitter.complete();
+        }
+    }
+    
+    // 辅助方法：构建作者-期刊匹配分析的用户提示词
+    private String buildRecommendMatchPrompt(SurveyProfile profile, JournalCatalog.Snapshot catalog,
+                                             String journal, JournalMetrics row,
+                                             Map<String, Object> journalRadar, double sim) throws Exception {
+        UserSurvey survey = profile.getSurvey();
+        Map<String, Object> userRadar = profile.getUserRadar();
         
-        return result;
+        int targetYear = LocalDateTime.now().getYear();
+        List<String> jKwYear = catalog.getKeywordIndex().forYear(targetYear)
+            .keywords(catalog.ordinalOf(journal));
+        List<String> matchedUserKeywords = service.matchUserKeywords(
+            catalog, survey.getKeywords(), journal, targetYear);
+        
+        // 构建维度差异
+        @SuppressWarnings("unchecked")
+        List<Double> uVals = (List<Double>) userRadar.get("values");
+        @SuppressWarnings("unchecked")
+        List<Double> jVals = (List<Double>) journalRadar.get("values");
+        @SuppressWarnings("unchecked")
+        List<String> labels = (List<String>) userRadar.get("labels");
+        
+        double[] ranges = {200.0, 100.0, 100.0, 100.0, 100.0};
+        List<Map<String, Object>> diffs = new ArrayList<>();
+        
+        for (int i = 0; i < labels.size(); i++) {
+            Map<String, Object> diff = new HashMap<>();
+            diff.put("dim", labels.get(i));
+            diff.put("user", uVals.get(i));
+            diff.put("journal", jVals.get(i));
+            diff.put("gap", Math.abs(uVals.get(i) - jVals.get(i)));
+            int dimMatch = (int) Math.round((1.0 - (Math.abs(uVals.get(i) - jVals.get(i)) / ranges[i])) * 100);
+            diff.put("match", Math.max(0, dimMatch));
+            diffs.add(diff);
+        }
+        
+        // 构建AI请求payload
+        Map<String, Object> payload = new HashMap<>();
+        
+        Map<String, Object> surveyData = new HashMap<>();
+        surveyData.put("keywords", survey.getKeywords());
+        Map<String, Double> scores = new HashMap<>();
+        scores.put("novelty", survey.getNovelty());
+        scores.put("disruption", survey.getDisruption());
+        scores.put("interdisciplinary", survey.getInterdisciplinary());
+        scores.put("theme_concentration", survey.getThemeConcentration());
+        scores.put("topic", survey.getTopic());
+        scores.put("hot_response", survey.getHotResponse());
+        surveyData.put("scores", scores);
+        surveyData.put("created_at", survey.getCreatedAt());
+        payload.put("survey", surveyData);
+        
+        Map<String, Object> authorProfile = new HashMap<>();
+        authorProfile.put("radar", userRadar);
+        authorProfile.put("rule_based_comments", profile.getUserComments());
+        payload.put("author_profile", authorProfile);
+        
+        Map<String, Object> journalData = new HashMap<>();
+        journalData.put("name", journal);
+        journalData.put("latest_year", row.getYear());
+        
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("disruption", row.getDisruption());
+        metrics.put("novelty", row.getNovelty());
+        metrics.put("interdisciplinary", row.getInterdisciplinary());
+        metrics.put("theme_concentration", row.getThemeConcentration());
+        metrics.put("topic", row.getTopic());
+        metrics.put("hot_response", row.getHotResponse());
+        metrics.put("paper_count", row.getPaperCount());
+        metrics.put("category", row.getCategory());
+        journalData.put("metrics", metrics);
+        
+        journalData.put("radar", journalRadar);
+        journalData.put("rule_based_comments", service.buildCommentsFromRow(row));
+        journalData.put("top_keywords_2021_2025", service.pickTopKeywords(row));
+        journalData.put("target_year", targetYear);
+        journalData.put("target_year_keywords", jKwYear);
+        payload.put("journal", journalData);
+        
+        Map<String, Object> match = new HashMap<>();
+        match.put("overall_match_pct", (int) Math.round(sim * 100));
+        match.put("matched_keywords", matchedUserKeywords);
+        match.put("dimension_diffs", diffs);
+        payload.put("match", match);
+        
+        return "请基于下面 JSON 输入，对作者画像与该期刊的适配性做一次分析，并给出投稿建议。\n" +
+            "注意：不得编造不存在的字段或数据。\n\n" +
+            objectMapper.writeValueAsString(payload);
+    }
+    
+    // 辅助方法：作者-期刊匹配的兜底分析（AI服务不可用时）
+    private String buildMatchFallback(SurveyProfile profile, JournalMetrics row) {
+        Map<String, String> comments = new HashMap<>();
+        profile.getUserComments().forEach((dim, text) -> comments.put("作者·" + dim, text));
+        service.buildCommentsFromRow(row).forEach((dim, text) -> comments.put("期刊·" + dim, text));
+        return service.buildFallbackAnalysis(comments);
+    }
+    
+    // 辅助方法：取异步异常的根因
+    private static Throwable rootCause(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof UncheckedIOException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+    
+    // 辅助方法：取异步异常的根因信息
+    private static String causeMessage(Throwable e) {
+        return rootCause(e).getMessage();
+    }
+    
+    // 辅助方法：是否为熔断/限流导致的失败
+    private static boolean isUnavailable(Throwable e) {
+        return rootCause(e) instanceof AIUnavailableException;
     }
     
     /**
@@ -44,6 +44,64 @@ public class AnalysisDAO {
         return mysqlHelper.executeSQL(sql, analysisResult, filename);
     }
     
+    /**
+     * 创建排队中的分析任务记录
+     */
+    public String saveJobRecord(String username, String filename, String originalName, String jobId) {
+        String sql = "INSERT INTO analysis_record (username, filename, original_name, status, job_id, updated_at) " +
+                     "VALUES (?, ?, ?, 'QUEUED', ?, CURRENT_TIMESTAMP)";
+        return mysqlHelper.executeSQL(sql, username, filename, originalName, jobId);
+    }
+    
+    /**
+     * 更新分析任务状态
+     */
+    public String updateJobStatus(String filename, String jobId, String status, String errorMessage) {
+        String sql = "UPDATE analysis_record SET job_id = ?, status = ?, error_message = ?, " +
+                     "updated_at = CURRENT_TIMESTAMP WHERE filename = ?";
+        return mysqlHelper.executeSQL(sql, jobId, status, errorMessage, filename);
+    }
+    
+    /**
+     * 分析任务成功，写入结果
+     */
+    public String completeJob(String filename, String analysisResult) {
+        String sql = "UPDATE analysis_record SET analysis_result = ?, status = 'SUCCEEDED', error_message = NULL, " +
+                     "updated_at = CURRENT_TIMESTAMP WHERE filename = ?";
+        return mysqlHelper.executeSQL(sql, analysisResult, filename);
+    }
+    
+    /**
+     * 将上次运行中断（排队或运行中）的任务标记为失败
+     */
+    public String failInterruptedJobs(String errorMessage) {
+        String sql = "UPDATE analysis_record SET status = 'FAILED', error_message = ?, " +
+                     "updated_at = CURRENT_TIMESTAMP WHERE status IN ('QUEUED', 'RUNNING')";
+        return mysqlHelper.executeSQL(sql, errorMessage);
+    }
+    
+    /**
+     * 根据任务ID获取记录
+     */
+    public AnalysisRecord getByJobId(String jobId) {
+        String sql = "SELECT * FROM analysis_record WHERE job_id = ?";
+        Map<String, Object> result = mysqlHelper.executeSQLWithSelect(sql, jobId);
+        
+        String error = (String) result.get("error");
+        if (error != null && !error.isEmpty()) {
+            return null;
+        }
+        
+        try (ResultSet rs = (ResultSet) result.get("result")) {
+            if (rs != null && rs.next()) {
+                return mapResultSetToRecord(rs);
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to query analysis job: " + e.getMessage());
+        }
+        return null;
+    }
+    
     /**
      * 根据文件名获取记录
      */
@@ -130,6 +188,9 @@ public class AnalysisDAO {
         record.setOriginalName(rs.getString("original_name"));
         record.setFileSize(rs.getLong("file_size"));
         record.setAnalysisResult(rs.getString("analysis_result"));
+        record.setStatus(rs.getString("status"));
+        record.setJobId(rs.getString("job_id"));
+        record.setErrorMessage(rs.getString("error_message"));
         
         String createdAt = rs.getString("created_at");
         if (createdAt != null) {
@@ -14,6 +14,9 @@ public class AnalysisRecord {
     private String originalName;       // 原始文件名
     private Long fileSize;             // 文件大小（字节）
     private String analysisResult;     // 分析结果（JSON格式）
+    private String status;             // 分析任务状态（QUEUED/RUNNING/SUCCEEDED/FAILED）
+    private String jobId;              // 分析任务ID
+    private String errorMessage;       // 分析失败原因
     private LocalDateTime createdAt;   // 创建时间
     
     public AnalysisRecord() {}
@@ -44,6 +47,15 @@ public class AnalysisRecord {
     public String getAnalysisResult() { return analysisResult; }
     public void setAnalysisResult(String analysisResult) { this.analysisResult = analysisResult; }
 
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
@@ -0,0 +1,76 @@
+package com.paper.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 论文数据表（按列存储的原始文本）
+ * 对应 Python 分析中合并后的 DataFrame：多个 CSV 按列名对齐，缺失值为 null
+ */
+public class PaperTable {
+
+    private final Map<String, List<String>> columns = new LinkedHashMap<>();
+    private final List<String> sourceFiles = new ArrayList<>();
+    private int rowCount = 0;
+
+    /**
+     * 追加一个文件的数据（按列名对齐，对应 pd.concat(ignore_index=True)）
+     *
+     * @param fileName 文件名
+     * @param header 列名
+     * @param rows 行数据，每行长度不超过列数，缺失值为 null
+     */
+    public void append(String fileName, List<String> header, List<String[]> rows) {
+        for (String name : header) {
+            columns.computeIfAbsent(name, k -> new ArrayList<>(Collections.nCopies(rowCount, null)));
+        }
+        for (Map.Entry<String, List<String>> entry : columns.entrySet()) {
+            int index = header.indexOf(entry.getKey());
+            List<String> values = entry.getValue();
+            for (String[] row : rows) {
+                values.add(index >= 0 && index < row.length ? row[index] : null);
+            }
+        }
+        rowCount += rows.size();
+        sourceFiles.add(fileName);
+    }
+
+    /** 行数 */
+    public int size() {
+        return rowCount;
+    }
+
+    public boolean hasColumn(String column) {
+        return columns.containsKey(column);
+    }
+
+    /**
+     * 获取单元格文本
+     *
+     * @return 缺失值或列不存在时返回 null
+     */
+    public String get(String column, int row) {
+        List<String> values = columns.get(column);
+        return values == null ? null : values.get(row);
+    }
+
+    /**
+     * 删除一列（释放其文本），不存在时忽略
+     */
+    public void removeColumn(String column) {
+        columns.remove(column);
+    }
+
+    /** 列名（按首次出现顺序） */
+    public List<String> getColumns() {
+        return new ArrayList<>(columns.keySet());
+    }
+
+    /** 已读入的文件名 */
+    public List<String> getSourceFiles() {
+        return Collections.unmodifiableList(sourceFiles);
+    }
+}
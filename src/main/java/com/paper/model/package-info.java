@@ -7,5 +7,6 @@
  * @see com.paper.model.Paper 论文实体
  * @see com.paper.model.Author 作者实体
  * @see com.paper.model.Keyword 关键词实体
+ * @see com.paper.model.PaperTable 分析用论文数据表
  */
 package com.paper.model;
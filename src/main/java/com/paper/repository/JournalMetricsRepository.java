@@ -79,4 +79,10 @@ public interface JournalMetricsRepository extends JpaRepository<JournalMetrics,
      */
     @Query("SELECT COUNT(DISTINCT j.journal) FROM JournalMetrics j")
     long countDistinctJournals();
+    
+    /**
+     * 表指纹（行数 + 最大id），用于判断指标是否被重新写入
+     */
+    @Query("SELECT COUNT(j), MAX(j.id) FROM JournalMetrics j")
+    List<Object[]> findFingerprint();
 }
@@ -0,0 +1,50 @@
+package com.paper.service;
+
+import com.paper.utils.AIClient;
+import com.paper.utils.SingleFlight;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * AI请求合并 - 相同提示词键的并发请求只向上游发起一次
+ * <p>键使用 {@link AIResponseCache#key} 的内容哈希。普通调用与流式调用分开合并：
+ * 流式调用的跟随者不接收增量，等首个调用结束后一次性拿到完整结果。</p>
+ */
+@Component
+public class AIRequestCoalescer {
+
+    private final SingleFlight<String, String> completions = new SingleFlight<>();
+    private final SingleFlight<String, AIClient.StreamResult> streams = new SingleFlight<>();
+
+    /**
+     * 合并普通调用
+     */
+    public CompletableFuture<String> completion(String key, Supplier<CompletableFuture<String>> loader) {
+        return completions.execute(key, loader);
+    }
+
+    /**
+     * 合并流式调用，只有首个调用者的 loader 会被执行（可据此判断是否需要自行推送增量）
+     */
+    public CompletableFuture<AIClient.StreamResult> stream(String key,
+                                                           Supplier<CompletableFuture<AIClient.StreamResult>> loader) {
+        return streams.execute(key, loader);
+    }
+
+    /**
+     * 合并统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, Object> completionStats = completions.stats();
+        Map<String, Object> streamStats = streams.stats();
+        stats.put("completion", completionStats);
+        stats.put("stream", streamStats);
+        stats.put("coalesced", (long) completionStats.get("coalesced") + (long) streamStats.get("coalesced"));
+        return stats;
+    }
+}
@@ -0,0 +1,252 @@
+package com.paper.service;
+
+import com.paper.config.AICacheProperties;
+import com.paper.utils.AIClient;
+import com.paper.utils.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * AI响应缓存 - 以内容哈希为键缓存大模型的分析结果
+ * <p>键为 SHA-256(系统提示词, 模型名, 用户提示词)，用户提示词中已包含序列化后的指标数据，
+ * 数据不变则键不变。内存层为有界LRU，其下是 ai_response_cache 表，重启后仍可命中。</p>
+ * <p>期刊目录快照指纹变化（指标重新上传）时，旧指纹下的条目整体失效。</p>
+ */
+@Component
+public class AIResponseCache {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JournalCatalog catalog;
+    private final AIClient aiClient;
+    private final AICacheProperties properties;
+    private final LruCache<String, Entry> memory;
+    private volatile String catalogFingerprint;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong savedLatencyMillis = new AtomicLong();
+
+    @Autowired
+    public AIResponseCache(JdbcTemplate jdbcTemplate, JournalCatalog catalog,
+                           AIClient aiClient, AICacheProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalog = catalog;
+        this.aiClient = aiClient;
+        this.properties = properties;
+        this.memory = new LruCache<>(properties.getMemorySize(), 0, false);
+    }
+
+    /**
+     * 计算缓存键
+     */
+    public String key(String systemPrompt, String userPrompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, systemPrompt);
+            update(digest, aiClient.getModel());
+            update(digest, userPrompt);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 查询缓存（先内存后数据库），未命中返回 null
+     */
+    public String lookup(String key) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        String fingerprint = checkCatalog();
+        long now = System.currentTimeMillis();
+
+        Entry entry = memory.get(key);
+        if (entry != null && !isExpired(entry, now)) {
+            memoryHits.incrementAndGet();
+            savedLatencyMillis.addAndGet(entry.latencyMillis);
+            return entry.response;
+        }
+        if (entry != null) {
+            memory.remove(key);
+        }
+
+        entry = loadFromDisk(key, fingerprint);
+        if (entry != null && !isExpired(entry, now)) {
+            memory.put(key, entry);
+            diskHits.incrementAndGet();
+            savedLatencyMillis.addAndGet(entry.latencyMillis);
+            return entry.response;
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 写入缓存
+     *
+     * @param latencyMillis 本次调用耗时，命中时计入节省的耗时
+     */
+    public void store(String key, String response, long latencyMillis) {
+        if (!properties.isEnabled() || response == null || response.isEmpty()) {
+            return;
+        }
+        String fingerprint = checkCatalog();
+        Entry entry = new Entry(response, latencyMillis, System.currentTimeMillis());
+        memory.put(key, entry);
+        stores.incrementAndGet();
+
+        try {
+            jdbcTemplate.update(
+                "REPLACE INTO ai_response_cache " +
+                "(cache_key, model, catalog_fingerprint, response, latency_ms, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                key, aiClient.getModel(), fingerprint, response, latencyMillis, entry.createdAt);
+        } catch (DataAccessException e) {
+            System.err.println("[AIResponseCache] 写入缓存表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 命中直接返回，未命中时调用 loader 并缓存其结果
+     */
+    public CompletableFuture<String> getOrLoad(String key, Supplier<CompletableFuture<String>> loader) {
+        String cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long start = System.currentTimeMillis();
+        return loader.get().thenApply(response -> {
+            store(key, response, System.currentTimeMillis() - start);
+            return response;
+        });
+    }
+
+    /**
+     * 定时清理数据库中已过期的条目
+     */
+    @Scheduled(fixedDelay = 60 * 60 * 1000L, initialDelay = 60 * 1000L)
+    public void purgeExpired() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            int removed = jdbcTemplate.update("DELETE FROM ai_response_cache WHERE created_at < ?",
+                System.currentTimeMillis() - ttlMillis());
+            if (removed > 0) {
+                System.out.println("[AIResponseCache] 清理过期条目: " + removed);
+            }
+        } catch (DataAccessException e) {
+            System.err.println("[AIResponseCache] 清理缓存表失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        long hits = memoryHits.get() + diskHits.get();
+        long total = hits + misses.get();
+        stats.put("memory_size", memory.size());
+        stats.put("memory_hits", memoryHits.get());
+        stats.put("disk_hits", diskHits.get());
+        stats.put("misses", misses.get());
+        stats.put("hit_ratio", total == 0 ? 0.0 : (double) hits / total);
+        stats.put("stores", stores.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("saved_latency_ms", savedLatencyMillis.get());
+        stats.put("catalog_fingerprint", catalogFingerprint);
+        return stats;
+    }
+
+    /**
+     * 快照指纹变化时清除旧指纹下的条目，返回当前指纹
+     */
+    private String checkCatalog() {
+        String fingerprint = catalog.current().getFingerprint();
+        if (fingerprint.equals(catalogFingerprint)) {
+            return fingerprint;
+        }
+        synchronized (this) {
+            if (!fingerprint.equals(catalogFingerprint)) {
+                memory.clear();
+                try {
+                    int removed = jdbcTemplate.update(
+                        "DELETE FROM ai_response_cache WHERE catalog_fingerprint <> ?", fingerprint);
+                    if (removed > 0) {
+                        System.out.println("[AIResponseCache] 期刊指标已更新，失效条目: " + removed);
+                    }
+                } catch (DataAccessException e) {
+                    System.err.println("[AIResponseCache] 清理缓存表失败: " + e.getMessage());
+                }
+                if (catalogFingerprint != null) {
+                    invalidations.incrementAndGet();
+                }
+                catalogFingerprint = fingerprint;
+            }
+        }
+        return fingerprint;
+    }
+
+    private Entry loadFromDisk(String key, String fingerprint) {
+        try {
+            List<Entry> rows = jdbcTemplate.query(
+                "SELECT response, latency_ms, created_at FROM ai_response_cache " +
+                "WHERE cache_key = ? AND catalog_fingerprint = ?",
+                (rs, rowNum) -> new Entry(rs.getString("response"), rs.getLong("latency_ms"),
+                    rs.getLong("created_at")),
+                key, fingerprint);
+            return rows.isEmpty() ? null : rows.get(0);
+        } catch (DataAccessException e) {
+            System.err.println("[AIResponseCache] 读取缓存表失败: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt > ttlMillis();
+    }
+
+    private long ttlMillis() {
+        return properties.getTtlHours() * 3_600_000L;
+    }
+
+    private static void update(MessageDigest digest, String part) {
+        if (part != null) {
+            digest.update(part.getBytes(StandardCharsets.UTF_8));
+        }
+        // 分隔符避免不同切分拼出相同字节
+        digest.update((byte) 0);
+    }
+
+    private static final class Entry {
+        final String response;
+        final long latencyMillis;
+        final long createdAt;
+
+        Entry(String response, long latencyMillis, long createdAt) {
+            this.response = response;
+            this.latencyMillis = latencyMillis;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.paper.service;
+
+import com.paper.config.AIChatProperties;
+import com.paper.utils.AIClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 分析页AI助手 - 通过AI网关的 CHAT 路由对话
+ * 分析结果经 {@link AnalysisContextBuilder} 压缩后放入系统提示词，并附带会话中最近几轮对话；
+ * 未配置 API Key、上游失败或熔断时使用关键词匹配的兜底回复（不计入会话历史）
+ */
+@Service
+public class AnalysisChatService {
+
+    private static final String SYSTEM_PROMPT = "你是一个学术论文分析助手，帮助用户理解和分析学术论文数据。用中文回答。";
+
+    private final AIClient aiClient;
+    private final AnalysisContextBuilder contextBuilder;
+    private final AIChatProperties properties;
+
+    @Autowired
+    public AnalysisChatService(AIClient aiClient, AnalysisContextBuilder contextBuilder,
+                               AIChatProperties properties) {
+        this.aiClient = aiClient;
+        this.contextBuilder = contextBuilder;
+        this.properties = properties;
+    }
+
+    /**
+     * AI对话（异步），失败时返回兜底回复而不是异常
+     *
+     * @param session 对话会话，成功的回复会追加到其历史中
+     * @param message 用户消息
+     */
+    public CompletableFuture<String> chatAsync(ChatSession session, String message) {
+        String context = contextBuilder.render(session.getContext(), message);
+        if (!aiClient.isConfigured()) {
+            return CompletableFuture.completedFuture(fallbackChat(message, context));
+        }
+
+        String systemPrompt = SYSTEM_PROMPT;
+        if (context != null && !context.isEmpty()) {
+            systemPrompt += "\n\n当前分析结果：" + context;
+        }
+
+        List<Map<String, String>> messages = new ArrayList<>();
+        messages.add(Map.of("role", "system", "content", systemPrompt));
+        messages.addAll(session.historySnapshot());
+        messages.add(Map.of("role", "user", "content", message));
+
+        return aiClient.chatAsync(AIClient.Route.CHAT, messages)
+            .thenApply(reply -> {
+                session.appendTurn(message, reply, properties.getHistoryTurns(), properties.getHistoryTokenBudget());
+                return reply;
+            })
+            .exceptionally(e -> {
+                System.err.println("AI call failed: " + e.getMessage());
+                return fallbackChat(message, context);
+            });
+    }
+
+    /**
+     * 简单关键词匹配回复（未配置 API 时使用）
+     */
+    private String fallbackChat(String message, String context) {
+        String msg = message.toLowerCase();
+
+        if (msg.contains("论文") || msg.contains("paper")) {
+            return "您可以上传论文数据文件（JSON/CSV），然后点击\"运行数据分析\"获取统计结果。";
+        }
+        if (msg.contains("引用") || msg.contains("citation")) {
+            return "系统会统计平均引用数、最高被引论文等信息。";
+        }
+        if (msg.contains("分析") || msg.contains("analysis")) {
+            return "支持：论文数量统计、引用分析、领域分布、国家分布等。";
+        }
+        if (msg.contains("帮助") || msg.contains("help")) {
+            return "主要功能：1.上传数据 2.运行分析 3.AI助手\n\n配置 DEEPSEEK_API_KEY 可获得智能对话。";
+        }
+        if (context != null && !context.isEmpty()) {
+            return "当前分析结果：" + context;
+        }
+        return "我是论文分析助手。请在 .env 中配置 DEEPSEEK_API_KEY 以启用智能对话。";
+    }
+}
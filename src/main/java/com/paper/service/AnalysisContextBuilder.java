@@ -0,0 +1,348 @@
+package com.paper.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paper.config.AIChatProperties;
+import com.paper.utils.LruCache;
+import com.paper.utils.TokenUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 分析结果上下文压缩 - 把 analysis_result JSON 转成按 token 预算裁剪的对话上下文
+ *
+ * <p>始终附带一段摘要（数据概况、发文量前几的期刊、各指标前几名）；列清单、文件清单与各指标明细表
+ * 只在用户问题提到对应内容时按预算逐行附加。输出文件路径等与对话无关的字段不进入上下文。</p>
+ *
+ * <p>解析与摘要结果按分析记录 id 缓存；前端直接传入的上下文没有 id，按内容哈希缓存。</p>
+ */
+@Component
+public class AnalysisContextBuilder {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** 摘要中每个指标列出的期刊数 */
+    private static final int SUMMARY_TOP_N = 3;
+    /** 摘要中列出的发文量前几名期刊 */
+    private static final int SUMMARY_TOP_JOURNALS = 5;
+    /** 问题中出现这些词时附带全部指标明细 */
+    private static final String[] ALL_METRICS_ALIASES = {"指标", "明细", "详细", "全部", "metric"};
+    /** 为“其余 N 行省略”提示预留的 token */
+    private static final int OMIT_NOTE_TOKENS = 12;
+
+    /**
+     * 明细分区：JSON 字段、显示名、问题中的触发词
+     * <p>触发词按子串匹配，不用单字或短英文词（如“列”会命中“系列”“列出”，hot 会命中 photo）</p>
+     */
+    private enum Section {
+        COLUMNS("columns", "数据列", false, "数据列", "列名", "字段", "column"),
+        FILES("processed_files", "已处理文件", false, "文件", "file"),
+        TOP_JOURNALS("top_journals", "期刊发文量", false, "发文", "期刊分布", "期刊排名", "top_journal"),
+        DISRUPTION("disruption", "颠覆性指数", true, "颠覆", "突破", "disrupt"),
+        INTERDISCIPLINARY("interdisciplinary", "跨学科性", true, "跨学科", "交叉", "interdisciplin"),
+        NOVELTY("novelty", "新颖性", true, "新颖", "创新", "novel"),
+        TOPIC("topic", "主题复杂度", true, "复杂度", "熵", "话题", "topic", "entropy"),
+        THEME("theme", "主题热度", true, "热度", "热点", "集中度", "theme", "hot_response");
+
+        private final String field;
+        private final String title;
+        private final boolean metric;
+        private final String[] aliases;
+
+        Section(String field, String title, boolean metric, String... aliases) {
+            this.field = field;
+            this.title = title;
+            this.metric = metric;
+            this.aliases = aliases;
+        }
+
+        boolean referencedBy(String question, boolean allMetrics) {
+            if (metric && allMetrics) return true;
+            for (String alias : aliases) {
+                if (question.contains(alias)) return true;
+            }
+            return false;
+        }
+    }
+
+    private final AIChatProperties properties;
+    private final LruCache<String, CompactContext> cache;
+
+    @Autowired
+    public AnalysisContextBuilder(AIChatProperties properties) {
+        this.properties = properties;
+        this.cache = new LruCache<>(properties.getContextCacheSize(), 0, false);
+    }
+
+    /**
+     * 构造本轮对话的上下文
+     *
+     * @param context 压缩后的分析结果，可为 null
+     * @param question 用户问题，决定附带哪些明细
+     * @return 不超过 token 预算的上下文，无分析结果时为空串
+     */
+    public String render(CompactContext context, String question) {
+        return context == null ? "" : context.render(question, properties.getContextTokenBudget());
+    }
+
+    /**
+     * 压缩分析结果（带缓存）
+     *
+     * @param analysisId 分析记录 id，前端传入的上下文为 null
+     * @param analysisJson analysis_result JSON
+     * @return 压缩结果，无分析结果时为 null
+     */
+    public CompactContext compact(Long analysisId, String analysisJson) {
+        if (analysisJson == null || analysisJson.isBlank()) {
+            return null;
+        }
+        // 同一记录重新分析后 id 不变，键中带上内容长度与哈希
+        String key = analysisId != null
+            ? "record:" + analysisId + ":" + analysisJson.length() + ":" + analysisJson.hashCode()
+            : "sha:" + sha256(analysisJson);
+        CompactContext context = cache.get(key);
+        if (context == null) {
+            context = CompactContext.parse(key, analysisJson);
+            cache.put(key, context);
+        }
+        return context;
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 压缩后的分析结果：固定摘要 + 按分区预渲染的明细行
+     */
+    public static final class CompactContext {
+        private final String key;
+        private final String summary;
+        private final Map<Section, List<String>> sections;
+
+        private CompactContext(String key, String summary, Map<Section, List<String>> sections) {
+            this.key = key;
+            this.summary = summary;
+            this.sections = sections;
+        }
+
+        /** 缓存键，可用于判断两份上下文是否来自同一分析结果 */
+        public String getKey() {
+            return key;
+        }
+
+        public String getSummary() {
+            return summary;
+        }
+
+        static CompactContext parse(String key, String analysisJson) {
+            JsonNode root;
+            try {
+                root = objectMapper.readTree(analysisJson);
+            } catch (IOException e) {
+                root = null;
+            }
+            if (root == null || !root.isObject()) {
+                // 非 JSON 上下文原样保留，由预算截断
+                return new CompactContext(key, analysisJson.strip(), Map.of());
+            }
+
+            Map<Section, List<String>> sections = new LinkedHashMap<>();
+            for (Section section : Section.values()) {
+                List<String> rows = renderRows(root.get(section.field));
+                if (!rows.isEmpty()) {
+                    sections.put(section, rows);
+                }
+            }
+            return new CompactContext(key, buildSummary(root), sections);
+        }
+
+        /**
+         * 按问题选取明细，整体不超过 token 预算
+         */
+        String render(String question, int tokenBudget) {
+            String summaryPart = TokenUtils.truncate(summary, tokenBudget);
+            StringBuilder sb = new StringBuilder(summaryPart);
+            int remaining = tokenBudget - TokenUtils.estimate(summaryPart);
+
+            String q = question == null ? "" : question.toLowerCase(Locale.ROOT);
+            boolean allMetrics = false;
+            for (String alias : ALL_METRICS_ALIASES) {
+                if (q.contains(alias)) {
+                    allMetrics = true;
+                    break;
+                }
+            }
+
+            for (Map.Entry<Section, List<String>> entry : sections.entrySet()) {
+                if (!entry.getKey().referencedBy(q, allMetrics)) continue;
+
+                String header = "\n\n【" + entry.getKey().title + "明细】";
+                int headerTokens = TokenUtils.estimate(header);
+                if (remaining <= headerTokens + OMIT_NOTE_TOKENS) break;
+                sb.append(header);
+                remaining -= headerTokens;
+
+                List<String> rows = entry.getValue();
+                int shown = 0;
+                for (String row : rows) {
+                    String line = "\n" + row;
+                    int tokens = TokenUtils.estimate(line);
+                    if (tokens > remaining - OMIT_NOTE_TOKENS) break;
+                    sb.append(line);
+                    remaining -= tokens;
+                    shown++;
+                }
+                if (shown < rows.size()) {
+                    String omitted = "\n…其余 " + (rows.size() - shown) + " 行省略";
+                    sb.append(omitted);
+                    remaining -= TokenUtils.estimate(omitted);
+                }
+            }
+            return sb.toString();
+        }
+
+        private static String buildSummary(JsonNode root) {
+            List<String> lines = new ArrayList<>();
+
+            List<String> overview = new ArrayList<>();
+            if (root.has("total_records")) overview.add("共 " + root.get("total_records").asLong() + " 条记录");
+            if (root.has("total_files")) overview.add("来自 " + root.get("total_files").asInt() + " 个文件");
+            if (root.has("journal_count")) overview.add("期刊 " + root.get("journal_count").asInt() + " 种");
+            JsonNode years = root.get("year_range");
+            if (years != null && years.has("min") && years.has("max")) {
+                overview.add("年份 " + years.get("min").asInt() + "-" + years.get("max").asInt());
+            }
+            if (root.has("has_keywords")) overview.add("含关键词 " + root.get("has_keywords").asLong() + " 条");
+            if (root.has("has_citations")) overview.add("含引用 " + root.get("has_citations").asLong() + " 条");
+            if (!overview.isEmpty()) {
+                lines.add("数据概况：" + String.join("，", overview));
+            }
+
+            JsonNode topJournals = root.get("top_journals");
+            if (topJournals != null && topJournals.isObject() && topJournals.size() > 0) {
+                List<String> items = new ArrayList<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = topJournals.fields();
+                while (fields.hasNext() && items.size() < SUMMARY_TOP_JOURNALS) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    items.add(field.getKey() + "(" + formatValue(field.getValue()) + ")");
+                }
+                lines.add("发文量前" + items.size() + "的期刊：" + String.join("、", items));
+            }
+
+            for (Section section : Section.values()) {
+                if (!section.metric) continue;
+                JsonNode records = root.get(section.field);
+                if (records == null || !records.isArray() || records.size() == 0) continue;
+
+                List<String> items = new ArrayList<>();
+                for (int i = 0; i < records.size() && items.size() < SUMMARY_TOP_N; i++) {
+                    String item = summarizeRecord(records.get(i));
+                    if (item != null) items.add(item);
+                }
+                if (!items.isEmpty()) {
+                    lines.add(section.title + "前" + items.size() + "：" + String.join("、", items));
+                }
+            }
+            return String.join("\n", lines);
+        }
+
+        // 辅助方法：期刊名 + 得分（优先 percent_score，否则第一个数值字段）
+        private static String summarizeRecord(JsonNode record) {
+            if (record == null || !record.isObject()) return null;
+            String journal = record.path("journal").asText("");
+            JsonNode score = record.get("percent_score");
+            if (score == null || !score.isNumber()) {
+                score = null;
+                Iterator<Map.Entry<String, JsonNode>> fields = record.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    if (field.getValue().isNumber() && !"year".equals(field.getKey())) {
+                        score = field.getValue();
+                        break;
+                    }
+                }
+            }
+            if (journal.isEmpty()) return score == null ? null : formatValue(score);
+            return score == null ? journal : journal + "(" + formatValue(score) + ")";
+        }
+
+        // 辅助方法：明细行，数组按元素一行，对象按键值一行
+        private static List<String> renderRows(JsonNode node) {
+            List<String> rows = new ArrayList<>();
+            if (node == null) return rows;
+            if (node.isArray()) {
+                boolean scalars = true;
+                for (JsonNode item : node) {
+                    if (item.isContainerNode()) {
+                        scalars = false;
+                        break;
+                    }
+                }
+                if (scalars) {
+                    List<String> values = new ArrayList<>();
+                    for (JsonNode item : node) values.add(item.asText());
+                    if (!values.isEmpty()) rows.add(String.join(", ", values));
+                    return rows;
+                }
+                for (JsonNode item : node) {
+                    rows.add(renderRecord(item));
+                }
+            } else if (node.isObject()) {
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    rows.add(field.getKey() + ": " + formatValue(field.getValue()));
+                }
+            }
+            return rows;
+        }
+
+        private static String renderRecord(JsonNode record) {
+            if (!record.isObject()) return formatValue(record);
+            List<String> parts = new ArrayList<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = record.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getValue().isNull()) continue;
+                parts.add(field.getKey() + "=" + formatValue(field.getValue()));
+            }
+            return String.join(", ", parts);
+        }
+
+        // 辅助方法：小数保留 4 位，减少无意义的长尾数字
+        private static String formatValue(JsonNode value) {
+            if (value.isIntegralNumber()) return value.asText();
+            if (value.isNumber()) {
+                double rounded = Math.round(value.asDouble() * 10000) / 10000.0;
+                return rounded == Math.rint(rounded) ? String.valueOf((long) rounded) : String.valueOf(rounded);
+            }
+            if (value.isContainerNode()) return value.toString();
+            return value.asText();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.paper.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 异步分析任务
+ * <p>状态流转：QUEUED → RUNNING → SUCCEEDED / FAILED，每次变化同步写入 analysis_record</p>
+ */
+public final class AnalysisJob {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    /**
+     * 分析对象
+     */
+    public enum Mode {
+        /** 单个上传文件所在目录 */
+        FILE,
+        /** 用户上传目录 */
+        USER_DIR,
+        /** 数据库中的全部论文 */
+        DATABASE
+    }
+
+    private final String id;
+    private final String username;
+    private final String ownerToken;
+    private final Mode mode;
+    private final String path;
+    private final String recordFilename;
+    private final long createdAt = System.currentTimeMillis();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String message = "排队中";
+    private volatile long startedAt = 0;
+    private volatile long finishedAt = 0;
+    private volatile Map<String, Object> result;
+    private volatile AnalysisProgress progress;
+    /** 已完成阶段的耗时（毫秒），按完成顺序 */
+    private final Map<String, Long> stageTimings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    AnalysisJob(String id, String username, String ownerToken, Mode mode, String path, String recordFilename) {
+        this.id = id;
+        this.username = username;
+        this.ownerToken = ownerToken;
+        this.mode = mode;
+        this.path = path;
+        this.recordFilename = recordFilename;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** 提交任务的用户，匿名为 null */
+    public String getUsername() {
+        return username;
+    }
+
+    /** 匿名任务的访问令牌（只在提交时返回给提交者），署名任务为 null */
+    public String getOwnerToken() {
+        return ownerToken;
+    }
+
+    /**
+     * 是否允许该请求方访问：署名任务要求用户名一致，匿名任务要求令牌一致
+     */
+    public boolean isOwnedBy(String username, String token) {
+        if (this.username != null) {
+            return this.username.equals(username);
+        }
+        return ownerToken != null && token != null
+            && MessageDigest.isEqual(ownerToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /** 分析的文件或目录路径，DATABASE 模式为 null */
+    public String getPath() {
+        return path;
+    }
+
+    /** 对应 analysis_record.filename */
+    public String getRecordFilename() {
+        return recordFilename;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /** 与原 /analysis/run 返回格式相同的结果，未完成时为 null */
+    public Map<String, Object> getResult() {
+        return result;
+    }
+
+    /** 最近一条进度消息，尚未开始分析时为 null */
+    public AnalysisProgress getProgress() {
+        return progress;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    void markRunning() {
+        startedAt = System.currentTimeMillis();
+        message = "分析中";
+        status = Status.RUNNING;
+    }
+
+    void updateProgress(AnalysisProgress progress) {
+        if (progress.isFinished() && progress.getStageMs() != null) {
+            stageTimings.put(progress.getStage(), progress.getStageMs());
+        }
+        this.progress = progress;
+    }
+
+    void succeed(Map<String, Object> result) {
+        this.result = result;
+        finishedAt = System.currentTimeMillis();
+        message = "分析完成";
+        status = Status.SUCCEEDED;
+    }
+
+    void fail(String message, Map<String, Object> result) {
+        this.result = result;
+        finishedAt = System.currentTimeMillis();
+        this.message = message;
+        status = Status.FAILED;
+    }
+
+    /**
+     * 状态信息（不含结果）
+     */
+    public Map<String, Object> toStatusMap() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("jobId", id);
+        data.put("status", status.name());
+        data.put("message", message);
+        data.put("createdAt", createdAt);
+        data.put("startedAt", startedAt > 0 ? startedAt : null);
+        data.put("finishedAt", finishedAt > 0 ? finishedAt : null);
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        data.put("elapsedMs", startedAt > 0 ? end - startedAt : 0);
+        AnalysisProgress current = progress;
+        data.put("progress", current != null ? current.toMap() : null);
+        synchronized (stageTimings) {
+            data.put("stageTimings", new LinkedHashMap<>(stageTimings));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,386 @@
+package com.paper.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paper.config.AnalysisJobProperties;
+import com.paper.dao.AnalysisDAO;
+import com.paper.model.AnalysisRecord;
+import com.paper.utils.LruCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步分析任务服务
+ * <p>/analysis/run 提交后立即返回任务ID，分析在有界线程池中执行，状态变化写入 analysis_record。
+ * 同一用户对同一分析对象（模式 + 路径）同时只保留一个排队或运行中的任务，重复提交直接返回已有任务，避免重复分析。
+ * 匿名任务不去重，也不与其他匿名请求共享：提交时生成随机令牌，只有持有令牌的请求能查询。</p>
+ *
+ * <p>任务状态与结果先查内存，内存中已淘汰（或服务重启）时回退到 analysis_record 查询。</p>
+ *
+ * <p>运行中的进度通过 SSE 推送：订阅后先收到一条 status 事件，之后每个阶段开始/结束各一条 progress 事件，
+ * 任务结束时收到 done 事件并关闭连接。</p>
+ */
+@Service
+public class AnalysisJobService {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final SecureRandom random = new SecureRandom();
+
+    private final PythonWorkerPool workerPool;
+    private final MetricEngines metricEngines;
+    private final ChatSessionStore chatSessions;
+    private final ThreadPoolExecutor executor;
+    /** 署名用户排队或运行中的任务，键为 用户 + 模式 + 路径 */
+    private final ConcurrentHashMap<String, AnalysisJob> activeJobs = new ConcurrentHashMap<>();
+    private final LruCache<String, AnalysisJob> jobs;
+    /** 各任务的进度订阅者 */
+    private final ConcurrentHashMap<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final long eventsTimeoutMillis;
+
+    @Autowired
+    public AnalysisJobService(PythonWorkerPool workerPool, MetricEngines metricEngines,
+                              ChatSessionStore chatSessions, AnalysisJobProperties properties) {
+        this.workerPool = workerPool;
+        this.metricEngines = metricEngines;
+        this.chatSessions = chatSessions;
+        int threads = Math.max(1, properties.getThreads());
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+            r -> {
+                Thread t = new Thread(r, "analysis-job-" + threadIds.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.jobs = new LruCache<>(properties.getRetainedJobs(), properties.getRetentionMinutes() * 60_000L, false);
+        this.eventsTimeoutMillis = properties.getEventsTimeoutMinutes() * 60_000L;
+    }
+
+    /**
+     * 上次运行时未完成的任务不会再继续，标记为失败
+     */
+    @PostConstruct
+    public void failInterruptedJobs() {
+        try {
+            AnalysisDAO dao = new AnalysisDAO();
+            dao.failInterruptedJobs("服务重启，分析任务已中断，请重新运行");
+            dao.close();
+        } catch (Exception e) {
+            System.err.println("[AnalysisJobService] Failed to reset interrupted jobs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 提交分析任务
+     *
+     * @param username 用户名，匿名为 null
+     * @param mode 分析对象
+     * @param path 文件或目录路径，DATABASE 模式为 null
+     * @param filename 上传文件名（FILE 模式），其他模式为 null
+     * @return 新任务，或该用户对同一分析对象已有的排队/运行中任务（{@link Submission#isDeduplicated()}）
+     * @throws RejectedExecutionException 排队任务已满
+     */
+    public Submission submit(String username, AnalysisJob.Mode mode, String path, String filename) {
+        String activeKey = username != null ? username + '\0' + mode + '\0' + (path != null ? path : "") : null;
+        String recordFilename;
+        switch (mode) {
+            case FILE:
+                recordFilename = filename;
+                break;
+            case USER_DIR:
+                // 为用户目录分析生成一个唯一文件名标识
+                recordFilename = "user_analysis_" + System.currentTimeMillis() + ".json";
+                break;
+            default:
+                recordFilename = "db_analysis_" + System.currentTimeMillis() + ".json";
+        }
+
+        String ownerToken = username == null ? newToken() : null;
+        AnalysisJob candidate = new AnalysisJob(UUID.randomUUID().toString(), username, ownerToken, mode, path,
+            recordFilename);
+        if (activeKey != null) {
+            AnalysisJob existing = activeJobs.putIfAbsent(activeKey, candidate);
+            if (existing != null) {
+                return new Submission(existing, true);
+            }
+        }
+
+        jobs.put(candidate.getId(), candidate);
+        persistQueued(candidate);
+        try {
+            executor.execute(() -> run(candidate, activeKey));
+        } catch (RejectedExecutionException e) {
+            candidate.fail("分析任务排队已满，请稍后再试", null);
+            persistStatus(candidate);
+            if (activeKey != null) {
+                activeJobs.remove(activeKey, candidate);
+            }
+            throw new RejectedExecutionException("分析任务排队已满，请稍后再试");
+        }
+        return new Submission(candidate, false);
+    }
+
+    /**
+     * 查询任务，内存中不存在时从 analysis_record 恢复
+     */
+    public AnalysisJob get(String jobId) {
+        AnalysisJob job = jobs.get(jobId);
+        if (job != null) {
+            return job;
+        }
+        try {
+            AnalysisDAO dao = new AnalysisDAO();
+            AnalysisRecord record = dao.getByJobId(jobId);
+            dao.close();
+            return record == null ? null : fromRecord(record);
+        } catch (Exception e) {
+            System.err.println("[AnalysisJobService] Failed to load job " + jobId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 订阅任务进度
+     * <p>已结束的任务立即收到 status 与 done 事件后关闭</p>
+     */
+    public SseEmitter subscribe(AnalysisJob job) {
+        SseEmitter emitter = new SseEmitter(eventsTimeoutMillis);
+        Set<SseEmitter> set = subscribers.computeIfAbsent(job.getId(), k -> ConcurrentHashMap.newKeySet());
+        set.add(emitter);
+        Runnable unsubscribe = () -> set.remove(emitter);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        if (!sendEvent(emitter, "status", job.toStatusMap())) {
+            set.remove(emitter);
+            return emitter;
+        }
+        // 订阅期间任务可能已结束；从集合中移除成功的一方负责发送 done
+        if (job.isFinished() && set.remove(emitter)) {
+            sendDone(emitter, job);
+            subscribers.computeIfPresent(job.getId(), (k, v) -> v.isEmpty() ? null : v);
+        }
+        return emitter;
+    }
+
+    /**
+     * 任务统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("active", activeJobs.size());
+        stats.put("running", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("retained", jobs.stats());
+        stats.put("subscribers", subscribers.values().stream().mapToInt(Set::size).sum());
+        stats.put("engines", metricEngines.stats());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(AnalysisJob job, String activeKey) {
+        job.markRunning();
+        persistStatus(job);
+        publish(job.getId(), "status", job.toStatusMap());
+        try {
+            AnalysisService analysisService = new AnalysisService(workerPool, metricEngines, progress -> {
+                job.updateProgress(progress);
+                publish(job.getId(), "progress", progress.toMap());
+            });
+            Map<String, Object> result;
+            switch (job.getMode()) {
+                case FILE:
+                    result = analysisService.analyzeFile(job.getPath());
+                    break;
+                case USER_DIR:
+                    result = analysisService.analyzeUserDirectory(job.getPath());
+                    break;
+                default:
+                    result = analysisService.analyzeAllData();
+            }
+
+            if (Boolean.TRUE.equals(result.get("success"))) {
+                // 保存分析结果到数据库
+                if (job.getUsername() != null) {
+                    persistResult(job, result);
+                    result.put("analysisId", job.getRecordFilename());
+                    // 该用户的AI助手会话改用新的分析结果
+                    chatSessions.analysisCompleted(job.getUsername());
+                }
+                job.succeed(result);
+            } else {
+                Object message = result.get("message");
+                job.fail(message != null ? message.toString() : "分析失败", result);
+                persistStatus(job);
+            }
+        } catch (Exception e) {
+            job.fail("数据分析失败: " + e.getMessage(), null);
+            persistStatus(job);
+        } finally {
+            // Error（如内存不足）不经过上面的 catch，同样标记失败，避免任务与 analysis_record 停留在 RUNNING
+            if (!job.isFinished()) {
+                job.fail("数据分析异常终止", null);
+                persistStatus(job);
+            }
+            if (activeKey != null) {
+                activeJobs.remove(activeKey, job);
+            }
+            finishSubscribers(job);
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // 辅助方法：向任务的所有订阅者推送事件
+    private void publish(String jobId, String name, Object data) {
+        Set<SseEmitter> set = subscribers.get(jobId);
+        if (set == null) return;
+        for (SseEmitter emitter : set) {
+            if (!sendEvent(emitter, name, data)) {
+                set.remove(emitter);
+            }
+        }
+    }
+
+    // 辅助方法：任务结束，向订阅者推送 done 并关闭连接
+    private void finishSubscribers(AnalysisJob job) {
+        Set<SseEmitter> set = subscribers.remove(job.getId());
+        if (set == null) return;
+        for (SseEmitter emitter : set) {
+            if (set.remove(emitter)) {
+                sendDone(emitter, job);
+            }
+        }
+    }
+
+    private void sendDone(SseEmitter emitter, AnalysisJob job) {
+        if (sendEvent(emitter, "done", job.toStatusMap())) {
+            emitter.complete();
+        }
+    }
+
+    // 辅助方法：推送单个SSE事件，客户端已断开时返回false
+    private boolean sendEvent(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (Exception e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    // 辅助方法：匿名任务不写数据库（analysis_record.username 非空）
+    private void persistQueued(AnalysisJob job) {
+        if (job.getUsername() == null) return;
+        try {
+            AnalysisDAO dao = new AnalysisDAO();
+            if (job.getMode() == AnalysisJob.Mode.FILE) {
+                dao.updateJobStatus(job.getRecordFilename(), job.getId(), job.getStatus().name(), null);
+            } else {
+                dao.saveJobRecord(job.getUsername(), job.getRecordFilename(), "用户数据分析", job.getId());
+            }
+            dao.close();
+        } catch (Exception e) {
+            System.err.println("[AnalysisJobService] Failed to save job record: " + e.getMessage());
+        }
+    }
+
+    private void persistStatus(AnalysisJob job) {
+        if (job.getUsername() == null) return;
+        try {
+            AnalysisDAO dao = new AnalysisDAO();
+            String error = job.getStatus() == AnalysisJob.Status.FAILED ? job.getMessage() : null;
+            dao.updateJobStatus(job.getRecordFilename(), job.getId(), job.getStatus().name(), error);
+            dao.close();
+        } catch (Exception e) {
+            System.err.println("[AnalysisJobService] Failed to update job status: " + e.getMessage());
+        }
+    }
+
+    private void persistResult(AnalysisJob job, Map<String, Object> result) {
+        try {
+            AnalysisDAO dao = new AnalysisDAO();
+            Object analysisObj = result.get("analysis");
+            String analysisJson = analysisObj != null ? objectMapper.writeValueAsString(analysisObj) : "{}";
+            dao.completeJob(job.getRecordFilename(), analysisJson);
+            dao.close();
+        } catch (Exception e) {
+            System.err.println("Failed to save analysis result: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // 辅助方法：由数据库记录重建任务（结果只包含 analysis 本身）
+    private AnalysisJob fromRecord(AnalysisRecord record) {
+        AnalysisJob job = new AnalysisJob(record.getJobId(), record.getUsername(), null, AnalysisJob.Mode.USER_DIR,
+            null, record.getFilename());
+        String status = record.getStatus() != null ? record.getStatus() : AnalysisJob.Status.FAILED.name();
+        if (AnalysisJob.Status.SUCCEEDED.name().equals(status) && record.getAnalysisResult() != null) {
+            Map<String, Object> result = new HashMap<>();
+            try {
+                result.put("analysis", objectMapper.readValue(record.getAnalysisResult(), Map.class));
+            } catch (Exception e) {
+                result.put("analysis", new HashMap<>());
+            }
+            result.put("success", true);
+            result.put("message", "分析完成");
+            result.put("analysisId", record.getFilename());
+            job.succeed(result);
+        } else if (AnalysisJob.Status.RUNNING.name().equals(status)) {
+            job.markRunning();
+        } else if (!AnalysisJob.Status.QUEUED.name().equals(status)) {
+            job.fail(record.getErrorMessage() != null ? record.getErrorMessage() : "分析失败", null);
+        }
+        return job;
+    }
+
+    /**
+     * 提交结果
+     */
+    public static final class Submission {
+        private final AnalysisJob job;
+        private final boolean deduplicated;
+
+        Submission(AnalysisJob job, boolean deduplicated) {
+            this.job = job;
+            this.deduplicated = deduplicated;
+        }
+
+        public AnalysisJob getJob() {
+            return job;
+        }
+
+        /** true 表示该用户对同一分析对象已有任务在排队或运行，本次未新建任务 */
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+    }
+}
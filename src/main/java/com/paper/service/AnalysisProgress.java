@@ -0,0 +1,99 @@
+package com.paper.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Python 分析进度消息
+ * <p>对应工作进程协议中的 {@code {"type": "progress", ...}} 行，每个阶段开始与结束各一条（见 main.py ProgressReporter）</p>
+ */
+public final class AnalysisProgress {
+
+    private final String stage;
+    private final boolean finished;
+    private final int percent;
+    private final Double etaSeconds;
+    private final long elapsedMs;
+    private final Long stageMs;
+
+    private AnalysisProgress(String stage, boolean finished, int percent, Double etaSeconds,
+                             long elapsedMs, Long stageMs) {
+        this.stage = stage;
+        this.finished = finished;
+        this.percent = percent;
+        this.etaSeconds = etaSeconds;
+        this.elapsedMs = elapsedMs;
+        this.stageMs = stageMs;
+    }
+
+    /**
+     * 解析协议消息
+     */
+    static AnalysisProgress fromMessage(JsonNode message) {
+        JsonNode eta = message.get("eta_seconds");
+        JsonNode stageMs = message.get("stage_ms");
+        return new AnalysisProgress(
+            message.path("stage").asText(""),
+            "finished".equals(message.path("state").asText()),
+            Math.max(0, Math.min(100, message.path("percent").asInt(0))),
+            eta != null && eta.isNumber() ? eta.asDouble() : null,
+            message.path("elapsed_ms").asLong(0),
+            stageMs != null && stageMs.isNumber() ? stageMs.asLong() : null);
+    }
+
+    /**
+     * Java 指标引擎的阶段消息，总进度由调用方通过 {@link #withPercent} 填入
+     */
+    static AnalysisProgress of(String stage, boolean finished, long elapsedMs, Long stageMs) {
+        return new AnalysisProgress(stage, finished, 0, null, elapsedMs, stageMs);
+    }
+
+    /**
+     * 替换总进度，其余字段不变
+     */
+    AnalysisProgress withPercent(int percent) {
+        return new AnalysisProgress(stage, finished, percent, etaSeconds, elapsedMs, stageMs);
+    }
+
+    /** 阶段：load, disruption, interdisciplinary, novelty, topic, theme */
+    public String getStage() {
+        return stage;
+    }
+
+    /** true 为阶段结束，false 为阶段开始 */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /** 总进度 0-100 */
+    public int getPercent() {
+        return percent;
+    }
+
+    /** 预计剩余秒数，第一个阶段完成前为 null */
+    public Double getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    /** 阶段耗时，仅阶段结束消息有值 */
+    public Long getStageMs() {
+        return stageMs;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("stage", stage);
+        data.put("state", finished ? "finished" : "started");
+        data.put("percent", percent);
+        data.put("etaSeconds", etaSeconds);
+        data.put("elapsedMs", elapsedMs);
+        data.put("stageMs", stageMs);
+        return data;
+    }
+}
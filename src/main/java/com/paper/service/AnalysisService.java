@@ -1,29 +1,34 @@
 package com.paper.service;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.paper.config.EnvConfig;
 import com.paper.dao.MySQLHelper;
 import com.paper.model.Paper;
 
 /**
  * 期刊分析服务类
- * <p>负责数据分析、AI对话等业务逻辑</p>
+ * <p>负责数据分析业务逻辑，AI对话见 {@link AnalysisChatService}</p>
  * 
  * <h3>功能说明：</h3>
  * <ul>
  *   <li>分析上传的JSON/CSV文件</li>
  *   <li>分析数据库中的论文数据</li>
- *   <li>提供AI对话功能（简化实现）</li>
  * </ul>
  * 
  * @author PaperMaster Team
@@ -32,28 +37,65 @@ import com.paper.model.Paper;
  */
 public class AnalysisService {
 
-    /** Python分析主脚本路径 */
-    private static final String PYTHON_MAIN_SCRIPT = "src/main/resources/python/main.py";
-    
     /** JSON对象映射器 */
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
     private final MySQLHelper mysqlHelper;
+    
+    /** Python分析工作进程池 */
+    private final PythonWorkerPool workerPool;
+    
+    /** Java 指标引擎，可为 null（全部指标由 Python 计算） */
+    private final MetricEngines metricEngines;
+    
+    /** 分析进度回调，可为 null */
+    private final Consumer<AnalysisProgress> progressListener;
 
     /**
      * 构造函数，初始化数据库连接
      * 
+     * @param workerPool Python分析工作进程池
+     * @throws ClassNotFoundException 数据库驱动未找到
+     * @throws SQLException 数据库连接失败
+     */
+    public AnalysisService(PythonWorkerPool workerPool) throws ClassNotFoundException, SQLException {
+        this(workerPool, null);
+    }
+
+    /**
+     * 构造函数，分析过程中通过 progressListener 接收各阶段进度
+     * 
+     * @param workerPool Python分析工作进程池
+     * @param progressListener 分析进度回调
+     * @throws ClassNotFoundException 数据库驱动未找到
+     * @throws SQLException 数据库连接失败
+     */
+    public AnalysisService(PythonWorkerPool workerPool, Consumer<AnalysisProgress> progressListener)
+            throws ClassNotFoundException, SQLException {
+        this(workerPool, null, progressListener);
+    }
+
+    /**
+     * 构造函数，metricEngines 中配置的指标由 Java 计算，与 Python 工作进程并行
+     * 
+     * @param workerPool Python分析工作进程池
+     * @param metricEngines Java 指标引擎
+     * @param progressListener 分析进度回调
      * @throws ClassNotFoundException 数据库驱动未找到
      * @throws SQLException 数据库连接失败
      */
-    public AnalysisService() throws ClassNotFoundException, SQLException {
+    public AnalysisService(PythonWorkerPool workerPool, MetricEngines metricEngines,
+                           Consumer<AnalysisProgress> progressListener) throws ClassNotFoundException, SQLException {
         this.mysqlHelper = new MySQLHelper();
+        this.workerPool = workerPool;
+        this.metricEngines = metricEngines;
+        this.progressListener = progressListener;
     }
 
     /**
      * 分析上传的文件
      * <p>支持JSON和CSV格式的论文数据文件</p>
-     * <p>直接调用Python脚本分析文件所在目录</p>
+     * <p>由Python工作进程分析文件所在目录</p>
      * 
      * @param filePath 文件路径
      * @return 分析结果，包含统计信息
@@ -136,13 +178,14 @@ public class AnalysisService {
             return response;
         }
         
-        // 调用 Python main.py --user-dir 模式进行分析
+        // 交给 Python 工作进程分析整个目录
         return runPythonAnalysis(userDirPath);
     }
     
     /**
-     * 调用Python脚本分析用户数据
-     * Python 脚本会将结果保存到 outputs/analysis_result.json 文件
+     * 调用Python工作进程分析用户数据
+     * Python 同时将结果保存到 outputs/analysis_result.json 文件；
+     * 配置为 Java 计算的指标在当前线程并行计算，合并后重写该文件
      * 
      * @param userDirPath 用户目录路径
      * @return 分析结果
@@ -150,232 +193,101 @@ public class AnalysisService {
     private Map<String, Object> runPythonAnalysis(String userDirPath) throws Exception {
         Map<String, Object> response = new HashMap<>();
         
-        // 删除旧的结果文件，确保读取的是新结果
-        File oldResultFile = new File(userDirPath, "outputs/analysis_result.json");
-        if (oldResultFile.exists()) {
-            oldResultFile.delete();
-            System.out.println("[Debug] Deleted old result file: " + oldResultFile.getAbsolutePath());
-        }
-        
-        ProcessBuilder processBuilder = new ProcessBuilder(
-                "python", "-u", PYTHON_MAIN_SCRIPT, 
-                "--user-dir", userDirPath,
-                "--json"  // 启用JSON模式（日志输出到stderr）
-        );
-        processBuilder.directory(new File("."));
-        processBuilder.redirectErrorStream(false);  // 分离错误输出
-        
-        // 设置 Python 环境变量，强制使用 UTF-8 编码
-        Map<String, String> env = processBuilder.environment();
-        env.put("PYTHONIOENCODING", "utf-8");
-        env.put("PYTHONUTF8", "1");
-        
-        System.out.println("[Debug] Starting Python analysis process...");
-        Process process = processBuilder.start();
-        
-        // 使用多线程同时读取stdout和stderr，避免缓冲区满导致的死锁
-        StringBuilder output = new StringBuilder();
-        StringBuilder errorOutput = new StringBuilder();
-        
-        // 异步读取stderr（日志信息）
-        Thread stderrThread = new Thread(() -> {
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getErrorStream(), "UTF-8"))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    errorOutput.append(line).append("\n");
-                    System.err.println("[Python] " + line);
-                }
-            } catch (Exception e) {
-                System.err.println("[Error] Failed to read stderr: " + e.getMessage());
-            }
-        });
-        stderrThread.start();
-        
-        // 主线程读取stdout
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream(), "UTF-8"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line);
-            }
-        }
-        
-        // 等待stderr线程完成
-        stderrThread.join();
-        
-        int exitCode = process.waitFor();
-        System.out.println("[Debug] Python process exit code: " + exitCode);
-        
-        if (exitCode != 0) {
+        Set<String> javaMetrics = metricEngines != null
+            ? metricEngines.metricsFor(Paths.get(userDirPath)) : Collections.emptySet();
+        // Java 阶段的进度沿用 Python 已报告的总进度（Python 跳过的阶段已计入其权重）
+        AtomicInteger percent = new AtomicInteger();
+        Consumer<AnalysisProgress> listener = progressListener == null ? null : progress -> {
+            percent.set(progress.getPercent());
+            progressListener.accept(progress);
+        };
+        CompletableFuture<Map<String, Object>> pythonFuture = workerPool.submit(userDirPath, javaMetrics, listener);
+        Map<String, Object> javaResult = computeJavaMetrics(userDirPath, javaMetrics, listener == null ? null
+            : progress -> progressListener.accept(progress.withPercent(percent.get())));
+        
+        Map<String, Object> analysisResult;
+        try {
+            analysisResult = PythonWorkerPool.join(pythonFuture);
+        } catch (IOException | RejectedExecutionException e) {
             response.put("success", false);
             response.put("message", "Python分析脚本执行失败");
-            response.put("error", errorOutput.toString());
-            return response;
-        }
-        
-        // 从文件读取分析结果
-        File resultFile = new File(userDirPath, "outputs/analysis_result.json");
-        if (!resultFile.exists()) {
-            response.put("success", false);
-            response.put("message", "分析结果文件不存在: " + resultFile.getAbsolutePath());
+            response.put("error", e.getMessage());
             return response;
         }
         
-        try {
-            System.out.println("[Debug] Reading result file: " + resultFile.getAbsolutePath());
-            
-            @SuppressWarnings("unchecked")
-            Map<String, Object> analysisResult = objectMapper.readValue(resultFile, Map.class);
-            
-            // 检查Python返回的结果
-            if (analysisResult.containsKey("success") && Boolean.FALSE.equals(analysisResult.get("success"))) {
-                response.put("success", false);
-                response.put("message", analysisResult.get("message"));
-                return response;
-            }
-            
-            response.put("success", true);
-            response.put("message", "分析完成");
-            response.put("analysis", analysisResult);
-            response.put("totalPapers", analysisResult.get("total_records"));
-            
-            return response;
-            
-        } catch (Exception e) {
+        // 检查Python返回的结果
+        if (analysisResult.containsKey("success") && Boolean.FALSE.equals(analysisResult.get("success"))) {
             response.put("success", false);
-            response.put("message", "解析分析结果文件失败: " + e.getMessage());
+            response.put("message", analysisResult.get("message"));
             return response;
         }
-    }
-
-    /**
-     * 调用Python脚本分析论文数据（JSON格式）
-     * 这个方法用于分析单个文件或数据库的论文数据
-     */
-    private Map<String, Object> analyzePapersData(List<Paper> papers) throws Exception {
-        Map<String, Object> response = new HashMap<>();
-        
-        // 将论文数据写入临时文件
-        File tempFile = File.createTempFile("papers_", ".json");
-        tempFile.deleteOnExit();
-        objectMapper.writeValue(tempFile, papers);
-        
-        ProcessBuilder processBuilder = new ProcessBuilder(
-                "python", "-u", PYTHON_MAIN_SCRIPT, 
-                "--user-dir", tempFile.getParent(),
-                "--json"
-        );
-        processBuilder.directory(new File("."));
-        processBuilder.redirectErrorStream(false);  // 分离错误输出，避免日志混入 JSON
-        
-        // 设置 Python 环境变量，强制使用 UTF-8 编码
-        Map<String, String> env = processBuilder.environment();
-        env.put("PYTHONIOENCODING", "utf-8");
-        env.put("PYTHONUTF8", "1");
-        
-        Process process = processBuilder.start();
-        
-        // 使用多线程同时读取stdout和stderr，避免缓冲区满导致的死锁
-        StringBuilder output = new StringBuilder();
-        
-        // 异步读取stderr（日志信息）
-        Thread stderrThread = new Thread(() -> {
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getErrorStream(), "UTF-8"))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    System.err.println("[Python] " + line);
-                }
-            } catch (Exception e) {
-                System.err.println("[Error] Failed to read stderr: " + e.getMessage());
-            }
-        });
-        stderrThread.start();
-        
-        // 主线程读取stdout（JSON）
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream(), "UTF-8"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line);
-            }
-        }
-        
-        // 等待stderr线程完成
-        stderrThread.join();
         
-        int exitCode = process.waitFor();
-        
-        // 清理临时文件
-        tempFile.delete();
-        
-        if (exitCode != 0) {
-            response.put("success", false);
-            response.put("message", "Python分析脚本执行失败");
-            response.put("error", output.toString());
-            return response;
+        if (!javaResult.isEmpty()) {
+            analysisResult.putAll(javaResult);
+            saveResultFile(analysisResult);
         }
         
-        @SuppressWarnings("unchecked")
-        Map<String, Object> analysisResult = objectMapper.readValue(output.toString(), Map.class);
-        
         response.put("success", true);
         response.put("message", "分析完成");
         response.put("analysis", analysisResult);
-        response.put("totalPapers", papers.size());
+        response.put("totalPapers", analysisResult.get("total_records"));
         
         return response;
     }
 
     /**
-     * AI对话功能
+     * 计算 Java 指标，失败时返回空结果（对应指标缺失，与 Python 单个指标失败的处理一致）
      */
-    public String chat(String message, String context) {
-        String apiKey = EnvConfig.get(EnvConfig.DEEPSEEK_API_KEY);
-        
-        // 检查 API Key 是否有效
-        if (apiKey == null || apiKey.isEmpty() || apiKey.startsWith("your-")) {
-            return fallbackChat(message, context);
+    private Map<String, Object> computeJavaMetrics(String userDirPath, Set<String> javaMetrics,
+                                                   Consumer<AnalysisProgress> listener)
+            throws InterruptedException {
+        if (javaMetrics.isEmpty()) {
+            return Collections.emptyMap();
         }
-        
+        Path userDir = Paths.get(userDirPath);
         try {
-            AIService aiService = new AIService();
-            String systemPrompt = "你是一个学术论文分析助手，帮助用户理解和分析学术论文数据。用中文回答。";
-            
-            if (context != null && !context.isEmpty()) {
-                systemPrompt += "\n\n当前分析结果：" + context;
-            }
-            
-            return aiService.chat(message, systemPrompt);
-        } catch (Exception e) {
-            System.err.println("AI call failed: " + e.getMessage());
-            return fallbackChat(message, context);
+            return metricEngines.compute(userDir, userDir.resolve("outputs"), javaMetrics, listener);
+        } catch (IOException e) {
+            System.err.println("[AnalysisService] Java metrics failed: " + e.getMessage());
+            return Collections.emptyMap();
         }
     }
-    
+
     /**
-     * 简单关键词匹配回复（未配置 API 时使用）
+     * 合并 Java 指标后重写 Python 保存的 analysis_result.json
      */
-    private String fallbackChat(String message, String context) {
-        String msg = message.toLowerCase();
-        
-        if (msg.contains("论文") || msg.contains("paper")) {
-            return "您可以上传论文数据文件（JSON/CSV），然后点击\"运行数据分析\"获取统计结果。";
+    private void saveResultFile(Map<String, Object> analysisResult) {
+        Object resultFile = analysisResult.get("result_file");
+        if (resultFile == null) {
+            return;
         }
-        if (msg.contains("引用") || msg.contains("citation")) {
-            return "系统会统计平均引用数、最高被引论文等信息。";
-        }
-        if (msg.contains("分析") || msg.contains("analysis")) {
-            return "支持：论文数量统计、引用分析、领域分布、国家分布等。";
-        }
-        if (msg.contains("帮助") || msg.contains("help")) {
-            return "主要功能：1.上传数据 2.运行分析 3.AI助手\n\n配置 DEEPSEEK_API_KEY 可获得智能对话。";
+        try {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(resultFile.toString()), analysisResult);
+        } catch (IOException e) {
+            System.err.println("[AnalysisService] Failed to save result: " + e.getMessage());
         }
-        if (context != null && !context.isEmpty()) {
-            return "当前分析结果：" + context;
+    }
+
+    /**
+     * 调用Python工作进程分析论文数据（JSON格式）
+     * 这个方法用于分析单个文件或数据库的论文数据
+     */
+    private Map<String, Object> analyzePapersData(List<Paper> papers) throws Exception {
+        // 将论文数据写入临时文件
+        File tempFile = File.createTempFile("papers_", ".json");
+        tempFile.deleteOnExit();
+        objectMapper.writeValue(tempFile, papers);
+        
+        try {
+            Map<String, Object> response = runPythonAnalysis(tempFile.getParent());
+            if (Boolean.TRUE.equals(response.get("success"))) {
+                response.put("totalPapers", papers.size());
+            }
+            return response;
+        } finally {
+            // 清理临时文件
+            tempFile.delete();
         }
-        return "我是论文分析助手。请在 .env 中配置 DEEPSEEK_API_KEY 以启用智能对话。";
     }
 
     /**
@@ -0,0 +1,74 @@
+package com.paper.service;
+
+import com.paper.utils.UniformRanker;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 期刊目录内排名分 - 各雷达维度在所有期刊最新年份数据中的 1~100 排名
+ * <p>随期刊目录快照构建，排名规则与分析模块一致（{@link UniformRanker}，同分按期刊名排序），
+ * 维度顺序与 {@link RadarColumns} 一致。</p>
+ */
+public final class CatalogRanks {
+
+    /** 排名分保留两位小数（与各指标的 percent_score 一致） */
+    private static final int DECIMALS = 2;
+
+    /** [维度][期刊序号] */
+    private final double[][] scores;
+
+    private CatalogRanks(double[][] scores) {
+        this.scores = scores;
+    }
+
+    /**
+     * 指定期刊各维度的排名分（顺序同雷达 values）
+     */
+    public List<Double> scores(int ordinal) {
+        List<Double> result = new ArrayList<>(RadarColumns.DIMENSIONS);
+        for (double[] column : scores) {
+            result.add(column[ordinal]);
+        }
+        return result;
+    }
+
+    /**
+     * 跨快照保留的排名状态，只在 {@link JournalCatalog} 重建快照时（已加锁）使用
+     * <p>期刊集合不变时只把数值变化的期刊交给 {@link UniformRanker#update}，
+     * 重排只对变化的期刊排序后与其余期刊归并；期刊增删时完整排名。</p>
+     */
+    static final class Tracker {
+        private List<String> journals;
+        private UniformRanker[] rankers;
+
+        CatalogRanks rank(List<String> journalNames, RadarColumns columns) {
+            int size = columns.size();
+            if (rankers == null || !journalNames.equals(journals)) {
+                // 期刊序号即期刊名排序后的位置，直接作为同分次序键
+                int[] tieKeys = new int[size];
+                for (int i = 0; i < size; i++) {
+                    tieKeys[i] = i;
+                }
+                rankers = new UniformRanker[RadarColumns.DIMENSIONS];
+                for (int d = 0; d < rankers.length; d++) {
+                    rankers[d] = new UniformRanker(columns.column(d), tieKeys);
+                }
+                journals = journalNames;
+            } else {
+                for (int d = 0; d < rankers.length; d++) {
+                    double[] values = columns.column(d);
+                    for (int i = 0; i < size; i++) {
+                        rankers[d].update(i, values[i]);
+                    }
+                }
+            }
+
+            double[][] scores = new double[rankers.length][];
+            for (int d = 0; d < rankers.length; d++) {
+                scores[d] = rankers[d].percent(DECIMALS, Double.NaN);
+            }
+            return new CatalogRanks(scores);
+        }
+    }
+}
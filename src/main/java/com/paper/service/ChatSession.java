@@ -0,0 +1,96 @@
+package com.paper.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import com.paper.utils.TokenUtils;
+
+/**
+ * 分析页AI助手会话 - 压缩后的分析上下文 + 最近若干轮对话
+ * <p>追问时直接复用，无需再查询分析记录与重建上下文。历史按轮数与 token 预算从最早一轮开始淘汰。</p>
+ */
+public final class ChatSession {
+
+    private final String id;
+    private final String username;
+    private AnalysisContextBuilder.CompactContext context;
+    private long contextGeneration;
+    private final Deque<Map<String, String>> history = new ArrayDeque<>();
+    private int historyTokens = 0;
+
+    ChatSession(String id, String username, AnalysisContextBuilder.CompactContext context, long contextGeneration) {
+        this.id = id;
+        this.username = username;
+        this.context = context;
+        this.contextGeneration = contextGeneration;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** 会话所属用户，匿名会话为 null */
+    public String getUsername() {
+        return username;
+    }
+
+    /** 分析上下文，无分析结果时为 null */
+    public synchronized AnalysisContextBuilder.CompactContext getContext() {
+        return context;
+    }
+
+    /** 上下文对应的分析代数，见 {@link ChatSessionStore#analysisGeneration} */
+    public synchronized long getContextGeneration() {
+        return contextGeneration;
+    }
+
+    /**
+     * 切换分析上下文（用户换了一份分析结果），原有对话历史随之清空
+     *
+     * @param generation 新上下文对应的分析代数
+     */
+    public synchronized void switchContext(AnalysisContextBuilder.CompactContext newContext, long generation) {
+        contextGeneration = generation;
+        String oldKey = context == null ? null : context.getKey();
+        String newKey = newContext == null ? null : newContext.getKey();
+        if (oldKey != null && oldKey.equals(newKey)) {
+            return;
+        }
+        context = newContext;
+        history.clear();
+        historyTokens = 0;
+    }
+
+    /**
+     * 对话历史快照（按时间顺序的 user/assistant 消息）
+     */
+    public synchronized List<Map<String, String>> historySnapshot() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * 追加一轮对话，超出轮数或 token 预算时淘汰最早的轮次
+     *
+     * @param maxTurns 最多保留的轮数
+     * @param tokenBudget 历史消息的 token 预算
+     */
+    public synchronized void appendTurn(String userMessage, String reply, int maxTurns, int tokenBudget) {
+        history.addLast(Map.of("role", "user", "content", userMessage));
+        history.addLast(Map.of("role", "assistant", "content", reply));
+        historyTokens += TokenUtils.estimate(userMessage) + TokenUtils.estimate(reply);
+
+        while (!history.isEmpty() && (history.size() > maxTurns * 2 || historyTokens > tokenBudget)) {
+            for (int i = 0; i < 2 && !history.isEmpty(); i++) {
+                historyTokens -= TokenUtils.estimate(history.removeFirst().get("content"));
+            }
+        }
+    }
+
+    /** 当前保留的轮数 */
+    public synchronized int turns() {
+        return history.size() / 2;
+    }
+}
@@ -0,0 +1,96 @@
+package com.paper.service;
+
+import com.paper.config.AIChatProperties;
+import com.paper.utils.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AI助手会话存储 - 以会话 id 为键缓存 {@link ChatSession}
+ * <p>按容量与空闲时间淘汰，空闲过期的会话由定时任务清理；会话只对创建它的用户可见。</p>
+ * <p>每个用户完成一次分析，其分析代数加一；会话记录上下文对应的代数，落后时由调用方换成最新分析结果。</p>
+ */
+@Component
+public class ChatSessionStore {
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private final LruCache<String, ChatSession> cache;
+    /** 各用户已完成的分析次数（本进程内） */
+    private final ConcurrentHashMap<String, Long> analysisGenerations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ChatSessionStore(AIChatProperties properties) {
+        this.cache = new LruCache<>(properties.getSessionCacheSize(),
+            properties.getSessionIdleMinutes() * 60_000L, true);
+    }
+
+    /**
+     * 获取会话，不存在、已过期或不属于该用户时返回 null
+     */
+    public ChatSession get(String sessionId, String username) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            return null;
+        }
+        ChatSession session = cache.get(sessionId);
+        if (session == null || !Objects.equals(session.getUsername(), username)) {
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * 创建新会话
+     *
+     * @param generation 上下文对应的分析代数，见 {@link #analysisGeneration}
+     */
+    public ChatSession create(String username, AnalysisContextBuilder.CompactContext context, long generation) {
+        ChatSession session = new ChatSession(newId(), username, context, generation);
+        cache.put(session.getId(), session);
+        return session;
+    }
+
+    /**
+     * 用户的新分析记录已完成，其已有会话的上下文随之过期
+     */
+    public void analysisCompleted(String username) {
+        if (username != null) {
+            analysisGenerations.merge(username, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * 用户当前的分析代数（匿名用户恒为 0），应在读取最新分析结果之前取得
+     */
+    public long analysisGeneration(String username) {
+        return username == null ? 0L : analysisGenerations.getOrDefault(username, 0L);
+    }
+
+    /**
+     * 清理空闲过期的会话
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        cache.evictExpired();
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    private String newId() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,510 @@
+package com.paper.service;
+
+import com.paper.model.PaperTable;
+import com.paper.utils.PythonUtils;
+import com.paper.utils.UniformRanker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * 颠覆性指数（CD 指数）计算引擎
+ * <p>与 disrupt_calculator_031.py 的 analyze_disruption 结果一致：引用条目规范化为 doi:/title: token，
+ * 论文节点为 doi:/title:/pid: token；对每篇论文统计 ni（只引用焦点论文）、nj（同时引用焦点论文及其参考文献）、
+ * nk（只引用其参考文献），D = (ni - nj) / (ni + nj + nk)，再按期刊取 Top-K 均值并做论文量修正。</p>
+ *
+ * <p>引用网络以 int 编号的 CSR 数组存储（论文 → 参考文献 token，token → 引用它的论文），
+ * 每篇论文的计算只读共享数组，按块分给各线程并行；nk 的去重使用每线程一个的标记数组。
+ * 引用 token 编号取自 {@link PaperCorpus}，同一次上传中只规范化一次。</p>
+ */
+public class DisruptionEngine {
+
+    /** 期刊聚合取前 K 篇论文 */
+    private static final int TOP_K = 10;
+    /** 论文量修正权重 */
+    private static final double VOLUME_WEIGHT = 0.4;
+    /** 高频疑似期刊名 title token 的最少引用论文数 */
+    private static final int HIGH_FREQ_TITLE_MIN_CITERS = 50;
+    private static final String[] JOURNALISH_SUFFIXES = {"学报", "期刊", "杂志", "工作", "通讯", "导报", "学刊"};
+    /** 并行计算时每次领取的论文数 */
+    private static final int BLOCK_SIZE = 256;
+
+    private static final Pattern DOI_PATTERN = Pattern.compile("\\b10\\.\\d{4,9}/[-._;()/:A-Z0-9]+",
+        Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final String[] DOI_PREFIXES = {
+        "https://doi.org/", "http://doi.org/", "https://dx.doi.org/", "http://dx.doi.org/"};
+
+    /** 读取的原始列（之后的指标都不需要时由 MetricEngines 释放） */
+    static final Set<String> RAW_COLUMNS = Set.of("doi", "title", "citing");
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool 并行计算使用的线程池
+     */
+    public DisruptionEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 计算期刊颠覆性得分
+     *
+     * @param corpus 论文语料（使用 doi、journal、title、citing 列）
+     * @return 期刊得分行（journal, n_papers, enhanced_score, percent_score_raw, percent_score），按 percent_score 降序
+     */
+    public List<Map<String, Object>> analyze(PaperCorpus corpus) throws InterruptedException {
+        if (corpus.size() == 0) {
+            throw new IllegalArgumentException("输入数据为空");
+        }
+        Network network = buildNetwork(corpus);
+        double[] paperScores = computePaperScores(network);
+        return aggregate(corpus, network.pidOfRow, paperScores);
+    }
+
+    // ===================== 建网 =====================
+
+    /**
+     * CSR 引用网络：论文按 pid 去重编号，token 统一编号
+     */
+    static final class Network {
+        int paperCount;
+        int[] pidOfRow;
+        /** 论文节点 token，未被任何论文引用时为 -1 */
+        int[] nodeOfPaper;
+        int[] refOffsets;
+        int[] refTokens;
+        int[] citerOffsets;
+        int[] citers;
+    }
+
+    Network buildNetwork(PaperCorpus corpus) throws InterruptedException {
+        PaperTable table = corpus.table();
+        int rows = corpus.size();
+
+        // 样本内期刊名（过滤被当作引用题名的期刊名）
+        Set<String> journalNames = new HashSet<>();
+        for (int j = 0; j < corpus.journalCount(); j++) {
+            String name = normTitle(corpus.journalName(j));
+            if (!name.isEmpty()) journalNames.add(name);
+        }
+
+        // 论文编号：同一 pid 以最后一行的属性和参考文献为准
+        Map<String, Integer> pidIndex = new HashMap<>();
+        int[] pidOfRow = new int[rows];
+        List<Integer> lastRow = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            String pid = derivePid(table.get("doi", i), i);
+            Integer p = pidIndex.get(pid);
+            if (p == null) {
+                p = lastRow.size();
+                pidIndex.put(pid, p);
+                lastRow.add(i);
+            } else {
+                lastRow.set(p, i);
+            }
+            pidOfRow[i] = p;
+        }
+        int paperCount = lastRow.size();
+
+        // 引用条目规范化为 token 编号（正则与字符串处理较重，语料中按行并行构建）；
+        // 每行的引用都计入 token 的引用论文（与 Python 一致，包括被同 pid 后续行覆盖的行）
+        PaperCorpus.TokenColumn refs = corpus.tokens("disruption.refs", row -> {
+            Set<String> tokens = new LinkedHashSet<>();
+            for (String item : PythonUtils.toList(table.get("citing", row))) {
+                String token = refToken(item, journalNames);
+                if (!token.isEmpty()) tokens.add(token);
+            }
+            return tokens.toArray(new String[0]);
+        });
+        int[][] rowRefIds = new int[rows][];
+        long edgeCount = 0;
+        for (int i = 0; i < rows; i++) {
+            rowRefIds[i] = refs.ids(i);
+            edgeCount += rowRefIds[i].length;
+        }
+        int tokenCount = refs.dictionarySize();
+        if (edgeCount > Integer.MAX_VALUE) {
+            throw new IllegalStateException("引用关系过多: " + edgeCount);
+        }
+
+        // token → 引用论文（CSR，段内排序去重）
+        int[] citerOffsets = new int[tokenCount + 1];
+        for (int[] ids : rowRefIds) {
+            for (int id : ids) citerOffsets[id + 1]++;
+        }
+        for (int t = 0; t < tokenCount; t++) citerOffsets[t + 1] += citerOffsets[t];
+        int[] citerFill = Arrays.copyOf(citerOffsets, tokenCount);
+        int[] rawCiters = new int[(int) edgeCount];
+        for (int i = 0; i < rows; i++) {
+            for (int id : rowRefIds[i]) rawCiters[citerFill[id]++] = pidOfRow[i];
+        }
+        int[] citerCounts = new int[tokenCount];
+        run(() -> IntStream.range(0, tokenCount).parallel().forEach(t -> {
+            int from = citerOffsets[t];
+            int to = citerOffsets[t + 1];
+            Arrays.sort(rawCiters, from, to);
+            int w = from;
+            for (int k = from; k < to; k++) {
+                if (k == from || rawCiters[k] != rawCiters[k - 1]) rawCiters[w++] = rawCiters[k];
+            }
+            citerCounts[t] = w - from;
+        }));
+
+        // 剔除高频且疑似期刊名的 title token（避免形成超级节点）
+        boolean[] removed = new boolean[tokenCount];
+        int removedCount = 0;
+        for (int t = 0; t < tokenCount; t++) {
+            String token = refs.name(t);
+            if (citerCounts[t] >= HIGH_FREQ_TITLE_MIN_CITERS && token.startsWith("title:")) {
+                for (String suffix : JOURNALISH_SUFFIXES) {
+                    if (token.endsWith(suffix)) {
+                        removed[t] = true;
+                        removedCount++;
+                        break;
+                    }
+                }
+            }
+        }
+        if (removedCount > 0) {
+            System.out.println("[DisruptionEngine] Dynamic filter removed high-freq journal-like title tokens: "
+                + removedCount);
+        }
+
+        int[] compactOffsets = new int[tokenCount + 1];
+        for (int t = 0; t < tokenCount; t++) {
+            compactOffsets[t + 1] = compactOffsets[t] + (removed[t] ? 0 : citerCounts[t]);
+        }
+        int[] citers = new int[compactOffsets[tokenCount]];
+        for (int t = 0; t < tokenCount; t++) {
+            if (!removed[t]) {
+                System.arraycopy(rawCiters, citerOffsets[t], citers, compactOffsets[t], citerCounts[t]);
+            }
+        }
+
+        // 论文 → 参考文献 token（取该 pid 最后一行，排序去重后用于求交）
+        int[][] paperRefs = new int[paperCount][];
+        int total = 0;
+        for (int p = 0; p < paperCount; p++) {
+            int[] ids = rowRefIds[lastRow.get(p)];
+            int[] kept = new int[ids.length];
+            int n = 0;
+            for (int id : ids) {
+                if (!removed[id]) kept[n++] = id;
+            }
+            kept = Arrays.copyOf(kept, n);
+            Arrays.sort(kept);
+            paperRefs[p] = kept;
+            total += n;
+        }
+        int[] refOffsets = new int[paperCount + 1];
+        int[] refTokens = new int[total];
+        for (int p = 0; p < paperCount; p++) {
+            System.arraycopy(paperRefs[p], 0, refTokens, refOffsets[p], paperRefs[p].length);
+            refOffsets[p + 1] = refOffsets[p] + paperRefs[p].length;
+        }
+
+        // 论文节点 token：doi: > title: > pid:
+        int[] nodeOfPaper = new int[paperCount];
+        String[] pids = new String[paperCount];
+        pidIndex.forEach((pid, p) -> pids[p] = pid);
+        for (int p = 0; p < paperCount; p++) {
+            int row = lastRow.get(p);
+            String doi = table.get("doi", row);
+            String doiNorm = doi != null ? normDoi(doi) : "";
+            String titleNorm = normTitle(table.get("title", row));
+            String node = !doiNorm.isEmpty() ? "doi:" + doiNorm
+                : !titleNorm.isEmpty() ? "title:" + titleNorm : "pid:" + pids[p];
+            nodeOfPaper[p] = refs.id(node);
+        }
+
+        Network network = new Network();
+        network.paperCount = paperCount;
+        network.pidOfRow = pidOfRow;
+        network.nodeOfPaper = nodeOfPaper;
+        network.refOffsets = refOffsets;
+        network.refTokens = refTokens;
+        network.citerOffsets = compactOffsets;
+        network.citers = citers;
+        System.out.println("[DisruptionEngine] Network built | Papers: " + paperCount + ", tokens: " + tokenCount
+            + ", edges: " + edgeCount);
+        return network;
+    }
+
+    // ===================== 论文级计算 =====================
+
+    /**
+     * 并行计算每篇论文的颠覆性指数，无参考文献或分母为 0 时为 NaN
+     */
+    double[] computePaperScores(Network net) throws InterruptedException {
+        double[] scores = new double[net.paperCount];
+        AtomicInteger next = new AtomicInteger();
+        int workers = Math.max(1, Math.min(pool.getParallelism(), (net.paperCount + BLOCK_SIZE - 1) / BLOCK_SIZE));
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            tasks.add(() -> {
+                // stamp[q] == gen：q 在 C 中；stamp[q] == gen + 1：q 已计入 nk
+                int[] stamp = new int[net.paperCount];
+                int gen = 0;
+                int start;
+                while ((start = next.getAndAdd(BLOCK_SIZE)) < net.paperCount) {
+                    int end = Math.min(net.paperCount, start + BLOCK_SIZE);
+                    for (int p = start; p < end; p++) {
+                        gen += 2;
+                        if (gen < 0) {
+                            Arrays.fill(stamp, 0);
+                            gen = 2;
+                        }
+                        scores[p] = paperScore(net, p, stamp, gen);
+                    }
+                }
+                return null;
+            });
+        }
+        List<Future<Void>> futures = pool.invokeAll(tasks);
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("颠覆性指数计算失败", e.getCause());
+            }
+        }
+        return scores;
+    }
+
+    private static double paperScore(Network net, int p, int[] stamp, int gen) {
+        int refFrom = net.refOffsets[p];
+        int refTo = net.refOffsets[p + 1];
+        if (refFrom == refTo) {
+            return Double.NaN;
+        }
+
+        int node = net.nodeOfPaper[p];
+        int cFrom = node >= 0 ? net.citerOffsets[node] : 0;
+        int cTo = node >= 0 ? net.citerOffsets[node + 1] : 0;
+
+        int ni = 0;
+        int nj = 0;
+        for (int k = cFrom; k < cTo; k++) {
+            int citing = net.citers[k];
+            stamp[citing] = gen;
+            if (intersects(net.refTokens, net.refOffsets[citing], net.refOffsets[citing + 1],
+                    net.refTokens, refFrom, refTo)) {
+                nj++;
+            } else {
+                ni++;
+            }
+        }
+
+        int nk = 0;
+        for (int r = refFrom; r < refTo; r++) {
+            int token = net.refTokens[r];
+            for (int k = net.citerOffsets[token]; k < net.citerOffsets[token + 1]; k++) {
+                int q = net.citers[k];
+                if (stamp[q] != gen && stamp[q] != gen + 1) {
+                    stamp[q] = gen + 1;
+                    nk++;
+                }
+            }
+        }
+
+        int denom = ni + nj + nk;
+        return denom == 0 ? Double.NaN : (double) (ni - nj) / denom;
+    }
+
+    // 辅助方法：两个有序数组是否有交集（长度悬殊时对短数组逐个二分）
+    private static boolean intersects(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo) {
+        int aLen = aTo - aFrom;
+        int bLen = bTo - bFrom;
+        if (aLen == 0 || bLen == 0) return false;
+        if (aLen * 8 < bLen || bLen * 8 < aLen) {
+            boolean aShort = aLen < bLen;
+            int[] small = aShort ? a : b;
+            int sFrom = aShort ? aFrom : bFrom;
+            int sTo = aShort ? aTo : bTo;
+            int[] large = aShort ? b : a;
+            int lFrom = aShort ? bFrom : aFrom;
+            int lTo = aShort ? bTo : aTo;
+            for (int k = sFrom; k < sTo; k++) {
+                int pos = Arrays.binarySearch(large, lFrom, lTo, small[k]);
+                if (pos >= 0) return true;
+                lFrom = -pos - 1;
+                if (lFrom >= lTo) return false;
+            }
+            return false;
+        }
+        int i = aFrom;
+        int j = bFrom;
+        while (i < aTo && j < bTo) {
+            if (a[i] == b[j]) return true;
+            if (a[i] < b[j]) i++;
+            else j++;
+        }
+        return false;
+    }
+
+    // ===================== 期刊级聚合 =====================
+
+    private List<Map<String, Object>> aggregate(PaperCorpus corpus, int[] pidOfRow, double[] paperScores) {
+        // 排除 NaN 与 0（视为引用导出/清洗导致的脏数据）
+        Map<Integer, List<Double>> byJournal = new LinkedHashMap<>();
+        for (int i = 0; i < pidOfRow.length; i++) {
+            int journal = corpus.journalOf(i);
+            double score = paperScores[pidOfRow[i]];
+            if (journal < 0 || Double.isNaN(score) || score == 0) continue;
+            byJournal.computeIfAbsent(journal, k -> new ArrayList<>()).add(score);
+        }
+
+        int n = byJournal.size();
+        String[] journals = new String[n];
+        int[] tieKeys = new int[n];
+        int[] paperCounts = new int[n];
+        double[] enhanced = new double[n];
+        double[] raw = new double[n];
+        int j = 0;
+        for (Map.Entry<Integer, List<Double>> entry : byJournal.entrySet()) {
+            List<Double> scores = entry.getValue();
+            scores.sort((a, b) -> Double.compare(b, a));
+            int count = scores.size();
+            int k = Math.min(TOP_K, count);
+            double[] top = new double[k];
+            for (int i = 0; i < k; i++) top[i] = scores.get(i);
+            double topAvg = k > 0 ? PythonUtils.sum(top, 0, k) / k : 0.0;
+            double logN = count > 0 ? Math.log1p(count) : 1;
+            journals[j] = corpus.journalName(entry.getKey());
+            tieKeys[j] = corpus.journalSortKey(entry.getKey());
+            paperCounts[j] = count;
+            enhanced[j] = (1 - VOLUME_WEIGHT) * topAvg + VOLUME_WEIGHT * (topAvg / logN);
+            raw[j] = PythonUtils.round2(enhanced[j] * 100);
+            j++;
+        }
+
+        double[] percent = UniformRanker.rank(raw, tieKeys, 2, Double.NaN);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(percent[b], percent[a]));
+
+        List<Map<String, Object>> result = new ArrayList<>(n);
+        for (int i : order) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("journal", journals[i]);
+            row.put("n_papers", paperCounts[i]);
+            row.put("enhanced_score", enhanced[i]);
+            row.put("percent_score_raw", raw[i]);
+            row.put("percent_score", percent[i]);
+            result.add(row);
+        }
+        return result;
+    }
+
+    // ===================== token 规范化 =====================
+
+    private static String derivePid(String doi, int row) {
+        if (doi == null || PythonUtils.strip(doi).isEmpty()) {
+            return "row_" + row;
+        }
+        return PythonUtils.strip(doi);
+    }
+
+    /**
+     * DOI 归一化：去前缀/去空白/转小写/去尾部标点
+     */
+    static String normDoi(String s) {
+        String t = PythonUtils.strip(s);
+        if (t.isEmpty()) return "";
+        String low = PythonUtils.strip(t.toLowerCase(Locale.ROOT));
+        for (String prefix : DOI_PREFIXES) {
+            if (low.startsWith(prefix)) {
+                t = t.substring(Math.min(prefix.length(), t.length()));
+                break;
+            }
+        }
+        if (t.toLowerCase(Locale.ROOT).startsWith("doi:")) {
+            t = t.substring(t.indexOf(':') + 1);
+        }
+        t = PythonUtils.strip(t);
+        t = PythonUtils.rstrip(t, ".。;；,，)]}\"' ");
+        return t.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 题名归一化：压缩空白、统一中英文标点、去两侧引号/书名号
+     */
+    static String normTitle(String s) {
+        if (s == null) return "";
+        String t = PythonUtils.strip(s);
+        if (t.isEmpty()) return "";
+        t = t.replace('　', ' ')
+            .replace('，', ',')
+            .replace('；', ';')
+            .replace('：', ':')
+            .replace('。', '.')
+            .replace('（', '(')
+            .replace('）', ')')
+            .replace('【', '[')
+            .replace('】', ']')
+            .replace('“', '"')
+            .replace('”', '"')
+            .replace('‘', '\'')
+            .replace('’', '\'');
+        t = PythonUtils.strip(t, " \t\r\n\"'《》<>[](){}");
+        t = WHITESPACE.matcher(t).replaceAll(" ");
+        return PythonUtils.strip(t);
+    }
+
+    /**
+     * 引用条目转 token：优先 DOI，否则按题名；URL、过短片段与期刊名返回空串
+     */
+    static String refToken(String item, Set<String> journalNames) {
+        String s = PythonUtils.strip(item);
+        if (s.isEmpty()) return "";
+
+        String low = s.toLowerCase(Locale.ROOT);
+        if (low.contains("http://") || low.contains("https://") || low.startsWith("www.")) {
+            return "";
+        }
+
+        Matcher m = DOI_PATTERN.matcher(s);
+        if (m.find()) {
+            String doi = normDoi(m.group());
+            return doi.isEmpty() ? "" : "doi:" + doi;
+        }
+
+        String title = normTitle(s);
+        if (title.isEmpty() || PythonUtils.length(title) < 4 || journalNames.contains(title)) {
+            return "";
+        }
+        String titleLow = title.toLowerCase(Locale.ROOT);
+        if (titleLow.startsWith("http") || titleLow.startsWith("www")) {
+            return "";
+        }
+        return "title:" + title;
+    }
+
+    // 辅助方法：在引擎线程池中执行并行流
+    private void run(Runnable task) throws InterruptedException {
+        try {
+            pool.submit(task).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
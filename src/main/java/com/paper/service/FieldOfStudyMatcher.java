@@ -0,0 +1,292 @@
+package com.paper.service;
+
+import com.paper.utils.PythonUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 关键词 → 研究领域匹配器
+ * <p>与 topic_analyzer_036.py 的 map_keyword_to_fields 结果一致：先按词典精确匹配，没有命中时
+ * 对长度相差不超过 3 的词典词计算 difflib.SequenceMatcher 相似度，≥ 0.75 的词所属领域均算命中。</p>
+ *
+ * <p>词典在构造时预编译：精确匹配为 词 → 领域位掩码 的哈希表；模糊匹配为 字符 → (词, 出现次数) 的倒排表。
+ * SequenceMatcher 的匹配字符数不超过两词的公共字符数（按多重集计），因此先用倒排表累加公共字符数，
+ * 只对满足 8·公共字符数 ≥ 3·(两词长度和) 的候选计算相似度。匹配结果缓存在有界的并发表中，
+ * 达到上限时整体清空。</p>
+ */
+final class FieldOfStudyMatcher {
+
+    /** 与 Python 全局 _keyword_to_fields_cache 对应的缓存上限 */
+    private static final int MAX_CACHE_SIZE = 100_000;
+    /** 模糊匹配允许的最大长度差 */
+    private static final int MAX_LENGTH_DIFF = 3;
+
+    private static final FieldOfStudyMatcher DEFAULT = new FieldOfStudyMatcher(defaultFields());
+
+    private final String[] fieldNames;
+    /** 精确匹配：词 → 领域位掩码 */
+    private final Map<String, Integer> exact = new HashMap<>();
+    /** 模糊匹配候选词（去重） */
+    private final int[][] words;
+    private final int[] wordMasks;
+    /** 字符 → 含该字符的词编号与出现次数，成对存放 */
+    private final Map<Integer, int[]> postings = new HashMap<>();
+    private final ConcurrentHashMap<String, Integer> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param fields 领域 → 词表（按领域顺序分配位，最多 31 个领域）
+     */
+    FieldOfStudyMatcher(Map<String, List<String>> fields) {
+        if (fields.size() > 31) {
+            throw new IllegalArgumentException("Too many fields: " + fields.size());
+        }
+        this.fieldNames = fields.keySet().toArray(new String[0]);
+        int bit = 0;
+        for (List<String> list : fields.values()) {
+            for (String word : list) {
+                exact.merge(word, 1 << bit, (a, b) -> a | b);
+            }
+            bit++;
+        }
+
+        int n = exact.size();
+        this.words = new int[n][];
+        this.wordMasks = new int[n];
+        Map<Integer, List<int[]>> byChar = new HashMap<>();
+        int w = 0;
+        for (Map.Entry<String, Integer> entry : exact.entrySet()) {
+            words[w] = entry.getKey().codePoints().toArray();
+            wordMasks[w] = entry.getValue();
+            for (Map.Entry<Integer, Integer> c : charCounts(words[w]).entrySet()) {
+                byChar.computeIfAbsent(c.getKey(), k -> new ArrayList<>()).add(new int[] {w, c.getValue()});
+            }
+            w++;
+        }
+        for (Map.Entry<Integer, List<int[]>> entry : byChar.entrySet()) {
+            List<int[]> list = entry.getValue();
+            int[] flat = new int[list.size() * 2];
+            for (int k = 0; k < list.size(); k++) {
+                flat[2 * k] = list.get(k)[0];
+                flat[2 * k + 1] = list.get(k)[1];
+            }
+            postings.put(entry.getKey(), flat);
+        }
+    }
+
+    /** topic_analyzer_036.py 内置的 FOS_dict */
+    static FieldOfStudyMatcher defaultMatcher() {
+        return DEFAULT;
+    }
+
+    /** 领域名，下标即位掩码中的位 */
+    String fieldName(int bit) {
+        return fieldNames[bit];
+    }
+
+    int fieldCount() {
+        return fieldNames.length;
+    }
+
+    /**
+     * 匹配关键词所属领域（线程安全）
+     *
+     * @return 领域位掩码，没有命中为 0
+     */
+    int match(String keyword) {
+        String key = PythonUtils.strip(keyword.toLowerCase(Locale.ROOT));
+        Integer cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Integer exactMask = exact.get(key);
+        int mask = exactMask != null ? exactMask : fuzzyMatch(key.codePoints().toArray());
+        if (cache.size() >= MAX_CACHE_SIZE) {
+            cache.clear();
+        }
+        cache.put(key, mask);
+        return mask;
+    }
+
+    int cacheSize() {
+        return cache.size();
+    }
+
+    // 辅助方法：公共字符数过滤后逐个验证 SequenceMatcher 相似度
+    private int fuzzyMatch(int[] keyword) {
+        int[] common = new int[words.length];
+        for (Map.Entry<Integer, Integer> c : charCounts(keyword).entrySet()) {
+            int[] list = postings.get(c.getKey());
+            if (list == null) continue;
+            for (int k = 0; k < list.length; k += 2) {
+                common[list[k]] += Math.min(c.getValue(), list[k + 1]);
+            }
+        }
+        int mask = 0;
+        for (int w = 0; w < words.length; w++) {
+            if (common[w] == 0 || (wordMasks[w] & ~mask) == 0) continue;
+            int total = keyword.length + words[w].length;
+            if (Math.abs(keyword.length - words[w].length) > MAX_LENGTH_DIFF || 8 * common[w] < 3 * total) continue;
+            // ratio = 2·M / total ≥ 0.75
+            if (8 * matchingCharacters(keyword, words[w]) >= 3 * total) {
+                mask |= wordMasks[w];
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * difflib.SequenceMatcher(None, a, b) 的匹配字符数（get_matching_blocks 各块长度之和）
+     * <p>b 长度小于 200，不触发 autojunk；最长匹配块的选取规则与 find_longest_match 相同：
+     * 取最长，同长取 a 中最早结束、再取 b 中最早的块。</p>
+     */
+    static int matchingCharacters(int[] a, int[] b) {
+        int matched = 0;
+        int[] prev = new int[b.length + 1];
+        int[] cur = new int[b.length + 1];
+        List<int[]> queue = new ArrayList<>();
+        queue.add(new int[] {0, a.length, 0, b.length});
+        while (!queue.isEmpty()) {
+            int[] range = queue.remove(queue.size() - 1);
+            int alo = range[0], ahi = range[1], blo = range[2], bhi = range[3];
+            int besti = alo, bestj = blo, bestSize = 0;
+            // prev[j + 1] 为 a[i - 1]、b[j] 结尾的公共子串长度
+            Arrays.fill(prev, blo, bhi + 1, 0);
+            for (int i = alo; i < ahi; i++) {
+                cur[blo] = 0;
+                for (int j = blo; j < bhi; j++) {
+                    int k = a[i] == b[j] ? prev[j] + 1 : 0;
+                    cur[j + 1] = k;
+                    if (k > bestSize) {
+                        besti = i - k + 1;
+                        bestj = j - k + 1;
+                        bestSize = k;
+                    }
+                }
+                int[] t = prev;
+                prev = cur;
+                cur = t;
+            }
+            if (bestSize > 0) {
+                matched += bestSize;
+                if (alo < besti && blo < bestj) {
+                    queue.add(new int[] {alo, besti, blo, bestj});
+                }
+                if (besti + bestSize < ahi && bestj + bestSize < bhi) {
+                    queue.add(new int[] {besti + bestSize, ahi, bestj + bestSize, bhi});
+                }
+            }
+        }
+        return matched;
+    }
+
+    private static Map<Integer, Integer> charCounts(int[] codePoints) {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (int c : codePoints) {
+            counts.merge(c, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    // ===================== 领域词典 =====================
+
+    // 与 topic_analyzer_036.py 的 FOS_dict 一致
+    private static Map<String, List<String>> defaultFields() {
+        Map<String, List<String>> fields = new LinkedHashMap<>();
+        fields.put("psychology", List.of(
+            "cognition", "cognitive", "executive function", "working memory", "memory retrieval", "attention",
+            "selective attention", "decision making", "problem solving", "reasoning", "mental representation",
+            "information processing", "cognitive control", "metacognition", "inhibition", "visual perception",
+            "auditory perception", "language processing", "skill acquisition", "implicit learning",
+            "explicit learning", "concept formation", "judgment", "mental imagery", "semantic processing",
+            "episodic memory", "short-term memory", "neural", "neural basis", "neural processing",
+            "brain activity", "neurocognition", "neuropsychology", "neurobehavioral", "prefrontal cortex",
+            "hippocampus", "amygdala", "cortical", "neuroplasticity", "brain networks", "neuroimaging", "erp",
+            "p300", "n400", "fmri", "eeg", "p600", "emotion", "emotional processing", "affect",
+            "emotion regulation", "emotional arousal", "empathy", "mood", "affective response",
+            "emotion recognition", "emotional cognition", "motivation", "intrinsic motivation",
+            "extrinsic motivation", "goal orientation", "reward processing", "novelty seeking",
+            "sensation seeking", "value processing", "self-efficacy", "creativity", "creative thinking",
+            "creative cognition", "divergent thinking", "convergent thinking", "idea generation",
+            "personality", "personality traits", "big five", "neuroticism", "extraversion", "openness",
+            "agreeableness", "conscientiousness", "behavior", "behavioral response", "behavioral performance",
+            "social cognition", "social interaction", "social influence", "developmental psychology",
+            "child development", "clinical psychology", "mental health", "psychopathology", "depression",
+            "anxiety", "stress", "trauma", "educational psychology", "learning motivation",
+            "learning strategies"));
+        fields.put("neuroscience", List.of(
+            "brain", "neural", "neuron", "neural networks", "central nervous system", "cns", "neuroscience",
+            "synaptic", "neuroplasticity", "neural pathway", "neural circuit", "neural dynamics",
+            "neurophysiology", "dopamine", "serotonin", "norepinephrine", "acetylcholine", "glutamate", "gaba",
+            "oxytocin", "vasopressin", "prefrontal cortex", "pfc", "orbitofrontal cortex", "ofc",
+            "anterior cingulate cortex", "acc", "posterior cingulate cortex", "hippocampus", "amygdala",
+            "insula", "basal ganglia", "striatum", "cerebellum", "thalamus", "hypothalamus",
+            "synaptic plasticity", "long-term potentiation", "ltp", "long-term depression", "ltd",
+            "signal transmission", "action potential", "spike train", "neural oscillation", "working memory",
+            "executive function", "decision making", "reward processing", "attention network",
+            "emotion regulation", "perception", "sensory processing", "eeg", "erp", "p300", "n400", "p600",
+            "meg", "fmri", "bold signal", "pet scan", "neuroimaging", "diffusion tensor imaging", "dti",
+            "ion channel", "synapse", "axon", "dendrite", "behavioral neuroscience", "neurobehavioral",
+            "fear conditioning", "reinforcement learning", "computational model", "spiking model",
+            "neural computation", "neural coding", "alzheimer", "parkinson", "adhd", "autism", "epilepsy",
+            "schizophrenia"));
+        fields.put("computer_science", List.of(
+            "algorithm", "algorithms", "optimization", "approximation", "graph algorithm", "graph theory",
+            "search algorithm", "sorting", "complexity", "data structure", "tree", "graph", "hashing",
+            "machine learning", "supervised learning", "unsupervised learning", "reinforcement learning",
+            "deep learning", "neural network", "neural networks", "convolutional neural network", "cnn",
+            "recurrent neural network", "rnn", "transformer", "representation learning", "feature extraction",
+            "classification", "regression", "clustering", "data mining", "data analysis", "data processing",
+            "big data", "data visualization", "natural language processing", "nlp", "text mining",
+            "text classification", "sentiment analysis", "language model", "word embedding",
+            "transformer model", "computer vision", "image processing", "object detection",
+            "image classification", "image recognition", "human computer interaction", "hci", "robotics",
+            "autonomous system", "autonomous agents", "software engineering", "software architecture",
+            "operating system", "distributed system", "parallel computing", "cloud computing",
+            "computer network", "network protocol", "cybersecurity", "cryptography", "encryption",
+            "simulation", "agent-based model", "computational model", "numerical simulation"));
+        fields.put("education", List.of(
+            "education", "educational practice", "educational research", "learning", "instruction", "teaching",
+            "pedagogy", "instructional design", "curriculum design", "learning outcomes",
+            "student performance", "academic performance", "learning behavior", "classroom environment",
+            "learning process", "knowledge acquisition", "constructivism", "social constructivism",
+            "experiential learning", "active learning", "collaborative learning", "problem-based learning",
+            "self-directed learning", "self-regulated learning", "educational psychology", "motivation",
+            "learning motivation", "self-efficacy", "goal orientation", "engagement", "assessment",
+            "evaluation", "formative assessment", "summative assessment", "rubric", "performance assessment",
+            "learning analytics", "measurement", "testing", "instructional method", "instructional strategy",
+            "scaffolding", "differentiated instruction", "educational technology",
+            "technology-enhanced learning", "digital learning", "online learning", "blended learning",
+            "e-learning", "mobile learning", "virtual learning", "higher education", "tertiary education",
+            "k-12 education", "primary education", "secondary education", "teacher education",
+            "teacher training", "teacher development", "curriculum", "curriculum implementation",
+            "educational policy", "education reform", "creative behavior", "creative learning"));
+        fields.put("biomedical_sciences", List.of(
+            "dopamine", "serotonin", "glutamate", "gaba", "acetylcholine", "genetics", "genomics",
+            "epigenetics", "gene expression", "gene regulation", "transcription factor", "molecular pathway",
+            "protein expression", "protein folding", "protein interaction", "biochemical",
+            "biochemical pathway", "biomarker", "cytokine", "inflammation", "inflammatory response",
+            "immune system", "immunity", "innate immunity", "adaptive immunity", "neural basis",
+            "neural circuit", "neurobiological", "neurochemical", "neurophysiological", "synaptic plasticity",
+            "synapse", "axon", "dendrite", "neural signaling", "cellular process", "cell culture",
+            "cell proliferation", "cell differentiation", "stem cell", "neural stem cell", "neurogenesis",
+            "oxidative stress", "mitochondria", "mitochondrial function", "apoptosis", "cell death",
+            "autophagy", "endocrine", "hormone", "hormonal regulation", "cortisol", "testosterone", "estrogen",
+            "neurodevelopmental", "developmental biology", "neurodegeneration", "neurodegenerative disease",
+            "alzheimer's disease", "parkinson's disease", "schizophrenia", "depression", "mental disorder",
+            "pharmacology", "drug response", "drug metabolism", "metabolism", "metabolic pathway",
+            "lipid metabolism", "glucose metabolism", "metabolomics", "proteomics", "transcriptomics",
+            "multiomics", "microbiome", "gut microbiota", "immune response", "cell signaling",
+            "signal transduction", "receptor activation", "blood brain barrier", "neurovascular",
+            "cerebral cortex", "hippocampus", "amygdala", "in vivo", "in vitro", "animal model", "mouse model",
+            "rat model", "biostatistics", "epidemiology", "public health", "clinical research"));
+        return Collections.unmodifiableMap(fields);
+    }
+}
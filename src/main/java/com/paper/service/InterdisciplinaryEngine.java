@@ -0,0 +1,469 @@
+package com.paper.service;
+
+import com.paper.model.PaperTable;
+import com.paper.utils.PythonUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * 跨学科性（TD）计算引擎
+ * <p>与 interdisciplinary_032.py 的 analyze_interdisciplinary 口径一致：论文的参考文献类别分布为 p，
+ * 类别相似度 S 为共现矩阵行向量的余弦相似度，Rao-Stirling 多样性 D = Σ(1 - S<sub>ij</sub>)·p<sub>i</sub>·p<sub>j</sub>，
+ * TD = 2 / (1 + D)，期刊得分为论文 TD 均值。</p>
+ *
+ * <p>与 Python 实现的差异：共现矩阵按稀疏 CSR 存储，不再限制 500 个类别；相似度只计算论文中实际同时出现的类别对
+ * （行范数预先计算，按类别对并行）；每篇论文只在自身的 k 个类别上求和（O(k²)）；类别与参考文献取自
+ * {@link PaperCorpus} 的编号列，每个不同参考文献只查一次知识库。相似度与 Python 一样按 float32 计算，
+ * 多样性按 double 求和，与 Python 的 float32 求和相差在 1e-6 量级，百分制得分（保留一位小数）一致。</p>
+ */
+public class InterdisciplinaryEngine {
+
+    private static final String ID_COL = "doi";
+    private static final String JOURNAL_COL = "journal";
+    private static final String CATEGORY_COL = "target";
+    private static final String REFS_COL = "citing";
+    /** 读取的原始列（之后的指标都不需要时由 MetricEngines 释放） */
+    static final Set<String> RAW_COLUMNS = Set.of(ID_COL, CATEGORY_COL, REFS_COL);
+    /** 缺失期刊名在结果中的名称 */
+    private static final String UNKNOWN_JOURNAL = "UNKNOWN";
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool 并行计算使用的线程池
+     */
+    public InterdisciplinaryEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 计算期刊跨学科性得分
+     *
+     * @param corpus 论文语料（使用 doi、journal、target、citing 列）
+     * @return 期刊得分行（journal, td_mean, paper_count, percent_score），按 percent_score 降序
+     */
+    public List<Map<String, Object>> analyze(PaperCorpus corpus) throws InterruptedException {
+        if (corpus.size() == 0) {
+            throw new IllegalArgumentException("输入数据为空");
+        }
+        Set<String> missing = new LinkedHashSet<>();
+        for (String column : new String[] {ID_COL, JOURNAL_COL, CATEGORY_COL, REFS_COL}) {
+            if (!corpus.hasColumn(column)) missing.add(column);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("数据缺少列: " + missing);
+        }
+        PaperTable table = corpus.table();
+        int rows = corpus.size();
+
+        // 类别与参考文献编号（语料中并行构建，类别按首次出现顺序编号）
+        PaperCorpus.TokenColumn categories = corpus.tokens("interdisciplinary.categories",
+                row -> parseCategories(table.get(CATEGORY_COL, row)));
+        PaperCorpus.TokenColumn refs = corpus.tokens("interdisciplinary.refs",
+                row -> parseRefs(table.get(REFS_COL, row)));
+
+        // 分类知识库：pid → 类别编号（同一 pid 以最后一个非空类别为准）
+        Map<String, int[]> paperCategories = new HashMap<>();
+        for (int i = 0; i < rows; i++) {
+            int[] ids = categories.ids(i);
+            if (ids.length == 0) continue;
+            String doi = table.get(ID_COL, i);
+            paperCategories.put(doi == null ? "nan" : doi, ids);
+        }
+        CooccurrenceMatrix matrix = CooccurrenceMatrix.build(paperCategories.values(), categories.dictionarySize());
+
+        // 每个不同参考文献只查一次知识库
+        int[][] refCategories = new int[refs.dictionarySize()][];
+        for (int t = 0; t < refCategories.length; t++) {
+            refCategories[t] = paperCategories.get(refs.name(t));
+        }
+
+        // 每篇论文的参考文献类别分布（类别编号升序，计数）
+        int[][] refCategoryIds = new int[rows][];
+        int[][] refCategoryCounts = new int[rows][];
+        run(() -> IntStream.range(0, rows).parallel().forEach(i -> {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (int ref : refs.ids(i)) {
+                int[] cats = refCategories[ref];
+                if (cats == null) continue;
+                for (int c : cats) counts.merge(c, 1, Integer::sum);
+            }
+            int[] ids = counts.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            int[] cnt = new int[ids.length];
+            for (int k = 0; k < ids.length; k++) cnt[k] = counts.get(ids[k]);
+            refCategoryIds[i] = ids;
+            refCategoryCounts[i] = cnt;
+        }));
+
+        // 论文中同时出现的类别对的相似度（并行计算，之后只读）
+        PairSimilarities similarities = pairSimilarities(matrix, refCategoryIds);
+        System.out.println("[InterdisciplinaryEngine] Categories: " + categories.dictionarySize()
+            + ", co-occurrence entries: " + matrix.nonZeros() + ", similarity pairs: " + similarities.size());
+
+        double[] scores = new double[rows];
+        run(() -> IntStream.range(0, rows).parallel().forEach(i -> {
+            scores[i] = tdIndex(refCategoryIds[i], refCategoryCounts[i], similarities);
+        }));
+
+        return aggregate(corpus, scores);
+    }
+
+    /**
+     * TD 指数：没有带类别的参考文献为 0，只有一个类别为 1，否则 2 / (1 + D)
+     */
+    private static double tdIndex(int[] ids, int[] counts, PairSimilarities similarities) {
+        if (ids.length == 0) return 0.0;
+        if (ids.length == 1) return 1.0;
+        long total = 0;
+        for (int c : counts) total += c;
+        double diversity = 0;
+        for (int a = 0; a < ids.length; a++) {
+            double pa = (double) counts[a] / total;
+            for (int b = a + 1; b < ids.length; b++) {
+                double pb = (double) counts[b] / total;
+                diversity += 2 * (1 - similarities.get(ids[a], ids[b])) * pa * pb;
+            }
+        }
+        return diversity > 0 ? 2.0 / (1.0 + diversity) : 1.0;
+    }
+
+    /**
+     * 收集各论文中同时出现的类别对（排序去重），并行计算其余弦相似度
+     */
+    private PairSimilarities pairSimilarities(CooccurrenceMatrix matrix, int[][] paperCategoryIds)
+            throws InterruptedException {
+        long[] pairs = new long[1 << 16];
+        int size = 0;
+        for (int[] ids : paperCategoryIds) {
+            int need = ids.length * (ids.length - 1) / 2;
+            if (size + need > pairs.length) {
+                // 先排序去重，仍放不下再扩容
+                size = sortDistinct(pairs, size);
+                if (size + need > pairs.length / 2) {
+                    pairs = Arrays.copyOf(pairs, Math.max(pairs.length * 2, size + need));
+                }
+            }
+            for (int a = 0; a < ids.length; a++) {
+                for (int b = a + 1; b < ids.length; b++) {
+                    pairs[size++] = PairSimilarities.key(ids[a], ids[b]);
+                }
+            }
+        }
+        long[] keys = Arrays.copyOf(pairs, sortDistinct(pairs, size));
+
+        // 按较小编号分组，每组内选择代价较低的方式：逐对归并两行，或把该行与矩阵相乘一次得到所有点积
+        int[] groupStart = IntStream.range(0, keys.length)
+            .filter(k -> k == 0 || (keys[k] >>> 32) != (keys[k - 1] >>> 32)).toArray();
+        double[] values = new double[keys.length];
+        ThreadLocal<double[]> accumulators = ThreadLocal.withInitial(() -> new double[matrix.size()]);
+        run(() -> IntStream.range(0, groupStart.length).parallel().forEach(g -> {
+            int from = groupStart[g];
+            int to = g + 1 < groupStart.length ? groupStart[g + 1] : keys.length;
+            int a = (int) (keys[from] >>> 32);
+            long mergeCost = 0;
+            for (int k = from; k < to; k++) mergeCost += matrix.rowLength(a) + matrix.rowLength((int) keys[k]);
+            if (mergeCost <= matrix.productCost(a)) {
+                for (int k = from; k < to; k++) values[k] = matrix.cosine(a, (int) keys[k]);
+            } else {
+                double[] dots = accumulators.get();
+                matrix.rowProduct(a, dots);
+                for (int k = from; k < to; k++) values[k] = matrix.cosine(a, (int) keys[k], dots);
+                matrix.clearRowProduct(a, dots);
+            }
+        }));
+        return new PairSimilarities(keys, values);
+    }
+
+    // 辅助方法：对前 size 个元素排序去重，返回去重后的个数
+    private static int sortDistinct(long[] values, int size) {
+        Arrays.parallelSort(values, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || values[distinct - 1] != values[i]) values[distinct++] = values[i];
+        }
+        return distinct;
+    }
+
+    // ===================== 期刊级聚合 =====================
+
+    private List<Map<String, Object>> aggregate(PaperCorpus corpus, double[] scores) {
+        // groupby().mean() 按行顺序做 Kahan 补偿求和；缺失期刊不参与分组，但以 UNKNOWN 出现在结果中
+        // （fillna("UNKNOWN").unique()：已有名为 UNKNOWN 的期刊时与之合并为一行，取该期刊的得分）
+        int n = corpus.journalCount();
+        double[] sums = new double[n];
+        double[] compensations = new double[n];
+        int[] paperCounts = new int[n];
+        int unknownOrdinal = -1;
+        for (int j = 0; j < n; j++) {
+            if (UNKNOWN_JOURNAL.equals(corpus.journalName(j))) unknownOrdinal = j;
+        }
+        List<Integer> order = new ArrayList<>(n + 1);  // 期刊序号按出现顺序，-1 为 UNKNOWN
+        boolean[] listed = new boolean[n];
+        boolean unknownListed = false;
+        for (int i = 0; i < scores.length; i++) {
+            int j = corpus.journalOf(i);
+            int key = j < 0 ? unknownOrdinal : j;
+            if (key < 0 ? !unknownListed : !listed[key]) {
+                order.add(key);
+                if (key < 0) unknownListed = true;
+                else listed[key] = true;
+            }
+            if (j < 0) continue;
+            paperCounts[j]++;
+            double y = scores[i] - compensations[j];
+            double t = sums[j] + y;
+            compensations[j] = t - sums[j] - y;
+            sums[j] = t;
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(order.size());
+        for (int j : order) {
+            double tdMean = j < 0 ? 0.0 : sums[j] / paperCounts[j];
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("journal", j < 0 ? UNKNOWN_JOURNAL : corpus.journalName(j));
+            row.put("td_mean", tdMean);
+            row.put("paper_count", j < 0 ? 0 : paperCounts[j]);
+            row.put("percent_score", Math.rint(tdMean / 2 * 100 * 10) / 10);
+            result.add(row);
+        }
+        // 稳定排序：同分保持期刊出现顺序
+        result.sort((a, b) -> Double.compare((Double) b.get("percent_score"), (Double) a.get("percent_score")));
+        return result;
+    }
+
+    // ===================== 字段解析 =====================
+
+    /**
+     * 类别解析：列表字面量取非空元素，否则按 ; | / 中第一个出现的分隔符拆分，都没有则整体作为一个类别
+     */
+    static String[] parseCategories(String value) {
+        if (value == null) return new String[0];
+        String v = PythonUtils.strip(value);
+        if (v.isEmpty()) return new String[0];
+        if (v.startsWith("[") && v.endsWith("]")) {
+            List<Object> parsed = PythonUtils.literalValues(v, "[");
+            if (parsed == null) return new String[0];
+            List<String> cats = new ArrayList<>();
+            for (Object item : parsed) {
+                if (PythonUtils.truthy(item)) cats.add(PythonUtils.strip(PythonUtils.str(item)));
+            }
+            return cats.toArray(new String[0]);
+        }
+        for (String sep : new String[] {";", "|", "/"}) {
+            if (v.contains(sep)) {
+                List<String> cats = new ArrayList<>();
+                for (String part : v.split(Pattern.quote(sep), -1)) {
+                    String cat = PythonUtils.strip(part);
+                    if (!cat.isEmpty()) cats.add(cat);
+                }
+                return cats.toArray(new String[0]);
+            }
+        }
+        return new String[] {v};
+    }
+
+    /**
+     * 参考文献解析：list/tuple 字面量的元素文本，其他情况为空
+     */
+    static String[] parseRefs(String value) {
+        if (value == null) return new String[0];
+        List<Object> parsed = PythonUtils.literalValues(PythonUtils.strip(value), "[(");
+        if (parsed == null) return new String[0];
+        String[] refs = new String[parsed.size()];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = PythonUtils.str(parsed.get(k));
+        }
+        return refs;
+    }
+
+    // 辅助方法：在引擎线程池中执行并行流
+    private void run(Runnable task) throws InterruptedException {
+        try {
+            pool.submit(task).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // ===================== 稀疏矩阵 =====================
+
+    /**
+     * 类别共现矩阵（CSR，对称）：同一篇论文中每对类别位置计数一次，对角线为类别出现次数
+     */
+    static final class CooccurrenceMatrix {
+        final int[] rowStart;
+        final int[] columns;
+        final double[] values;
+        /** 行范数（float32，与 np.linalg.norm 对 float32 矩阵的结果一致） */
+        final float[] norms;
+
+        private CooccurrenceMatrix(int[] rowStart, int[] columns, double[] values) {
+            this.rowStart = rowStart;
+            this.columns = columns;
+            this.values = values;
+            int n = rowStart.length - 1;
+            this.norms = new float[n];
+            for (int r = 0; r < n; r++) {
+                double sq = 0;
+                for (int e = rowStart[r]; e < rowStart[r + 1]; e++) sq += values[e] * values[e];
+                norms[r] = (float) Math.sqrt(sq);
+            }
+        }
+
+        static CooccurrenceMatrix build(Iterable<int[]> paperCategories, int n) {
+            // 先收集 (行, 列) 打包的 long，排序后按游程计数
+            long[] cells = new long[1024];
+            int size = 0;
+            for (int[] cats : paperCategories) {
+                if (cats.length < 2) continue;
+                int need = size + cats.length * cats.length;
+                if (need > cells.length) cells = Arrays.copyOf(cells, Math.max(need, cells.length * 2));
+                for (int a = 0; a < cats.length; a++) {
+                    cells[size++] = cell(cats[a], cats[a]);
+                    for (int b = a + 1; b < cats.length; b++) {
+                        cells[size++] = cell(cats[a], cats[b]);
+                        cells[size++] = cell(cats[b], cats[a]);
+                    }
+                }
+            }
+            Arrays.parallelSort(cells, 0, size);
+
+            int[] rowStart = new int[n + 1];
+            int[] columns = new int[size];
+            double[] values = new double[size];
+            int nnz = 0;
+            for (int i = 0; i < size; ) {
+                long c = cells[i];
+                int j = i;
+                while (j < size && cells[j] == c) j++;
+                int row = (int) (c >>> 32);
+                columns[nnz] = (int) c;
+                values[nnz] = j - i;
+                rowStart[row + 1]++;
+                nnz++;
+                i = j;
+            }
+            for (int r = 0; r < n; r++) rowStart[r + 1] += rowStart[r];
+            return new CooccurrenceMatrix(rowStart, Arrays.copyOf(columns, nnz), Arrays.copyOf(values, nnz));
+        }
+
+        /**
+         * 余弦相似度，对角线为 1，零向量为 0
+         * <p>与 Python 一样按 float32 计算（点积为整数计数，范数、分母与商各舍入一次）：
+         * 共现行向量成比例时相似度恰好为 1，论文的 D 为 0、TD 为 1；按 double 计算会得到略小于 1 的值，TD 变成 2。</p>
+         */
+        double cosine(int a, int b) {
+            if (a == b) return 1.0;
+            float denom = norms[a] * norms[b];
+            if (denom <= 0) return 0.0;
+            double dot = 0;
+            int i = rowStart[a];
+            int j = rowStart[b];
+            int iEnd = rowStart[a + 1];
+            int jEnd = rowStart[b + 1];
+            while (i < iEnd && j < jEnd) {
+                if (columns[i] == columns[j]) {
+                    dot += values[i++] * values[j++];
+                } else if (columns[i] < columns[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return (float) dot / denom;
+        }
+
+        /**
+         * 余弦相似度，点积取自 {@link #rowProduct} 的结果
+         */
+        double cosine(int a, int b, double[] dots) {
+            if (a == b) return 1.0;
+            float denom = norms[a] * norms[b];
+            return denom <= 0 ? 0.0 : (float) dots[b] / denom;
+        }
+
+        /**
+         * 第 a 行与矩阵相乘（矩阵对称，dots[b] 即第 a 行与第 b 行的点积），按列号升序累加，与逐对归并的结果相同
+         */
+        void rowProduct(int a, double[] dots) {
+            for (int e = rowStart[a]; e < rowStart[a + 1]; e++) {
+                int m = columns[e];
+                double v = values[e];
+                for (int f = rowStart[m]; f < rowStart[m + 1]; f++) {
+                    dots[columns[f]] += v * values[f];
+                }
+            }
+        }
+
+        void clearRowProduct(int a, double[] dots) {
+            for (int e = rowStart[a]; e < rowStart[a + 1]; e++) {
+                int m = columns[e];
+                for (int f = rowStart[m]; f < rowStart[m + 1]; f++) {
+                    dots[columns[f]] = 0;
+                }
+            }
+        }
+
+        /** {@link #rowProduct} 的计算量 */
+        long productCost(int a) {
+            long cost = 0;
+            for (int e = rowStart[a]; e < rowStart[a + 1]; e++) cost += rowLength(columns[e]);
+            return cost;
+        }
+
+        int rowLength(int row) {
+            return rowStart[row + 1] - rowStart[row];
+        }
+
+        int size() {
+            return norms.length;
+        }
+
+        int nonZeros() {
+            return columns.length;
+        }
+
+        private static long cell(int row, int column) {
+            return ((long) row << 32) | column;
+        }
+    }
+
+    /**
+     * 论文中实际出现的类别对 → 相似度（键为打包的 (较小编号, 较大编号)，有序数组 + 二分查找）
+     */
+    static final class PairSimilarities {
+        private final long[] keys;
+        private final double[] values;
+
+        PairSimilarities(long[] keys, double[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        double get(int a, int b) {
+            int index = Arrays.binarySearch(keys, key(a, b));
+            return index >= 0 ? values[index] : 0.0;
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        static long key(int a, int b) {
+            return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.paper.service;
+
+import com.paper.model.JournalMetrics;
+import com.paper.repository.JournalMetricsRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 期刊目录快照 - journal_metrics 的内存只读视图
+ * <p>整表一次性加载并按期刊分组，读请求只访问当前快照，不再查询数据库。</p>
+ * <p>后台定时比对表指纹（行数 + 最大id），upload_journal_metrics_035.py 写入新指标后
+ * 重建新快照并整体替换（copy-on-write），读线程不会看到半成品。</p>
+ * <p>目录内排名分（{@link CatalogRanks}）跨快照增量维护，只有数值变化的期刊参与重排。</p>
+ */
+@Component
+public class JournalCatalog {
+
+    private final JournalMetricsRepository repository;
+
+    /** 当前快照，替换时整体换引用 */
+    private volatile Snapshot current;
+
+    /** 快照版本号，每次重建递增 */
+    private long versionSeq = 0;
+
+    /** 目录内排名状态，只在重建快照时（已加锁）使用 */
+    private final CatalogRanks.Tracker rankTracker = new CatalogRanks.Tracker();
+
+    @Autowired
+    public JournalCatalog(JournalMetricsRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * 获取当前快照（首次访问时同步加载）
+     */
+    public Snapshot current() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current;
+                if (snapshot == null) {
+                    snapshot = rebuild(readFingerprint());
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 定时检查表是否变化，变化时重建快照
+     */
+    @Scheduled(fixedDelayString = "${journal.catalog.refresh-interval-ms:30000}")
+    public void refreshIfChanged() {
+        try {
+            String fingerprint = readFingerprint();
+            Snapshot snapshot = current;
+            if (snapshot != null && snapshot.getFingerprint().equals(fingerprint)) {
+                return;
+            }
+            synchronized (this) {
+                if (current == snapshot) {
+                    rebuild(fingerprint);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("[JournalCatalog] Refresh failed, keep current snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 强制重建快照（指标重新上传后可直接调用）
+     */
+    public synchronized Snapshot refresh() {
+        return rebuild(readFingerprint());
+    }
+
+    private Snapshot rebuild(String fingerprint) {
+        List<JournalMetrics> all = repository.findAll();
+        Snapshot snapshot = new Snapshot(++versionSeq, fingerprint, all, rankTracker);
+        current = snapshot;
+        System.out.println("[JournalCatalog] Snapshot v" + snapshot.getVersion() + " loaded: "
+            + snapshot.getLatestRows().size() + " journals, " + all.size() + " rows");
+        return snapshot;
+    }
+
+    private String readFingerprint() {
+        List<Object[]> rows = repository.findFingerprint();
+        if (rows == null || rows.isEmpty()) {
+            return "0:0";
+        }
+        Object[] row = rows.get(0);
+        return row[0] + ":" + row[1];
+    }
+
+    /**
+     * 不可变快照
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final String fingerprint;
+        private final List<JournalMetrics> latestRows;
+        private final List<String> journalNames;
+        private final Map<String, List<JournalMetrics>> rowsByJournal;
+        private final Map<String, JournalMetrics> latestByJournal;
+        private final Map<String, Integer> ordinals;
+        private final RadarColumns radarColumns;
+        private final KeywordIndex keywordIndex;
+        private final CatalogRanks catalogRanks;
+
+        Snapshot(long version, String fingerprint, List<JournalMetrics> all, CatalogRanks.Tracker rankTracker) {
+            this.version = version;
+            this.fingerprint = fingerprint;
+
+            // 按期刊名排序分组，组内按年份降序
+            Map<String, List<JournalMetrics>> grouped = new TreeMap<>();
+            for (JournalMetrics row : all) {
+                if (row.getJournal() == null || row.getYear() == null) {
+                    continue;
+                }
+                grouped.computeIfAbsent(row.getJournal(), k -> new ArrayList<>()).add(row);
+            }
+
+            Map<String, List<JournalMetrics>> byJournal = new HashMap<>();
+            Map<String, JournalMetrics> latest = new HashMap<>();
+            List<JournalMetrics> latestList = new ArrayList<>();
+            for (Map.Entry<String, List<JournalMetrics>> entry : grouped.entrySet()) {
+                List<JournalMetrics> rows = entry.getValue();
+                rows.sort((a, b) -> Integer.compare(b.getYear(), a.getYear()));
+                byJournal.put(entry.getKey(), Collections.unmodifiableList(rows));
+                latest.put(entry.getKey(), rows.get(0));
+                latestList.add(rows.get(0));
+            }
+
+            this.rowsByJournal = Collections.unmodifiableMap(byJournal);
+            this.latestByJournal = Collections.unmodifiableMap(latest);
+            this.latestRows = Collections.unmodifiableList(latestList);
+            this.journalNames = List.copyOf(grouped.keySet());
+
+            // 期刊序号 = 在 latestRows 中的下标
+            Map<String, Integer> ordinalMap = new HashMap<>();
+            for (int i = 0; i < latestList.size(); i++) {
+                ordinalMap.put(latestList.get(i).getJournal(), i);
+            }
+            this.ordinals = Collections.unmodifiableMap(ordinalMap);
+            this.radarColumns = new RadarColumns(latestList);
+            this.keywordIndex = new KeywordIndex(latestList);
+            this.catalogRanks = rankTracker.rank(journalNames, radarColumns);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        /** 各期刊最新年份数据（按期刊名排序） */
+        public List<JournalMetrics> getLatestRows() {
+            return latestRows;
+        }
+
+        /** 所有期刊名称（已排序） */
+        public List<String> getJournalNames() {
+            return journalNames;
+        }
+
+        /** 指定期刊的所有年份数据（年份降序） */
+        public List<JournalMetrics> getRows(String journal) {
+            return rowsByJournal.getOrDefault(journal, List.of());
+        }
+
+        /** 指定期刊的最新年份数据 */
+        public JournalMetrics getLatest(String journal) {
+            return latestByJournal.get(journal);
+        }
+
+        /** 期刊序号（不存在时返回-1） */
+        public int ordinalOf(String journal) {
+            Integer ordinal = ordinals.get(journal);
+            return ordinal == null ? -1 : ordinal;
+        }
+
+        /** 最新年份数据的雷达维度列存储 */
+        public RadarColumns getRadarColumns() {
+            return radarColumns;
+        }
+
+        /** 最新年份数据的关键词倒排索引 */
+        public KeywordIndex getKeywordIndex() {
+            return keywordIndex;
+        }
+
+        /** 最新年份数据各雷达维度的目录内排名分 */
+        public CatalogRanks getCatalogRanks() {
+            return catalogRanks;
+        }
+    }
+}
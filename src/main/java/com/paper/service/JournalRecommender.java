@@ -0,0 +1,226 @@
+package com.paper.service;
+
+import com.paper.config.RecommendProperties;
+import com.paper.model.JournalMetrics;
+import com.paper.model.UserSurvey;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 期刊推荐排名服务
+ * <p>基于期刊目录快照的列存储与倒排索引对全部期刊打分，
+ * 用有界小顶堆保留前 K 名，只为入选期刊构建模板数据。</p>
+ * <p>期刊数达到 journal.recommend.parallel-threshold 时，在公共 ForkJoinPool 上分片并行扫描。</p>
+ */
+@Service
+public class JournalRecommender {
+
+    private final JournalService service;
+    private final RecommendProperties properties;
+
+    @Autowired
+    public JournalRecommender(JournalService service, RecommendProperties properties) {
+        this.service = service;
+        this.properties = properties;
+    }
+
+    /**
+     * 根据问卷画像生成推荐结果
+     */
+    public Recommendation recommend(SurveyProfile profile, int targetYear) {
+        JournalCatalog.Snapshot catalog = service.fetchCatalog();
+        UserSurvey survey = profile.getSurvey();
+        Set<String> userNorm = profile.getNormalizedKeywords();
+        double[] userVector = profile.getRadarVector();
+
+        List<JournalMetrics> latestRows = catalog.getLatestRows();
+        KeywordIndex.YearView kwIndex = catalog.getKeywordIndex().forYear(targetYear);
+
+        // 每个用户关键词的倒排列表，各分片在自己的序号区间内统计命中数
+        int[][] postings = new int[userNorm.size()][];
+        int p = 0;
+        for (String norm : userNorm) {
+            postings[p++] = kwIndex.ordinals(norm);
+        }
+
+        int size = latestRows.size();
+        int k = properties.getTopK();
+        TopKRanking ranking;
+        if (size >= properties.getParallelThreshold()) {
+            int chunkSize = Math.max(1, properties.getParallelChunkSize());
+            ranking = ForkJoinPool.commonPool().invoke(
+                new ScanTask(catalog, userVector, postings, 0, size, k, chunkSize));
+        } else {
+            ranking = scan(catalog, userVector, postings, 0, size, k);
+        }
+
+        return new Recommendation(catalog.getVersion(),
+            materialize(ranking.sorted(), latestRows, kwIndex, userNorm),
+            buildKwHits(survey.getKeywords(), latestRows, kwIndex));
+    }
+
+    /**
+     * 扫描序号区间 [from, to)，返回该区间的 Top-K
+     * <p>关键词命中数与雷达相似度都在区间内局部计算，不依赖共享的可变状态。</p>
+     */
+    private TopKRanking scan(JournalCatalog.Snapshot catalog, double[] userVector, int[][] postings,
+                             int from, int to, int k) {
+        List<JournalMetrics> latestRows = catalog.getLatestRows();
+        int length = to - from;
+
+        double[] sims = new double[length];
+        catalog.getRadarColumns().similarityRange(userVector, sims, from, to);
+
+        int[] hitCounts = new int[length];
+        for (int[] posting : postings) {
+            for (int i = lowerBound(posting, from); i < posting.length && posting[i] < to; i++) {
+                hitCounts[posting[i] - from]++;
+            }
+        }
+
+        double kwDenominator = Math.max(1, postings.length);
+        TopKRanking ranking = new TopKRanking(k);
+        for (int i = 0; i < length; i++) {
+            int ordinal = from + i;
+            String jname = latestRows.get(ordinal).getJournal();
+            if (jname == null || jname.trim().isEmpty()) {
+                continue;
+            }
+            double sim = sims[i];
+            double kwRatio = hitCounts[i] / kwDenominator;
+            double score = kwRatio * 60.0 + sim * 40.0;
+            ranking.offer(score, hitCounts[i], (int) Math.round(sim * 100), ordinal);
+        }
+        return ranking;
+    }
+
+    private static int lowerBound(int[] sorted, int key) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * 并行扫描任务：区间二分直到不超过分片大小，分片结果逐级合并
+     * <p>TopKRanking 的全序以期刊序号收尾，合并结果与顺序扫描完全一致。</p>
+     */
+    private final class ScanTask extends RecursiveTask<TopKRanking> {
+        private final JournalCatalog.Snapshot catalog;
+        private final double[] userVector;
+        private final int[][] postings;
+        private final int from;
+        private final int to;
+        private final int k;
+        private final int chunkSize;
+
+        ScanTask(JournalCatalog.Snapshot catalog, double[] userVector, int[][] postings,
+                 int from, int to, int k, int chunkSize) {
+            this.catalog = catalog;
+            this.userVector = userVector;
+            this.postings = postings;
+            this.from = from;
+            this.to = to;
+            this.k = k;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected TopKRanking compute() {
+            if (to - from <= chunkSize) {
+                return scan(catalog, userVector, postings, from, to, k);
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(catalog, userVector, postings, from, mid, k, chunkSize);
+            ScanTask right = new ScanTask(catalog, userVector, postings, mid, to, k, chunkSize);
+            left.fork();
+            TopKRanking result = right.compute();
+            result.merge(left.join());
+            return result;
+        }
+    }
+
+    /**
+     * 只为入选期刊构建模板所需的 Map
+     */
+    private List<Map<String, Object>> materialize(TopKRanking.Result winners, List<JournalMetrics> latestRows,
+                                                  KeywordIndex.YearView kwIndex, Set<String> userNorm) {
+        List<Map<String, Object>> recs = new ArrayList<>(winners.size());
+        for (int rank = 0; rank < winners.size(); rank++) {
+            int ordinal = winners.ordinal(rank);
+            JournalMetrics row = latestRows.get(ordinal);
+
+            List<String> matchedDisplay = new ArrayList<>();
+            for (String norm : userNorm) {
+                String display = kwIndex.display(norm, ordinal);
+                if (display != null) {
+                    matchedDisplay.add(display);
+                }
+            }
+
+            Map<String, Object> rec = new HashMap<>();
+            rec.put("journal", row.getJournal());
+            rec.put("year", row.getYear());
+            rec.put("category", row.getCategory());
+            rec.put("matched_keywords", matchedDisplay);
+            rec.put("kw_hit", winners.kwHit(rank));
+            rec.put("match_pct", winners.matchPct(rank));
+            rec.put("score", winners.score(rank));
+            recs.add(rec);
+        }
+        return recs;
+    }
+
+    /**
+     * 记录每个用户关键词命中哪些期刊
+     */
+    private Map<String, List<String>> buildKwHits(List<String> keywords, List<JournalMetrics> latestRows,
+                                                  KeywordIndex.YearView kwIndex) {
+        Map<String, List<String>> kwHits = new HashMap<>();
+        for (String kw : keywords) {
+            List<String> hitJournals = new ArrayList<>();
+            for (int ordinal : kwIndex.ordinals(service.normalizeKeyword(kw))) {
+                hitJournals.add(latestRows.get(ordinal).getJournal());
+            }
+            kwHits.put(kw, hitJournals);
+        }
+        return kwHits;
+    }
+
+    /**
+     * 推荐结果
+     */
+    public static final class Recommendation {
+        private final long catalogVersion;
+        private final List<Map<String, Object>> recs;
+        private final Map<String, List<String>> kwHits;
+
+        Recommendation(long catalogVersion, List<Map<String, Object>> recs, Map<String, List<String>> kwHits) {
+            this.catalogVersion = catalogVersion;
+            this.recs = recs;
+            this.kwHits = kwHits;
+        }
+
+        public long getCatalogVersion() {
+            return catalogVersion;
+        }
+
+        public List<Map<String, Object>> getRecs() {
+            return recs;
+        }
+
+        public Map<String, List<String>> getKwHits() {
+            return kwHits;
+        }
+    }
+}
@@ -1,61 +1,78 @@
 package com.paper.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.paper.model.JournalMetrics;
 import com.paper.model.UserSurvey;
-import com.paper.repository.JournalMetricsRepository;
 import com.paper.utils.AIClient;
+import com.paper.utils.KeywordUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 期刊服务层 - 业务逻辑处理
  */
 @Service
 public class JournalService {
-    private final JournalMetricsRepository repository;
+    private final JournalCatalog catalog;
     private final AIClient aiClient;
+    private final AIResponseCache responseCache;
+    private final AIRequestCoalescer coalescer;
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
     @Autowired
-    public JournalService(JournalMetricsRepository repository, AIClient aiClient) {
-        this.repository = repository;
+    public JournalService(JournalCatalog catalog, AIClient aiClient,
+                          AIResponseCache responseCache, AIRequestCoalescer coalescer) {
+        this.catalog = catalog;
         this.aiClient = aiClient;
+        this.responseCache = responseCache;
+        this.coalescer = coalescer;
     }
     
-    // Repository访问方法
+    // 数据访问方法（读取内存快照）
     public List<JournalMetrics> fetchJournals() {
-        return repository.findAllLatestYears();
+        return catalog.current().getLatestRows();
     }
     
     public List<JournalMetrics> fetchJournalRows(String journal) {
-        return repository.findByJournalOrderByYearDesc(journal);
+        return catalog.current().getRows(journal);
     }
     
     public List<String> fetchJournalNames() {
-        return repository.findAllJournalNames();
+        return catalog.current().getJournalNames();
     }
     
     public List<JournalMetrics> fetchLatestJournalRows() {
-        return repository.findAllLatestYears();
+        return catalog.current().getLatestRows();
     }
     
     public JournalMetrics fetchLatestRowForJournal(String journal) {
-        return repository.findLatestByJournal(journal).orElse(null);
+        return catalog.current().getLatest(journal);
     }
     
     public Map<String, JournalMetrics> fetchLatestRowsForTwoJournals(String journalA, String journalB) {
-        List<JournalMetrics> rows = repository.findLatestByTwoJournals(journalA, journalB);
+        JournalCatalog.Snapshot snapshot = catalog.current();
         Map<String, JournalMetrics> result = new HashMap<>();
-        for (JournalMetrics row : rows) {
-            result.put(row.getJournal(), row);
+        for (String journal : List.of(journalA, journalB)) {
+            JournalMetrics row = snapshot.getLatest(journal);
+            if (row != null) {
+                result.put(journal, row);
+            }
         }
         return result;
     }
     
+    /**
+     * 当前期刊目录快照
+     */
+    public JournalCatalog.Snapshot fetchCatalog() {
+        return catalog.current();
+    }
+    
     /**
      * 构建雷达图数据
      */
@@ -82,6 +99,13 @@ public class JournalService {
         ));
         radar.put("max", 200);
         
+        // 目录内排名分（1~100，与 values 对应），仅对目录中的期刊提供
+        JournalCatalog.Snapshot snapshot = catalog.current();
+        int ordinal = snapshot.ordinalOf(row.getJournal());
+        if (ordinal >= 0) {
+            radar.put("catalog_rank", snapshot.getCatalogRanks().scores(ordinal));
+        }
+        
         Map<String, Object> raw = new HashMap<>();
         raw.put("disruption", disruption);
         raw.put("novelty", novelty);
@@ -189,6 +213,22 @@ public class JournalService {
         return radar;
     }
     
+    /**
+     * 构建用户画像的雷达向量（维度顺序同 RadarColumns）
+     */
+    public double[] buildUserRadarVector(UserSurvey survey) {
+        if (survey == null) {
+            return new double[RadarColumns.DIMENSIONS];
+        }
+        return new double[] {
+            toDouble(survey.getDisruption()) + toDouble(survey.getNovelty()),
+            toDouble(survey.getInterdisciplinary()),
+            toDouble(survey.getThemeConcentration()),
+            toDouble(survey.getTopic()),
+            toDouble(survey.getHotResponse())
+        };
+    }
+    
     /**
      * 计算用户画像与期刊的相似度
      */
@@ -202,7 +242,7 @@ public class JournalService {
             return 0.0;
         }
         
-        double[] ranges = {200.0, 100.0, 100.0, 100.0, 100.0};
+        double[] ranges = RadarColumns.DIM_RANGES;
         double diffSum = 0.0;
         for (int i = 0; i < 5; i++) {
             double diff = Math.abs(uVals.get(i) - jVals.get(i)) / ranges[i];
@@ -245,8 +285,7 @@ public class JournalService {
      * 归一化关键词（小写、去除多余空格）
      */
     public String normalizeKeyword(String keyword) {
-        if (keyword == null) return "";
-        return String.join(" ", keyword.trim().toLowerCase().split("\\s+"));
+        return KeywordUtils.normalize(keyword);
     }
     
     /**
@@ -279,70 +318,26 @@ public class JournalService {
      * 从最新一行中提取各年份的top_keywords
      */
     public Map<Integer, List<String>> pickTopKeywords(JournalMetrics latestRow) {
-        if (latestRow == null) {
-            return new HashMap<>();
-        }
-        
-        Map<Integer, List<String>> result = new HashMap<>();
-        result.put(2021, parseKeywordsValue(latestRow.getTopKeywords2021()));
-        result.put(2022, parseKeywordsValue(latestRow.getTopKeywords2022()));
-        result.put(2023, parseKeywordsValue(latestRow.getTopKeywords2023()));
-        result.put(2024, parseKeywordsValue(latestRow.getTopKeywords2024()));
-        result.put(2025, parseKeywordsValue(latestRow.getTopKeywords2025()));
-        return result;
+        return KeywordUtils.topKeywordsByYear(latestRow);
     }
     
     /**
-     * 解析关键词字段（支持JSON数组、Python字符串表示等）
+     * 匹配用户关键词：返回目标年份下该期刊命中的用户关键词（保持用户输入顺序）
      */
-    private List<String> parseKeywordsValue(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            return new ArrayList<>();
+    public List<String> matchUserKeywords(JournalCatalog.Snapshot snapshot, List<String> userKeywords,
+                                          String journal, int targetYear) {
+        List<String> matched = new ArrayList<>();
+        int ordinal = snapshot.ordinalOf(journal);
+        if (ordinal < 0 || userKeywords == null) {
+            return matched;
         }
-        
-        String s = value.trim();
-        
-        // 尝试JSON解析
-        try {
-            JsonNode node = objectMapper.readTree(s);
-            if (node.isArray()) {
-                List<String> result = new ArrayList<>();
-                for (JsonNode item : node) {
-                    String keyword = item.asText().trim();
-                    if (!keyword.isEmpty()) {
-                        result.add(keyword);
-                    }
-                }
-                return result;
-            } else if (node.isObject()) {
-                // 如果是对象，按值（频次）降序排列
-                List<String> result = new ArrayList<>();
-                node.fields().forEachRemaining(entry -> {
-                    result.add(entry.getKey());
-                });
-                return result;
+        KeywordIndex.YearView view = snapshot.getKeywordIndex().forYear(targetYear);
+        for (String kw : userKeywords) {
+            if (view.contains(normalizeKeyword(kw), ordinal)) {
+                matched.add(kw);
             }
-        } catch (Exception e) {
-            // 不是有效JSON，继续尝试其他方式
         }
-        
-        // 兜底：按分隔符拆分
-        String[] separators = {";", "；", ",", "，", "|", "/"};
-        for (String sep : separators) {
-            if (s.contains(sep)) {
-                String[] parts = s.split(sep);
-                List<String> result = new ArrayList<>();
-                for (String part : parts) {
-                    String trimmed = part.trim();
-                    if (!trimmed.isEmpty()) {
-                        result.add(trimmed);
-                    }
-                }
-                return result;
-            }
-        }
-        
-        return List.of(s);
+        return matched;
     }
     
     /**
@@ -350,6 +345,45 @@ public class JournalService {
      */
     public String generateJournalAIAnalysis(JournalMetrics latestRow) 
             throws Exception {
+        try {
+            return generateJournalAIAnalysisAsync(latestRow).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+    
+    /**
+     * 异步生成期刊AI分析（相同提示词命中响应缓存时直接返回，并发请求合并）
+     */
+    public CompletableFuture<String> generateJournalAIAnalysisAsync(JournalMetrics latestRow) {
+        String systemPrompt = aiClient.loadJournalDetailPrompt();
+        String userPrompt;
+        try {
+            userPrompt = buildJournalAIPrompt(latestRow);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        // 并发的相同请求合并为一次，由首个调用者查缓存或调用接口
+        String key = responseCache.key(systemPrompt, userPrompt);
+        return coalescer.completion(key, () -> responseCache.getOrLoad(key,
+            () -> aiClient.callChatCompletionAsync(AIClient.Route.JOURNAL_DETAIL, systemPrompt, userPrompt)));
+    }
+    
+    /**
+     * AI服务不可用时的兜底分析：按维度列出规则评语
+     */
+    public String buildFallbackAnalysis(Map<String, String> comments) {
+        StringBuilder sb = new StringBuilder("AI 服务暂时不可用，以下为基于指标的规则评语：\n");
+        for (Map.Entry<String, String> entry : new TreeMap<>(comments).entrySet()) {
+            sb.append("\n【").append(entry.getKey()).append("】").append(entry.getValue());
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * 构建期刊AI分析的用户提示词
+     */
+    public String buildJournalAIPrompt(JournalMetrics latestRow) throws JsonProcessingException {
         Map<Integer, List<String>> topKeywords = pickTopKeywords(latestRow);
         Map<String, Object> radar = buildRadarFromRow(latestRow);
         Map<String, String> comments = buildCommentsFromRow(latestRow);
@@ -373,12 +407,9 @@ public class JournalService {
         payload.put("rule_based_comments", comments);
         payload.put("top_keywords_2021_2025", topKeywords);
         
-        String systemPrompt = aiClient.loadJournalDetailPrompt();
-        String userPrompt = "请基于下面 JSON 输入，对该期刊做一次投稿/定位分析。\n" +
+        return "请基于下面 JSON 输入，对该期刊做一次投稿/定位分析。\n" +
             "注意：不得编造不存在的字段或数据。\n\n" +
             objectMapper.writeValueAsString(payload);
-        
-        return aiClient.callChatCompletion(systemPrompt, userPrompt);
     }
     
     // 辅助方法
@@ -0,0 +1,172 @@
+package com.paper.service;
+
+import com.paper.model.JournalMetrics;
+import com.paper.utils.KeywordUtils;
+
+import java.util.*;
+
+/**
+ * 期刊关键词倒排索引 - 归一化关键词 → 期刊序号列表
+ * <p>随期刊目录快照构建一次，每个年份一份。年份兜底规则与
+ * {@link JournalService#pickKeywordsForYear} 一致，在构建时预先应用：</p>
+ * <ul>
+ *   <li>2021-2025：直接使用该年份的关键词（可能为空）</li>
+ *   <li>晚于2025：使用最近一个非空年份的关键词</li>
+ *   <li>早于2021：无关键词</li>
+ * </ul>
+ */
+public final class KeywordIndex {
+
+    private final YearView[] years;
+    private final YearView fallback;
+    private final YearView empty;
+
+    KeywordIndex(List<JournalMetrics> rows) {
+        int size = rows.size();
+        int yearCount = KeywordUtils.LAST_KEYWORD_YEAR - KeywordUtils.FIRST_KEYWORD_YEAR + 1;
+
+        List<List<List<String>>> perYear = new ArrayList<>();
+        for (int y = 0; y < yearCount; y++) {
+            perYear.add(new ArrayList<>(size));
+        }
+        List<List<String>> latestNonEmpty = new ArrayList<>(size);
+        List<List<String>> none = new ArrayList<>(size);
+
+        for (JournalMetrics row : rows) {
+            boolean indexed = row.getJournal() != null && !row.getJournal().trim().isEmpty();
+            Map<Integer, List<String>> kwMap = indexed
+                ? KeywordUtils.topKeywordsByYear(row) : Map.of();
+
+            List<String> latest = List.of();
+            for (int y = 0; y < yearCount; y++) {
+                List<String> kws = kwMap.getOrDefault(KeywordUtils.FIRST_KEYWORD_YEAR + y, List.of());
+                perYear.get(y).add(kws);
+                if (!kws.isEmpty()) {
+                    latest = kws;
+                }
+            }
+            latestNonEmpty.add(latest);
+            none.add(List.of());
+        }
+
+        this.years = new YearView[yearCount];
+        for (int y = 0; y < yearCount; y++) {
+            years[y] = new YearView(perYear.get(y));
+        }
+        this.fallback = new YearView(latestNonEmpty);
+        this.empty = new YearView(none);
+    }
+
+    /**
+     * 获取指定目标年份的索引视图
+     */
+    public YearView forYear(int year) {
+        if (year > KeywordUtils.LAST_KEYWORD_YEAR) {
+            return fallback;
+        }
+        if (year < KeywordUtils.FIRST_KEYWORD_YEAR) {
+            return empty;
+        }
+        return years[year - KeywordUtils.FIRST_KEYWORD_YEAR];
+    }
+
+    /**
+     * 单一年份的倒排视图
+     */
+    public static final class YearView {
+        private static final int[] NO_ORDINALS = new int[0];
+
+        private final List<List<String>> keywordsByOrdinal;
+        private final Map<String, Posting> postings;
+
+        YearView(List<List<String>> keywordsByOrdinal) {
+            this.keywordsByOrdinal = keywordsByOrdinal;
+
+            Map<String, PostingBuilder> builders = new HashMap<>();
+            for (int ordinal = 0; ordinal < keywordsByOrdinal.size(); ordinal++) {
+                // 同一期刊内归一化后重复的关键词，保留最后出现的原文
+                Map<String, String> normToDisplay = new LinkedHashMap<>();
+                for (String kw : keywordsByOrdinal.get(ordinal)) {
+                    String norm = KeywordUtils.normalize(kw);
+                    if (!norm.isEmpty()) {
+                        normToDisplay.put(norm, kw);
+                    }
+                }
+                for (Map.Entry<String, String> entry : normToDisplay.entrySet()) {
+                    builders.computeIfAbsent(entry.getKey(), k -> new PostingBuilder())
+                        .add(ordinal, entry.getValue());
+                }
+            }
+
+            Map<String, Posting> built = new HashMap<>(builders.size() * 2);
+            for (Map.Entry<String, PostingBuilder> entry : builders.entrySet()) {
+                built.put(entry.getKey(), entry.getValue().build());
+            }
+            this.postings = built;
+        }
+
+        /**
+         * 包含该归一化关键词的期刊序号（升序），调用方不得修改
+         */
+        public int[] ordinals(String norm) {
+            Posting posting = postings.get(norm);
+            return posting == null ? NO_ORDINALS : posting.ordinals;
+        }
+
+        /**
+         * 期刊中与该归一化关键词对应的原始关键词，不存在时返回 null
+         */
+        public String display(String norm, int ordinal) {
+            Posting posting = postings.get(norm);
+            if (posting == null) {
+                return null;
+            }
+            int pos = Arrays.binarySearch(posting.ordinals, ordinal);
+            return pos < 0 ? null : posting.display[pos];
+        }
+
+        /**
+         * 期刊是否包含该归一化关键词
+         */
+        public boolean contains(String norm, int ordinal) {
+            return display(norm, ordinal) != null;
+        }
+
+        /**
+         * 期刊在该年份（已应用兜底）的关键词列表
+         */
+        public List<String> keywords(int ordinal) {
+            return keywordsByOrdinal.get(ordinal);
+        }
+    }
+
+    private static final class Posting {
+        final int[] ordinals;
+        final String[] display;
+
+        Posting(int[] ordinals, String[] display) {
+            this.ordinals = ordinals;
+            this.display = display;
+        }
+    }
+
+    private static final class PostingBuilder {
+        private int[] ordinals = new int[4];
+        private String[] display = new String[4];
+        private int size = 0;
+
+        void add(int ordinal, String text) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                display = Arrays.copyOf(display, size * 2);
+            }
+            ordinals[size] = ordinal;
+            display[size] = text;
+            size++;
+        }
+
+        Posting build() {
+            return new Posting(Arrays.copyOf(ordinals, size), Arrays.copyOf(display, size));
+        }
+    }
+}
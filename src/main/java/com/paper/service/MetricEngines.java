@@ -0,0 +1,267 @@
+package com.paper.service;
+
+import com.paper.config.MetricEngineProperties;
+import com.paper.utils.PaperCsvReader;
+import com.paper.utils.PythonUtils;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Java 指标引擎
+ * <p>在 JVM 内计算配置为 Java 实现的指标（analysis.engine.java-metrics），与 Python 工作进程并行执行；
+ * Python 通过请求中的 skip 列表跳过这些阶段。输出文件与结果字段与 main.py perform_analysis 一致
+ * （与 main.py 相同，不写 journal_metrics，该表由批处理 main_03.py 维护）。
+ * 上传数据读入后构建一个 {@link PaperCorpus}，各指标共用其中的期刊编号与关键词、类别、引用解析结果。</p>
+ * <p>语料整体驻留堆内，数据超过 analysis.engine.max-input-mb 时本次分析不使用 Java 引擎（见 {@link #metricsFor}）。</p>
+ */
+@Component
+public class MetricEngines {
+
+    /** 已有 Java 实现的指标 → 输出子目录、文件名（与 main.py 一致） */
+    private static final Map<String, String[]> OUTPUTS = Map.of(
+        "disruption", new String[] {"disrupt", "disruption.csv"},
+        "novelty", new String[] {"novelty", "novelty.csv"},
+        "interdisciplinary", new String[] {"interdisciplinary", "interdisciplinary.csv"},
+        "topic", new String[] {"topic", "topic.csv"},
+        "theme", new String[] {"theme", "theme.csv"});
+
+    /** 结果 CSV 列（与 Python DataFrame 列顺序一致） */
+    private static final Map<String, String[]> COLUMNS = Map.of(
+        "disruption", new String[] {"journal", "n_papers", "enhanced_score", "percent_score_raw", "percent_score"},
+        "novelty", new String[] {"journal", "novelty_score", "paper_count", "percent_score_raw", "percent_score"},
+        "interdisciplinary", new String[] {"journal", "td_mean", "paper_count", "percent_score"},
+        "topic", new String[] {"journal", "entropy_mean", "avg_field_count", "paper_count",
+            "percent_score_raw", "percent_score"},
+        "theme", new String[] {"journal", "theme_concentration_raw", "hot_response_raw", "top_keywords_2021",
+            "top_keywords_2022", "top_keywords_2023", "top_keywords_2024", "top_keywords_2025",
+            "theme_concentration", "hot_response"});
+
+    /** 各指标读取的原始列，算完一个指标后释放之后的指标都不再读取的列 */
+    private static final Map<String, Set<String>> RAW_COLUMNS = Map.of(
+        "disruption", DisruptionEngine.RAW_COLUMNS,
+        "novelty", NoveltyEngine.RAW_COLUMNS,
+        "interdisciplinary", InterdisciplinaryEngine.RAW_COLUMNS,
+        "topic", TopicEntropyEngine.RAW_COLUMNS,
+        "theme", ThemeHotnessEngine.RAW_COLUMNS);
+
+    /** 主题热度只输出前 10 个期刊（与 main.py 的 ThemeHotnessAnalyzer.run(top_n=10) 一致） */
+    private static final int THEME_TOP_N = 10;
+
+    private final Set<String> javaMetrics;
+    private final long maxInputBytes;
+    private final ForkJoinPool pool;
+    private final StageTimings stageTimings = new StageTimings();
+
+    @Autowired
+    public MetricEngines(MetricEngineProperties properties) {
+        Set<String> metrics = new LinkedHashSet<>();
+        for (String metric : properties.getJavaMetrics()) {
+            String name = metric == null ? "" : metric.trim().toLowerCase(Locale.ROOT);
+            if (OUTPUTS.containsKey(name)) {
+                metrics.add(name);
+            } else if (!name.isEmpty()) {
+                System.err.println("[MetricEngines] No Java engine for metric: " + name + ", using Python");
+            }
+        }
+        this.javaMetrics = Collections.unmodifiableSet(metrics);
+        this.maxInputBytes = properties.getMaxInputMb() * 1024 * 1024;
+        int parallelism = properties.getParallelism() > 0
+            ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism);
+        System.out.println("[MetricEngines] Java metrics " + javaMetrics + ", parallelism " + parallelism);
+    }
+
+    /** 由 Java 计算的指标（即 Python 需要跳过的阶段） */
+    public Set<String> getJavaMetrics() {
+        return javaMetrics;
+    }
+
+    /**
+     * 本次分析由 Java 计算的指标（即 Python 需要跳过的阶段）
+     * <p>数据目录中 CSV 总大小超过 analysis.engine.max-input-mb，或无法读取目录时为空，全部由 Python 计算</p>
+     */
+    public Set<String> metricsFor(Path userDir) {
+        if (javaMetrics.isEmpty() || maxInputBytes <= 0) {
+            return javaMetrics;
+        }
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(userDir, "*.csv")) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    total += Files.size(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[MetricEngines] Cannot size " + userDir + ", using Python: " + e.getMessage());
+            return Collections.emptySet();
+        }
+        if (total > maxInputBytes) {
+            System.out.println("[MetricEngines] Input " + total / (1024 * 1024) + "MB exceeds limit, using Python");
+            return Collections.emptySet();
+        }
+        return javaMetrics;
+    }
+
+    /**
+     * 计算用户目录下 CSV 数据的 Java 指标
+     * <p>单个指标失败只记录日志，结果中不含该指标（与 Python 各阶段的处理一致）</p>
+     *
+     * @param userDir 数据目录
+     * @param outputDir 输出目录（user_dir/outputs）
+     * @param metrics 要计算的指标，取自 {@link #metricsFor}
+     * @param listener 阶段进度回调（percent 为 0，由调用方合并 Python 进度），可为 null
+     * @return 要合并到分析结果的字段：指标 Top 10、结果文件路径及 java_engine 耗时
+     */
+    public Map<String, Object> compute(Path userDir, Path outputDir, Set<String> metrics,
+                                       Consumer<AnalysisProgress> listener)
+            throws IOException, InterruptedException {
+        Map<String, Object> result = new HashMap<>();
+        if (metrics.isEmpty()) {
+            return result;
+        }
+        long started = System.nanoTime();
+        Map<String, Object> timings = new LinkedHashMap<>();
+
+        // 语料只构建一次，各指标共用解析结果
+        PaperCorpus corpus = PaperCorpus.of(PaperCsvReader.readDirectory(userDir), pool);
+        long loadMs = elapsedMs(started);
+        stageTimings.record("load", loadMs);
+        timings.put("load_ms", loadMs);
+        if (corpus.size() == 0) {
+            return result;
+        }
+
+        List<String> order = new ArrayList<>(metrics);
+        for (int k = 0; k < order.size(); k++) {
+            String metric = order.get(k);
+            long stageStarted = System.nanoTime();
+            report(listener, AnalysisProgress.of(metric, false, elapsedMs(started), null));
+            try {
+                List<Map<String, Object>> rows = analyze(metric, corpus);
+                result.put(metric, new ArrayList<>(rows.subList(0, Math.min(10, rows.size()))));
+                String[] output = OUTPUTS.get(metric);
+                Path file = outputDir.resolve(output[0]).resolve(output[1]);
+                writeCsv(file, COLUMNS.get(metric), rows);
+                result.put(metric + "_file", file.toString());
+            } catch (IOException | RuntimeException e) {
+                System.err.println("[MetricEngines] " + metric + " failed: " + e.getMessage());
+            }
+            // 释放本指标的派生列与之后的指标不再读取的原始列
+            corpus.release(metric, rawColumns(order.subList(k + 1, order.size())));
+            long stageMs = elapsedMs(stageStarted);
+            stageTimings.record(metric, stageMs);
+            timings.put(metric + "_ms", stageMs);
+            report(listener, AnalysisProgress.of(metric, true, elapsedMs(started), stageMs));
+        }
+        result.put("java_engine", timings);
+        return result;
+    }
+
+    /** 各阶段耗时统计 */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("metrics", new ArrayList<>(javaMetrics));
+        stats.put("parallelism", pool.getParallelism());
+        stats.put("stages", stageTimings.toMap());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private List<Map<String, Object>> analyze(String metric, PaperCorpus corpus) throws InterruptedException {
+        switch (metric) {
+            case "disruption":
+                return new DisruptionEngine(pool).analyze(corpus);
+            case "novelty":
+                return new NoveltyEngine(pool).analyze(corpus);
+            case "interdisciplinary":
+                return new InterdisciplinaryEngine(pool).analyze(corpus);
+            case "topic":
+                return new TopicEntropyEngine(pool).analyze(corpus);
+            case "theme":
+                return new ThemeHotnessEngine(pool).analyze(corpus, THEME_TOP_N);
+            default:
+                throw new IllegalArgumentException("Unknown metric: " + metric);
+        }
+    }
+
+    private static Set<String> rawColumns(List<String> metrics) {
+        Set<String> columns = new HashSet<>();
+        for (String metric : metrics) {
+            columns.addAll(RAW_COLUMNS.getOrDefault(metric, Set.of()));
+        }
+        return columns;
+    }
+
+    // 辅助方法：写出与 pandas to_csv(index=False) 相同格式的结果文件
+    private static void writeCsv(Path file, String[] columns, List<Map<String, Object>> rows) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(String.join(",", columns));
+            writer.write("\n");
+            for (Map<String, Object> row : rows) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) writer.write(",");
+                    writer.write(formatCell(row.get(columns[i])));
+                }
+                writer.write("\n");
+            }
+        }
+    }
+
+    private static String formatCell(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Double) {
+            double d = (Double) value;
+            return Double.isNaN(d) ? "" : PythonUtils.pythonFloatRepr(d);
+        }
+        String text;
+        if (value instanceof List<?>) {
+            // 列表单元格与 pandas 一致写为 Python 字面量，如 ['a', 'b']
+            List<String> items = new ArrayList<>();
+            for (Object item : (List<?>) value) items.add(String.valueOf(item));
+            text = PythonUtils.repr(items);
+        } else {
+            text = value.toString();
+        }
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    private static void report(Consumer<AnalysisProgress> listener, AnalysisProgress progress) {
+        if (listener != null) {
+            listener.accept(progress);
+        }
+    }
+
+    private static long elapsedMs(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000_000;
+    }
+}
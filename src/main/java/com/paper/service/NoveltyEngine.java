@@ -0,0 +1,257 @@
+package com.paper.service;
+
+import com.paper.model.PaperTable;
+import com.paper.utils.LongShortMap;
+import com.paper.utils.PythonUtils;
+import com.paper.utils.UniformRanker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 期刊新颖性计算引擎（Uzzi et al. 2013）
+ * <p>与 novelty_analyzer_033.py 的 analyze_journal_novelty 结果一致：每篇论文取清洗后的前 15 个关键词，
+ * 关键词对的新颖性为 1 / (1 + 当前年份 - 首次出现年份)（从未出现为 1），论文得分为各对均值，期刊得分为论文均值。</p>
+ *
+ * <p>关键词驻留为 int 编号，关键词对打包为 long（高 32 位为较小编号），首次出现年份存放在
+ * {@link LongShortMap} 中，每个条目约 10 字节（Python 中 tuple 键的 dict 条目约 100 字节）；
+ * 关键词清洗与论文打分在引擎线程池中并行执行，清洗后的关键词编号与年份来自共用的 {@link PaperCorpus}。</p>
+ */
+public class NoveltyEngine {
+
+    /** 每篇论文最多使用的关键词数，避免组合爆炸 */
+    private static final int MAX_KEYWORDS = 15;
+    /** 数据中没有有效年份时的当前年份 */
+    private static final int DEFAULT_CURRENT_YEAR = 2025;
+    private static final short NO_YEAR = 0;
+    private static final Set<String> STOP_WORDS = Set.of(
+        "review", "study", "analysis", "method", "model", "approach", "system", "research");
+
+    private static final String JOURNAL_COL = "journal";
+    private static final String KEYWORDS_COL = "keywords";
+    private static final String YEAR_COL = "publish_date";
+    /** 读取的原始列（之后的指标都不需要时由 MetricEngines 释放） */
+    static final Set<String> RAW_COLUMNS = Set.of(KEYWORDS_COL, YEAR_COL);
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool 并行计算使用的线程池
+     */
+    public NoveltyEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 计算期刊新颖性得分
+     *
+     * @param corpus 论文语料（使用 journal、keywords、publish_date 列）
+     * @return 期刊得分行（journal, novelty_score, paper_count, percent_score_raw, percent_score），按期刊首次出现顺序
+     */
+    public List<Map<String, Object>> analyze(PaperCorpus corpus) throws InterruptedException {
+        if (!corpus.hasJournals()) {
+            throw new IllegalArgumentException("Missing column: " + JOURNAL_COL);
+        }
+        int rows = corpus.size();
+        if (!corpus.hasColumn(KEYWORDS_COL)) {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (int j = 0; j < corpus.journalCount(); j++) {
+                result.add(row(corpus.journalName(j), 0.0, 0, 0.0, 0.0));
+            }
+            return result;
+        }
+        if (!corpus.hasColumn(YEAR_COL)) {
+            throw new IllegalArgumentException("Missing column: " + YEAR_COL);
+        }
+
+        // 清洗后的关键词编号与年份（语料中并行构建）
+        PaperTable table = corpus.table();
+        PaperCorpus.TokenColumn keywords = corpus.keywords("novelty",
+                row -> cleanKeywords(table.get(KEYWORDS_COL, row), corpus.keywordLiteral(row)));
+        short[] years = corpus.column("novelty.years", c -> {
+            short[] parsed = new short[rows];
+            c.run(() -> IntStream.range(0, rows).parallel().forEach(i -> parsed[i] = parseYear(table.get(YEAR_COL, i))));
+            return parsed;
+        });
+        int[][] keywordIds = new int[rows][];
+        long pairCount = 0;
+        for (int i = 0; i < rows; i++) {
+            int[] kws = keywords.ids(i);
+            keywordIds[i] = kws;
+            if (years[i] != NO_YEAR) pairCount += (long) kws.length * (kws.length - 1) / 2;
+        }
+
+        // 关键词对首次出现年份（pairCount 含重复对，只作为初始容量上限，按需扩容）
+        LongShortMap firstYear = new LongShortMap((int) Math.min(pairCount, 1 << 16));
+        int currentYear = 0;
+        for (int i = 0; i < rows; i++) {
+            short year = years[i];
+            if (year == NO_YEAR) continue;
+            currentYear = Math.max(currentYear, year);
+            int[] kws = keywordIds[i];
+            if (kws.length < 2) continue;
+            for (int a = 0; a < kws.length; a++) {
+                for (int b = a + 1; b < kws.length; b++) {
+                    firstYear.putMin(pairKey(kws[a], kws[b]), year);
+                }
+            }
+        }
+        if (currentYear == 0) currentYear = DEFAULT_CURRENT_YEAR;
+        System.out.println("[NoveltyEngine] Keywords: " + keywords.dictionarySize() + ", pairs: " + firstYear.size()
+            + " (" + firstYear.memoryBytes() / 1024 + " KB)");
+
+        // 并行计算论文级新颖性
+        double[] scores = new double[rows];
+        int now = currentYear;
+        run(() -> IntStream.range(0, rows).parallel().forEach(i -> {
+            scores[i] = paperNovelty(keywordIds[i], firstYear, now);
+        }));
+
+        return aggregate(corpus, scores);
+    }
+
+    private static double paperNovelty(int[] kws, LongShortMap firstYear, int currentYear) {
+        if (kws.length < 2) return 0.0;
+        double sum = 0;
+        int count = 0;
+        for (int a = 0; a < kws.length; a++) {
+            for (int b = a + 1; b < kws.length; b++) {
+                short year = firstYear.get(pairKey(kws[a], kws[b]), NO_YEAR);
+                sum += year == NO_YEAR ? 1.0 : 1.0 / (1.0 + (currentYear - year));
+                count++;
+            }
+        }
+        return sum / count;
+    }
+
+    // ===================== 期刊级聚合 =====================
+
+    private List<Map<String, Object>> aggregate(PaperCorpus corpus, double[] scores) {
+        // groupby().mean() 按行顺序做 Kahan 补偿求和
+        int n = corpus.journalCount();
+        double[] sums = new double[n];
+        double[] compensations = new double[n];
+        int[] paperCounts = new int[n];
+        for (int i = 0; i < scores.length; i++) {
+            int j = corpus.journalOf(i);
+            if (j < 0) continue;
+            double y = scores[i] - compensations[j];
+            double t = sums[j] + y;
+            compensations[j] = t - sums[j] - y;
+            sums[j] = t;
+            paperCounts[j]++;
+        }
+
+        String[] journals = new String[n];
+        double[] novelty = new double[n];
+        double[] raw = new double[n];
+        for (int j = 0; j < n; j++) {
+            journals[j] = corpus.journalName(j);
+            novelty[j] = paperCounts[j] == 0 ? 0.0 : sums[j] / paperCounts[j];
+            raw[j] = PythonUtils.round2(novelty[j] * 100);
+        }
+
+        // 仅对有论文的期刊做 1~100 均匀化，其余为 0
+        double[] ranked = new double[n];
+        int[] tieKeys = new int[n];
+        for (int j = 0; j < n; j++) {
+            ranked[j] = paperCounts[j] > 0 ? raw[j] : Double.NaN;
+            tieKeys[j] = corpus.journalSortKey(j);
+        }
+        double[] percent = UniformRanker.rank(ranked, tieKeys, 2, 0.0);
+
+        List<Map<String, Object>> result = new ArrayList<>(n);
+        for (int j = 0; j < n; j++) {
+            result.add(row(journals[j], novelty[j], paperCounts[j], raw[j], percent[j]));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> row(String journal, double novelty, int paperCount, double raw, double percent) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("journal", journal);
+        row.put("novelty_score", novelty);
+        row.put("paper_count", paperCount);
+        row.put("percent_score_raw", raw);
+        row.put("percent_score", percent);
+        return row;
+    }
+
+    // ===================== 关键词与年份 =====================
+
+    /**
+     * 关键词清洗：列表字面量或 ;/, 分隔文本 → 去空白、转小写、去停用词与单字符，去重排序后取前 15 个
+     *
+     * @param parsed value 的列表字面量解析结果（见 {@link PaperCorpus#keywordLiteral(int)}）
+     */
+    static String[] cleanKeywords(String value, List<Object> parsed) {
+        if (value == null) {
+            return new String[0];
+        }
+        List<String> items;
+        if (value.startsWith("[")) {
+            if (parsed == null) {
+                return new String[0];
+            }
+            items = new ArrayList<>(parsed.size());
+            for (Object item : parsed) {
+                items.add(PythonUtils.str(item));
+            }
+        } else {
+            items = Arrays.asList(value.replace(';', ',').split(",", -1));
+        }
+        TreeSet<String> cleaned = new TreeSet<>(PythonUtils::compare);
+        for (String item : items) {
+            String stripped = PythonUtils.strip(item);
+            String keyword = stripped.toLowerCase(Locale.ROOT);
+            if (!STOP_WORDS.contains(keyword) && PythonUtils.length(stripped) > 1) {
+                cleaned.add(keyword);
+            }
+        }
+        String[] result = new String[Math.min(MAX_KEYWORDS, cleaned.size())];
+        int k = 0;
+        for (String keyword : cleaned) {
+            if (k == result.length) break;
+            result[k++] = keyword;
+        }
+        return result;
+    }
+
+    /**
+     * 年份解析：int(float(value))，超出 1900~2100 视为无效
+     *
+     * @return 无效时返回 0
+     */
+    static short parseYear(String value) {
+        Double number = PythonUtils.parseFloat(value);
+        if (number == null || number.isNaN() || number.isInfinite()) {
+            return NO_YEAR;
+        }
+        double year = number < 0 ? Math.ceil(number) : Math.floor(number);
+        return year >= 1900 && year <= 2100 ? (short) year : NO_YEAR;
+    }
+
+    private static long pairKey(int a, int b) {
+        return a < b ? ((long) a << 32) | b : ((long) b << 32) | a;
+    }
+
+    // 辅助方法：在引擎线程池中执行并行流
+    private void run(Runnable task) throws InterruptedException {
+        try {
+            pool.submit(task).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
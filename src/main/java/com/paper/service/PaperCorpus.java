@@ -0,0 +1,347 @@
+package com.paper.service;
+
+import com.paper.model.PaperTable;
+import com.paper.utils.PythonUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 论文语料（按列存储，每次上传构建一次，供所有 Java 指标引擎共用）
+ * <p>main.py 把同一个 DataFrame 交给五个分析器，各自重新解析 keywords、citing 等文本列；
+ * 此处在语料中只解析一次：期刊转为序号，keywords 的列表字面量解析结果缓存后供各清洗规则复用，
+ * 清洗后的关键词、类别、引用 token 均驻留为 int 编号（每行一个 int[]），年份等派生列按名称缓存。</p>
+ *
+ * <p>派生列在第一次请求时由调用线程在引擎线程池中并行构建，之后只读。构建方法为同步方法，
+ * 解析函数中只能调用读取方法（期刊、{@link #keywordLiteral(int)}），不能再请求构建其它列。</p>
+ *
+ * <p>各指标算完后由调用方 {@link #release} 该指标的派生列与之后不再读取的原始列，
+ * 不在整个分析期间同时保留全部原始文本与全部派生列。</p>
+ */
+public final class PaperCorpus {
+
+    private static final String JOURNAL_COL = "journal";
+    private static final String KEYWORDS_COL = "keywords";
+
+    private final PaperTable table;
+    private final ForkJoinPool pool;
+    private final int rows;
+    private final boolean hasJournals;
+    private final int[] journalOfRow;
+    private final String[] journalNames;
+    private final int[] journalSortKeys;
+    /** 所有关键词清洗规则共用的关键词编号 */
+    private final Dictionary keywords = new Dictionary();
+    private final Map<String, Object> columns = new HashMap<>();
+    private volatile List<Object>[] keywordLiterals;
+
+    private PaperCorpus(PaperTable table, ForkJoinPool pool) {
+        this.table = table;
+        this.pool = pool;
+        this.rows = table.size();
+        this.hasJournals = table.hasColumn(JOURNAL_COL);
+        this.journalOfRow = new int[rows];
+        Map<String, Integer> ordinals = new LinkedHashMap<>();
+        for (int i = 0; i < rows; i++) {
+            String journal = table.get(JOURNAL_COL, i);
+            if (journal == null) {
+                journalOfRow[i] = -1;
+                continue;
+            }
+            Integer ordinal = ordinals.get(journal);
+            if (ordinal == null) {
+                ordinal = ordinals.size();
+                ordinals.put(journal, ordinal);
+            }
+            journalOfRow[i] = ordinal;
+        }
+        this.journalNames = ordinals.keySet().toArray(new String[0]);
+        String[] sorted = journalNames.clone();
+        Arrays.sort(sorted, PythonUtils::compare);
+        this.journalSortKeys = new int[sorted.length];
+        for (int k = 0; k < sorted.length; k++) {
+            journalSortKeys[ordinals.get(sorted[k])] = k;
+        }
+    }
+
+    /**
+     * 构建语料（只做期刊编号，其余列按需构建）
+     *
+     * @param pool 构建派生列使用的线程池
+     */
+    public static PaperCorpus of(PaperTable table, ForkJoinPool pool) {
+        return new PaperCorpus(table, pool);
+    }
+
+    /** 原始数据表（只读，已 {@link #release} 的列不再存在） */
+    public PaperTable table() {
+        return table;
+    }
+
+    /** 行数 */
+    public int size() {
+        return rows;
+    }
+
+    /** 是否有该列（journal 列始终按构建时判断，其文本已转为期刊序号） */
+    public boolean hasColumn(String column) {
+        return JOURNAL_COL.equals(column) ? hasJournals : table.hasColumn(column);
+    }
+
+    // ===================== 期刊 =====================
+
+    /** 是否有 journal 列 */
+    public boolean hasJournals() {
+        return hasJournals;
+    }
+
+    /**
+     * 行的期刊序号（按期刊首次出现顺序编号）
+     *
+     * @return 缺失期刊为 -1
+     */
+    public int journalOf(int row) {
+        return journalOfRow[row];
+    }
+
+    public String journalName(int ordinal) {
+        return journalNames[ordinal];
+    }
+
+    /**
+     * 期刊名按 Python 字符串顺序排序后的位置，用作排名同分时的次序键（与按期刊名比较等价）
+     */
+    public int journalSortKey(int ordinal) {
+        return journalSortKeys[ordinal];
+    }
+
+    /** 不同期刊数 */
+    public int journalCount() {
+        return journalNames.length;
+    }
+
+    // ===================== 关键词 =====================
+
+    /**
+     * keywords 列的列表字面量解析结果（去空白后以 [ 开头且能整体解析时非 null），各清洗规则共用，只解析一次
+     * <p>只能在 {@link #keywords} 的解析函数中调用，keywords 原始列释放后随之释放；
+     * 元素类型见 {@link PythonUtils#literalValues}</p>
+     */
+    public List<Object> keywordLiteral(int row) {
+        List<Object>[] literals = keywordLiterals;
+        if (literals == null) {
+            throw new IllegalStateException("keywordLiteral() is only available while parsing keywords"
+                + " before the keywords column is released");
+        }
+        return literals[row];
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void parseKeywordLiterals() throws InterruptedException {
+        if (keywordLiterals != null) {
+            return;
+        }
+        List<Object>[] literals = new List[rows];
+        if (table.hasColumn(KEYWORDS_COL)) {
+            run(() -> IntStream.range(0, rows).parallel().forEach(i -> {
+                String value = table.get(KEYWORDS_COL, i);
+                if (value != null && PythonUtils.strip(value).startsWith("[")) {
+                    literals[i] = PythonUtils.literalValues(value, "[");
+                }
+            }));
+        }
+        keywordLiterals = literals;
+    }
+
+    /**
+     * 按指定清洗规则得到的每行关键词编号（同名规则只计算一次）
+     * <p>编号在所有规则之间共享，{@link TokenColumn#name(int)} 取回文本</p>
+     *
+     * @param rule 规则名（如 "novelty"）
+     * @param parser 行 → 清洗后的关键词，在引擎线程池中并行调用，可使用 {@link #keywordLiteral(int)}
+     */
+    public synchronized TokenColumn keywords(String rule, RowParser parser) throws InterruptedException {
+        parseKeywordLiterals();
+        return tokens("keywords." + rule, parser, keywords);
+    }
+
+    // ===================== 派生列 =====================
+
+    /**
+     * 文本列拆分出的 token 编号（同名列只计算一次，每列单独编号，按首次出现顺序从 0 开始）
+     *
+     * @param name 列名（如 "interdisciplinary.categories"）
+     * @param parser 行 → token，在引擎线程池中并行调用
+     */
+    public synchronized TokenColumn tokens(String name, RowParser parser) throws InterruptedException {
+        return tokens(name, parser, new Dictionary());
+    }
+
+    /**
+     * 任意派生列（同名列只构建一次）
+     *
+     * @param name 列名（如 "novelty.years"）
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T column(String name, ColumnBuilder<T> builder) throws InterruptedException {
+        Object column = columns.get(name);
+        if (column == null) {
+            column = builder.build(this);
+            columns.put(name, column);
+        }
+        return (T) column;
+    }
+
+    /**
+     * 释放一个指标用完的数据：名为 prefix.* 的派生列与关键词规则 prefix，以及不在 keepRaw 中的原始列
+     * <p>keywords 原始列释放后，共用的列表字面量解析结果一并释放</p>
+     *
+     * @param prefix 派生列名前缀（指标名，如 "novelty"）
+     * @param keepRaw 之后仍要读取的原始列
+     */
+    public synchronized void release(String prefix, Set<String> keepRaw) {
+        columns.keySet().removeIf(name -> name.startsWith(prefix + ".") || name.equals("keywords." + prefix));
+        for (String column : table.getColumns()) {
+            if (!keepRaw.contains(column)) {
+                table.removeColumn(column);
+            }
+        }
+        if (!keepRaw.contains(KEYWORDS_COL)) {
+            keywordLiterals = null;
+        }
+    }
+
+    private TokenColumn tokens(String name, RowParser parser, Dictionary dictionary) throws InterruptedException {
+        Object cached = columns.get(name);
+        if (cached != null) {
+            return (TokenColumn) cached;
+        }
+        String[][] parsed = new String[rows][];
+        run(() -> IntStream.range(0, rows).parallel().forEach(i -> parsed[i] = parser.parse(i)));
+        // 按行顺序编号，保证编号与首次出现顺序一致
+        int[][] ids = new int[rows][];
+        String[] names;
+        synchronized (dictionary) {
+            for (int i = 0; i < rows; i++) {
+                String[] tokens = parsed[i];
+                int[] row = new int[tokens == null ? 0 : tokens.length];
+                for (int k = 0; k < row.length; k++) {
+                    row[k] = dictionary.intern(tokens[k]);
+                }
+                ids[i] = row;
+                parsed[i] = null;
+            }
+            names = dictionary.names();
+        }
+        TokenColumn column = new TokenColumn(ids, names);
+        columns.put(name, column);
+        return column;
+    }
+
+    /**
+     * 在引擎线程池中执行并行流
+     */
+    public void run(Runnable task) throws InterruptedException {
+        try {
+            pool.submit(task).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /** 行解析函数 */
+    @FunctionalInterface
+    public interface RowParser {
+        /**
+         * @return 该行的 token，可为 null（视为空）
+         */
+        String[] parse(int row);
+    }
+
+    /** 派生列构建函数 */
+    @FunctionalInterface
+    public interface ColumnBuilder<T> {
+        T build(PaperCorpus corpus) throws InterruptedException;
+    }
+
+    /**
+     * 每行的 token 编号
+     * <p>构建完成时保存编号 → 文本的快照，之后只读，引擎线程池中并行读取不加锁
+     * （关键词编号表之后仍会随其它清洗规则增长，不影响已构建的列）。</p>
+     */
+    public static final class TokenColumn {
+        private final int[][] ids;
+        private final String[] names;
+        /** 文本 → 编号，第一次调用 {@link #id} 时由 names 构建 */
+        private volatile Map<String, Integer> index;
+
+        TokenColumn(int[][] ids, String[] names) {
+            this.ids = ids;
+            this.names = names;
+        }
+
+        /** 第 row 行的 token 编号（与解析结果顺序一致，不去重），调用方不得修改 */
+        public int[] ids(int row) {
+            return ids[row];
+        }
+
+        /** token 编号 → 文本 */
+        public String name(int id) {
+            return names[id];
+        }
+
+        /**
+         * token 文本 → 编号
+         *
+         * @return 不存在为 -1
+         */
+        public int id(String token) {
+            Map<String, Integer> map = index;
+            if (map == null) {
+                map = new HashMap<>(names.length * 2);
+                for (int k = 0; k < names.length; k++) {
+                    map.put(names[k], k);
+                }
+                index = map;
+            }
+            Integer id = map.get(token);
+            return id == null ? -1 : id;
+        }
+
+        /** 编号上界（不同 token 数；关键词列为构建时所有规则合计） */
+        public int dictionarySize() {
+            return names.length;
+        }
+    }
+
+    /** 字符串驻留表 */
+    private static final class Dictionary {
+        private final Map<String, Integer> index = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        int intern(String token) {
+            Integer id = index.get(token);
+            if (id == null) {
+                id = names.size();
+                index.put(token, id);
+                names.add(token);
+            }
+            return id;
+        }
+
+        /** 当前编号 → 文本的副本 */
+        String[] names() {
+            return names.toArray(new String[0]);
+        }
+    }
+}
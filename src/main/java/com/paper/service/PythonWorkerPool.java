@@ -0,0 +1,477 @@
+package com.paper.service;
+
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.paper.config.PythonWorkerProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Python分析工作进程池
+ * <p>常驻若干个 {@code python main.py --worker} 进程，解释器启动与 pandas/指标模块加载只在进程启动时发生一次，
+ * 之后通过 stdin/stdout 逐行收发 JSON 处理分析任务。</p>
+ *
+ * <ul>
+ *   <li>进程按需启动，处理满 python.worker.max-jobs-per-worker 个任务后回收重建</li>
+ *   <li>等待中的任务超过 python.worker.queue-capacity 时直接拒绝</li>
+ *   <li>任务或启动超时时强制结束进程，下一个任务使用新进程</li>
+ *   <li>定时 ping 空闲进程，无响应或已退出的进程被丢弃</li>
+ *   <li>分析过程中的进度消息转发给调用方，并按阶段累计耗时</li>
+ * </ul>
+ */
+@Component
+public class PythonWorkerPool {
+
+    /** main.py 用 json.dumps 输出（allow_nan 默认开启），指标结果中可能出现 NaN / Infinity */
+    private static final ObjectMapper objectMapper = JsonMapper.builder()
+        .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+        .build();
+    /** 协议错误时日志中保留的输出长度 */
+    private static final int MALFORMED_PREVIEW_CHARS = 200;
+    /** 回收的进程收到 exit 后等待其自行退出的时间 */
+    private static final int RETIRE_GRACE_SECONDS = 5;
+
+    private final PythonWorkerProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService watchdog;
+    /** 空闲槽位，每个槽位至多持有一个进程；槽位数即并发数 */
+    private final BlockingQueue<Slot> idleSlots;
+    /** 所有存活进程，关闭时统一结束（包括正在执行任务的） */
+    private final Set<Worker> liveWorkers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong jobIds = new AtomicLong();
+    private final AtomicInteger workerIds = new AtomicInteger();
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    /** 各分析阶段的累计耗时，用于容量评估 */
+    private final StageTimings stageTimings = new StageTimings();
+
+    @Autowired
+    public PythonWorkerPool(PythonWorkerProperties properties) {
+        this.properties = properties;
+        int size = Math.max(1, properties.getSize());
+        this.idleSlots = new ArrayBlockingQueue<>(size);
+        for (int i = 0; i < size; i++) {
+            idleSlots.add(new Slot());
+        }
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+            r -> {
+                Thread t = new Thread(r, "python-worker-" + threadIds.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "python-worker-watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 提交目录分析任务
+     *
+     * @param userDir 数据目录（main.py 分析其中的 CSV 文件）
+     * @return Python 返回的分析结果；队列已满时以 RejectedExecutionException 失败，进程异常时以 IOException 失败
+     */
+    public CompletableFuture<Map<String, Object>> submit(String userDir) {
+        return submit(userDir, null);
+    }
+
+    /**
+     * 提交目录分析任务，并接收分析进度
+     *
+     * @param userDir 数据目录
+     * @param listener 进度回调，在读取工作进程输出的线程上调用，可为 null
+     */
+    public CompletableFuture<Map<String, Object>> submit(String userDir, Consumer<AnalysisProgress> listener) {
+        return submit(userDir, Collections.emptySet(), listener);
+    }
+
+    /**
+     * 提交目录分析任务，跳过指定的指标阶段（由 Java 指标引擎计算，见 {@link MetricEngines}）
+     *
+     * @param userDir 数据目录
+     * @param skipStages 跳过的阶段名，如 disruption
+     * @param listener 进度回调，可为 null
+     */
+    public CompletableFuture<Map<String, Object>> submit(String userDir, Collection<String> skipStages,
+                                                         Consumer<AnalysisProgress> listener) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return runJob(userDir, skipStages, listener);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("分析任务排队已满，请稍后再试"));
+        }
+    }
+
+    /**
+     * 同步分析目录，阻塞到结果返回
+     */
+    public Map<String, Object> analyze(String userDir) throws IOException, InterruptedException {
+        return analyze(userDir, null);
+    }
+
+    /**
+     * 同步分析目录，阻塞到结果返回，期间通过 listener 接收进度
+     */
+    public Map<String, Object> analyze(String userDir, Consumer<AnalysisProgress> listener)
+            throws IOException, InterruptedException {
+        return join(submit(userDir, listener));
+    }
+
+    /**
+     * 等待 {@link #submit} 返回的任务，并还原其异常类型
+     */
+    public static Map<String, Object> join(CompletableFuture<Map<String, Object>> future)
+            throws IOException, InterruptedException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof InterruptedException) throw (InterruptedException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private Map<String, Object> runJob(String userDir, Collection<String> skipStages,
+                                       Consumer<AnalysisProgress> listener)
+            throws IOException, InterruptedException {
+        Slot slot = idleSlots.take();
+        try {
+            if (slot.worker == null || !slot.worker.isAlive()) {
+                if (slot.worker != null) {
+                    discarded.incrementAndGet();
+                }
+                try {
+                    slot.worker = startWorker();
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    throw e;
+                }
+            }
+
+            Map<String, Object> request = new HashMap<>();
+            request.put("id", jobIds.incrementAndGet());
+            request.put("cmd", "analyze");
+            request.put("user_dir", userDir);
+            if (!skipStages.isEmpty()) {
+                request.put("skip", skipStages);
+            }
+
+            JsonNode response;
+            try {
+                response = slot.worker.call(request, properties.getJobTimeoutSeconds(),
+                    message -> onProgress(message, listener));
+            } catch (IOException e) {
+                slot.worker.destroy();
+                slot.worker = null;
+                failed.incrementAndGet();
+                throw e;
+            }
+
+            if (++slot.worker.jobs >= properties.getMaxJobsPerWorker()) {
+                // 先返回结果，旧进程在后台退出
+                slot.worker.retire();
+                slot.worker = null;
+                recycled.incrementAndGet();
+            }
+
+            if (!response.path("ok").asBoolean(false)) {
+                failed.incrementAndGet();
+                throw new IOException("Python分析失败: " + response.path("error").asText(""));
+            }
+            completed.incrementAndGet();
+            return objectMapper.convertValue(response.get("result"), new TypeReference<Map<String, Object>>() {});
+        } finally {
+            idleSlots.offer(slot);
+        }
+    }
+
+    /**
+     * 健康检查：ping 当前空闲的进程，无响应或已退出的进程被丢弃（下次任务时重建）
+     */
+    @Scheduled(fixedDelayString = "${python.worker.health-check-interval-ms:30000}")
+    public void healthCheck() {
+        List<Slot> checked = new ArrayList<>();
+        Slot slot;
+        while ((slot = idleSlots.poll()) != null) {
+            checked.add(slot);
+            Worker worker = slot.worker;
+            if (worker == null) continue;
+            try {
+                if (!worker.isAlive()) {
+                    throw new IOException("process exited");
+                }
+                Map<String, Object> ping = new HashMap<>();
+                ping.put("id", jobIds.incrementAndGet());
+                ping.put("cmd", "ping");
+                worker.call(ping, properties.getPingTimeoutSeconds(), null);
+            } catch (IOException e) {
+                System.err.println("[PythonWorkerPool] Worker " + worker.id + " failed health check: " + e.getMessage());
+                worker.destroy();
+                slot.worker = null;
+                discarded.incrementAndGet();
+            }
+        }
+        idleSlots.addAll(checked);
+    }
+
+    /**
+     * 进程池统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        int alive = 0;
+        for (Slot slot : idleSlots) {
+            Worker worker = slot.worker;
+            if (worker != null && worker.isAlive()) alive++;
+        }
+        stats.put("size", properties.getSize());
+        stats.put("idle_alive", alive);
+        stats.put("busy", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("started", started.get());
+        stats.put("recycled", recycled.get());
+        stats.put("discarded", discarded.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("stages", stageTimings.toMap());
+        return stats;
+    }
+
+    // 辅助方法：记录阶段耗时并转发进度，回调异常不影响任务
+    private void onProgress(JsonNode message, Consumer<AnalysisProgress> listener) {
+        AnalysisProgress progress = AnalysisProgress.fromMessage(message);
+        if (progress.isFinished() && progress.getStageMs() != null) {
+            stageTimings.record(progress.getStage(), progress.getStageMs());
+        }
+        if (listener == null) return;
+        try {
+            listener.accept(progress);
+        } catch (RuntimeException e) {
+            System.err.println("[PythonWorkerPool] Progress listener failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Worker worker : liveWorkers) {
+            worker.destroy();
+        }
+        watchdog.shutdownNow();
+    }
+
+    private Worker startWorker() throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder(
+                properties.getCommand(), "-u", properties.getScript(), "--worker");
+        processBuilder.directory(new File("."));
+        processBuilder.redirectErrorStream(false);  // stderr 为日志，stdout 为协议
+
+        // 设置 Python 环境变量，强制使用 UTF-8 编码
+        Map<String, String> env = processBuilder.environment();
+        env.put("PYTHONIOENCODING", "utf-8");
+        env.put("PYTHONUTF8", "1");
+
+        long startNanos = System.nanoTime();
+        Worker worker = new Worker(workerIds.incrementAndGet(), processBuilder.start());
+        try {
+            JsonNode ready = worker.readMessage(properties.getStartupTimeoutSeconds(), null, null);
+            if (!"ready".equals(ready.path("type").asText())) {
+                throw new IOException("unexpected handshake: " + ready);
+            }
+        } catch (IOException e) {
+            worker.destroy();
+            throw new IOException("Python工作进程启动失败: " + e.getMessage(), e);
+        }
+        started.incrementAndGet();
+        liveWorkers.add(worker);
+        System.out.println("[PythonWorkerPool] Worker " + worker.id + " ready in "
+            + (System.nanoTime() - startNanos) / 1_000_000 + "ms");
+        return worker;
+    }
+
+    /**
+     * 槽位：空闲时在 idleSlots 中，任务执行期间由执行线程独占
+     */
+    private static final class Slot {
+        private Worker worker;
+    }
+
+    /**
+     * 单个 Python 工作进程
+     */
+    private final class Worker {
+        private final int id;
+        private final Process process;
+        private final BufferedWriter stdin;
+        private final BufferedReader stdout;
+        private int jobs = 0;
+
+        Worker(int id, Process process) {
+            this.id = id;
+            this.process = process;
+            this.stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+            this.stdout = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+
+            // 持续转发 stderr（日志），避免缓冲区满导致进程阻塞
+            Thread stderrThread = new Thread(() -> {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        System.err.println("[Python-" + id + "] " + line);
+                    }
+                } catch (IOException e) {
+                    // 进程结束
+                }
+            }, "python-worker-stderr-" + id);
+            stderrThread.setDaemon(true);
+            stderrThread.start();
+        }
+
+        boolean isAlive() {
+            return process.isAlive();
+        }
+
+        /**
+         * 发送请求并等待同 id 的响应，期间同 id 的进度消息交给 onProgress
+         */
+        JsonNode call(Map<String, Object> request, int timeoutSeconds, Consumer<JsonNode> onProgress)
+                throws IOException {
+            stdin.write(objectMapper.writeValueAsString(request));
+            stdin.newLine();
+            stdin.flush();
+            return readMessage(timeoutSeconds, request.get("id"), onProgress);
+        }
+
+        /**
+         * 读取下一条消息；expectedId 不为空时跳过其他消息直到 id 匹配的 result。超时强制结束进程
+         * <p>worker 模式下 stdout 只输出协议消息（print 已重定向到 stderr），无法解析的行视为协议错误，
+         * 当前请求立即失败，调用方丢弃该进程。</p>
+         */
+        JsonNode readMessage(int timeoutSeconds, Object expectedId, Consumer<JsonNode> onProgress)
+                throws IOException {
+            AtomicBoolean timedOut = new AtomicBoolean(false);
+            ScheduledFuture<?> timer = watchdog.schedule(() -> {
+                timedOut.set(true);
+                process.destroyForcibly();
+            }, Math.max(1, timeoutSeconds), TimeUnit.SECONDS);
+            try {
+                String line;
+                while ((line = stdout.readLine()) != null) {
+                    JsonNode message;
+                    try {
+                        message = objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        String preview = line.length() > MALFORMED_PREVIEW_CHARS
+                            ? line.substring(0, MALFORMED_PREVIEW_CHARS) + "..." : line;
+                        System.err.println("[PythonWorkerPool] Worker " + id + " sent malformed message: " + preview);
+                        throw new IOException("协议错误，无法解析工作进程输出: " + e.getMessage(), e);
+                    }
+                    if (expectedId == null) {
+                        return message;
+                    }
+                    if (!expectedId.toString().equals(message.path("id").asText())) {
+                        continue;
+                    }
+                    String type = message.path("type").asText();
+                    if ("result".equals(type)) {
+                        return message;
+                    }
+                    if ("progress".equals(type) && onProgress != null) {
+                        onProgress.accept(message);
+                    }
+                }
+                throw new IOException(timedOut.get() ? "超时（" + timeoutSeconds + "s）" : "进程意外退出");
+            } finally {
+                timer.cancel(false);
+            }
+        }
+
+        /**
+         * 通知进程退出，不等待；超过 RETIRE_GRACE_SECONDS 仍未退出时由 watchdog 强制结束
+         * <p>退出前仍留在 liveWorkers 中，应用关闭时一并结束。</p>
+         */
+        void retire() {
+            try {
+                stdin.write("{\"cmd\":\"exit\"}");
+                stdin.newLine();
+                stdin.flush();
+            } catch (IOException e) {
+                destroy();
+                return;
+            }
+            process.onExit().thenRun(() -> liveWorkers.remove(this));
+            try {
+                watchdog.schedule(() -> {
+                    if (process.isAlive()) {
+                        process.destroyForcibly();
+                    }
+                }, RETIRE_GRACE_SECONDS, TimeUnit.SECONDS);
+            } catch (RejectedExecutionException e) {
+                // 应用正在关闭
+                destroy();
+            }
+        }
+
+        void destroy() {
+            liveWorkers.remove(this);
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.paper.service;
+
+import com.paper.model.JournalMetrics;
+
+import java.util.List;
+
+/**
+ * 雷达图维度列存储 - 每个维度一个 double[]，下标为期刊序号
+ * <p>随期刊目录快照构建一次，推荐扫描时直接按列计算相似度，不再逐行构造 Map。</p>
+ *
+ * <p>维度顺序与 {@link JournalService#buildRadarFromRow} 的 values 一致：
+ * 内容前沿性(颠覆性+新颖性)、学科开放性、主题集中度、主题多样性、热点响应度。</p>
+ */
+public final class RadarColumns {
+
+    /** 雷达维度数量 */
+    public static final int DIMENSIONS = 5;
+
+    /** 各维度取值范围（内容前沿性为两项之和，范围200） */
+    static final double[] DIM_RANGES = {200.0, 100.0, 100.0, 100.0, 100.0};
+
+    private final int size;
+    private final double[] frontier;
+    private final double[] interdisciplinary;
+    private final double[] themeConcentration;
+    private final double[] topic;
+    private final double[] hotResponse;
+    private final double[] paperCount;
+
+    RadarColumns(List<JournalMetrics> rows) {
+        this.size = rows.size();
+        this.frontier = new double[size];
+        this.interdisciplinary = new double[size];
+        this.themeConcentration = new double[size];
+        this.topic = new double[size];
+        this.hotResponse = new double[size];
+        this.paperCount = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            JournalMetrics row = rows.get(i);
+            frontier[i] = value(row.getDisruption()) + value(row.getNovelty());
+            interdisciplinary[i] = value(row.getInterdisciplinary());
+            themeConcentration[i] = value(row.getThemeConcentration());
+            topic[i] = value(row.getTopic());
+            hotResponse[i] = value(row.getHotResponse());
+            paperCount[i] = row.getPaperCount() == null ? 0.0 : row.getPaperCount();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double paperCount(int ordinal) {
+        return paperCount[ordinal];
+    }
+
+    /**
+     * 单个维度的整列（下标为期刊序号），调用方不得修改
+     */
+    double[] column(int dimension) {
+        switch (dimension) {
+            case 0: return frontier;
+            case 1: return interdisciplinary;
+            case 2: return themeConcentration;
+            case 3: return topic;
+            case 4: return hotResponse;
+            default: throw new IllegalArgumentException("dimension: " + dimension);
+        }
+    }
+
+    /**
+     * 读取指定期刊的雷达向量
+     */
+    public double[] vector(int ordinal) {
+        return new double[] {
+            frontier[ordinal], interdisciplinary[ordinal], themeConcentration[ordinal],
+            topic[ordinal], hotResponse[ordinal]
+        };
+    }
+
+    /**
+     * 计算用户向量与单个期刊的相似度（与 computeSimilarity 公式一致）
+     */
+    public double similarity(double[] user, int ordinal) {
+        double diffSum = Math.abs(user[0] - frontier[ordinal]) / DIM_RANGES[0]
+            + Math.abs(user[1] - interdisciplinary[ordinal]) / DIM_RANGES[1]
+            + Math.abs(user[2] - themeConcentration[ordinal]) / DIM_RANGES[2]
+            + Math.abs(user[3] - topic[ordinal]) / DIM_RANGES[3]
+            + Math.abs(user[4] - hotResponse[ordinal]) / DIM_RANGES[4];
+        return clamp(1.0 - diffSum / DIMENSIONS);
+    }
+
+    /**
+     * 用户向量对全部期刊打分，结果写入 out（长度不小于 size），循环内不分配对象
+     */
+    public void similarityAll(double[] user, double[] out) {
+        similarityRange(user, out, 0, size);
+    }
+
+    /**
+     * 对序号区间 [from, to) 打分，结果写入 out[0 .. to-from)
+     */
+    public void similarityRange(double[] user, double[] out, int from, int to) {
+        double u0 = user[0], u1 = user[1], u2 = user[2], u3 = user[3], u4 = user[4];
+        double r0 = DIM_RANGES[0], r1 = DIM_RANGES[1], r2 = DIM_RANGES[2], r3 = DIM_RANGES[3], r4 = DIM_RANGES[4];
+        for (int i = from; i < to; i++) {
+            double diffSum = Math.abs(u0 - frontier[i]) / r0
+                + Math.abs(u1 - interdisciplinary[i]) / r1
+                + Math.abs(u2 - themeConcentration[i]) / r2
+                + Math.abs(u3 - topic[i]) / r3
+                + Math.abs(u4 - hotResponse[i]) / r4;
+            out[i - from] = clamp(1.0 - diffSum / DIMENSIONS);
+        }
+    }
+
+    private static double clamp(double sim) {
+        return Math.max(0.0, Math.min(1.0, sim));
+    }
+
+    private static double value(Double v) {
+        return v == null ? 0.0 : v;
+    }
+}
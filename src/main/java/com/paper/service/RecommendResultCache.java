@@ -0,0 +1,143 @@
+package com.paper.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paper.config.RecommendProperties;
+import com.paper.model.UserSurvey;
+import com.paper.utils.KeywordUtils;
+import com.paper.utils.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 推荐结果缓存 - 按问卷指纹缓存推荐页的计算结果
+ * <p>指纹由归一化关键词集合、六项问卷评分、目标年份与期刊目录快照版本组成；
+ * 快照版本变化时旧条目整体失效。</p>
+ */
+@Component
+public class RecommendResultCache {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final JournalService service;
+    private final JournalRecommender recommender;
+    private final LruCache<String, Page> cache;
+    private volatile long cachedVersion = -1;
+
+    @Autowired
+    public RecommendResultCache(JournalService service, JournalRecommender recommender,
+                                RecommendProperties properties) {
+        this.service = service;
+        this.recommender = recommender;
+        this.cache = new LruCache<>(properties.getResultCacheSize(), 0, false);
+    }
+
+    /**
+     * 获取推荐页结果，未命中时计算并写入缓存
+     */
+    public Page get(SurveyProfile profile, int targetYear) throws JsonProcessingException {
+        long version = service.fetchCatalog().getVersion();
+        invalidateIfStale(version);
+
+        String key = fingerprint(profile, targetYear, version);
+        Page page = cache.get(key);
+        if (page != null) {
+            return page;
+        }
+
+        JournalRecommender.Recommendation recommendation = recommender.recommend(profile, targetYear);
+        page = new Page(
+            recommendation.getRecs(),
+            kwHitsByNorm(recommendation.getKwHits()),
+            objectMapper.writeValueAsString(profile.getUserRadar())
+        );
+        // 计算期间快照可能已刷新，按实际使用的版本入缓存
+        cache.put(fingerprint(profile, targetYear, recommendation.getCatalogVersion()), page);
+        return page;
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = cache.stats();
+        stats.put("catalog_version", cachedVersion);
+        return stats;
+    }
+
+    private void invalidateIfStale(long version) {
+        if (version == cachedVersion) {
+            return;
+        }
+        synchronized (this) {
+            if (version != cachedVersion) {
+                cache.clear();
+                cachedVersion = version;
+            }
+        }
+    }
+
+    private String fingerprint(SurveyProfile profile, int targetYear, long version) {
+        UserSurvey survey = profile.getSurvey();
+        StringBuilder sb = new StringBuilder();
+        sb.append(version).append('|').append(targetYear);
+        for (Double score : new Double[] {
+                survey.getNovelty(), survey.getDisruption(), survey.getInterdisciplinary(),
+                survey.getThemeConcentration(), survey.getTopic(), survey.getHotResponse()}) {
+            sb.append('|').append(score);
+        }
+        for (String norm : new TreeSet<>(profile.getNormalizedKeywords())) {
+            // 关键词已去除首尾空白并折叠空格，用控制字符分隔避免歧义
+            sb.append('\u0001').append(norm);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * kwHits 按归一化关键词保存，命中时再按当前用户输入的原文展开
+     */
+    private Map<String, List<String>> kwHitsByNorm(Map<String, List<String>> kwHits) {
+        Map<String, List<String>> byNorm = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : kwHits.entrySet()) {
+            byNorm.put(KeywordUtils.normalize(entry.getKey()),
+                Collections.unmodifiableList(entry.getValue()));
+        }
+        return byNorm;
+    }
+
+    /**
+     * 缓存的推荐页结果
+     */
+    public static final class Page {
+        private final List<Map<String, Object>> recs;
+        private final Map<String, List<String>> kwHitsByNorm;
+        private final String userRadarJson;
+
+        Page(List<Map<String, Object>> recs, Map<String, List<String>> kwHitsByNorm, String userRadarJson) {
+            this.recs = recs;
+            this.kwHitsByNorm = kwHitsByNorm;
+            this.userRadarJson = userRadarJson;
+        }
+
+        public List<Map<String, Object>> getRecs() {
+            return recs;
+        }
+
+        /**
+         * 按问卷关键词原文输出命中期刊（键与未缓存时一致）
+         */
+        public Map<String, List<String>> getKwHits(List<String> keywords) {
+            Map<String, List<String>> kwHits = new HashMap<>();
+            for (String kw : keywords) {
+                kwHits.put(kw, kwHitsByNorm.getOrDefault(KeywordUtils.normalize(kw), List.of()));
+            }
+            return kwHits;
+        }
+
+        public String getUserRadarJson() {
+            return userRadarJson;
+        }
+    }
+}
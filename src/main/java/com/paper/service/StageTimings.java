@@ -0,0 +1,47 @@
+package com.paper.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分析阶段耗时统计（次数、平均、最大），用于容量评估
+ */
+final class StageTimings {
+
+    private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+
+    void record(String stage, long ms) {
+        timings.computeIfAbsent(stage, k -> new Timing()).record(ms);
+    }
+
+    /** 阶段 → {count, avg_ms, max_ms} */
+    Map<String, Object> toMap() {
+        Map<String, Object> data = new HashMap<>();
+        timings.forEach((stage, timing) -> data.put(stage, timing.toMap()));
+        return data;
+    }
+
+    private static final class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final AtomicLong maxMs = new AtomicLong();
+
+        void record(long ms) {
+            count.increment();
+            totalMs.add(ms);
+            maxMs.accumulateAndGet(ms, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            long n = count.sum();
+            Map<String, Object> data = new HashMap<>();
+            data.put("count", n);
+            data.put("avg_ms", n > 0 ? totalMs.sum() / n : 0);
+            data.put("max_ms", maxMs.get());
+            return data;
+        }
+    }
+}
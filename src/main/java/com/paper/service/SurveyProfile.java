@@ -0,0 +1,52 @@
+package com.paper.service;
+
+import com.paper.model.UserSurvey;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 问卷画像 - 已解析的问卷及其派生数据
+ * <p>雷达向量、归一化关键词、雷达图与规则评语在创建时一次性计算，之后只读。</p>
+ */
+public final class SurveyProfile {
+
+    private final UserSurvey survey;
+    private final double[] radarVector;
+    private final Set<String> normalizedKeywords;
+    private final Map<String, Object> userRadar;
+    private final Map<String, String> userComments;
+
+    SurveyProfile(UserSurvey survey, double[] radarVector, Set<String> normalizedKeywords,
+                  Map<String, Object> userRadar, Map<String, String> userComments) {
+        this.survey = survey;
+        this.radarVector = radarVector;
+        this.normalizedKeywords = normalizedKeywords;
+        this.userRadar = userRadar;
+        this.userComments = userComments;
+    }
+
+    public UserSurvey getSurvey() {
+        return survey;
+    }
+
+    /** 用户雷达向量（维度顺序同 RadarColumns），调用方不得修改 */
+    public double[] getRadarVector() {
+        return radarVector;
+    }
+
+    /** 归一化后的用户关键词集合（不含空串） */
+    public Set<String> getNormalizedKeywords() {
+        return normalizedKeywords;
+    }
+
+    /** 用户画像雷达图数据 */
+    public Map<String, Object> getUserRadar() {
+        return userRadar;
+    }
+
+    /** 用户画像规则评语 */
+    public Map<String, String> getUserComments() {
+        return userComments;
+    }
+}
@@ -0,0 +1,91 @@
+package com.paper.service;
+
+import com.paper.config.RecommendProperties;
+import com.paper.model.JournalMetrics;
+import com.paper.model.UserSurvey;
+import com.paper.utils.LruCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 问卷画像存储 - 以短令牌为键缓存已解析的问卷画像
+ * <p>令牌通过 Cookie 下发，命中时推荐相关页面无需再解码问卷 Cookie 与重复计算画像。
+ * 按容量与空闲时间淘汰；未命中时由调用方从问卷 Cookie 重新解析后写回。</p>
+ */
+@Component
+public class SurveyProfileStore {
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private final JournalService service;
+    private final LruCache<String, SurveyProfile> cache;
+
+    @Autowired
+    public SurveyProfileStore(JournalService service, RecommendProperties properties) {
+        this.service = service;
+        this.cache = new LruCache<>(properties.getSurveyCacheSize(),
+            properties.getSurveyCacheTtlMinutes() * 60_000L, true);
+    }
+
+    /**
+     * 按令牌获取画像，不存在返回 null
+     */
+    public SurveyProfile get(String token) {
+        return token == null ? null : cache.get(token);
+    }
+
+    /**
+     * 生成画像并以指定令牌保存
+     */
+    public SurveyProfile put(String token, UserSurvey survey) {
+        SurveyProfile profile = buildProfile(survey);
+        cache.put(token, profile);
+        return profile;
+    }
+
+    /**
+     * 生成新的随机令牌
+     */
+    public String newToken() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    private SurveyProfile buildProfile(UserSurvey survey) {
+        Set<String> userNorm = survey.getKeywords().stream()
+            .map(service::normalizeKeyword)
+            .filter(s -> !s.isEmpty())
+            .collect(Collectors.toSet());
+
+        JournalMetrics asMetrics = new JournalMetrics();
+        asMetrics.setNovelty(survey.getNovelty());
+        asMetrics.setDisruption(survey.getDisruption());
+        asMetrics.setInterdisciplinary(survey.getInterdisciplinary());
+        asMetrics.setThemeConcentration(survey.getThemeConcentration());
+        asMetrics.setTopic(survey.getTopic());
+        asMetrics.setHotResponse(survey.getHotResponse());
+
+        return new SurveyProfile(
+            survey,
+            service.buildUserRadarVector(survey),
+            Collections.unmodifiableSet(userNorm),
+            Collections.unmodifiableMap(service.buildUserRadar(survey)),
+            Collections.unmodifiableMap(service.buildCommentsFromRow(asMetrics))
+        );
+    }
+}
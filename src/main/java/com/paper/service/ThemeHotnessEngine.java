@@ -0,0 +1,358 @@
+package com.paper.service;
+
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.paper.model.PaperTable;
+import com.paper.utils.IntCountMap;
+import com.paper.utils.PythonUtils;
+import com.paper.utils.UniformRanker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * 主题集中度与热点响应度计算引擎
+ * <p>与 theme_034.py 的 ThemeHotnessAnalyzer.run 口径一致：只使用 2021~2025 年的论文，
+ * 主题集中度 = 1 - 关键词分布的归一化熵，热点响应度 = 命中全局前 50 高频关键词的比例，
+ * 并给出各年份前 5 个高频关键词。输出列与 journal_metrics 表的 theme_concentration、hot_response、
+ * top_keywords_2021..2025 一一对应。</p>
+ *
+ * <p>结果只写入本次分析的 outputs/theme/theme.csv 与分析结果，不写 journal_metrics：该表是全站共用的期刊目录
+ * （推荐与期刊详情读取的 {@link JournalCatalog} 快照），只由全量数据的批处理 main_03.py 经
+ * upload_journal_metrics_035.py 按年份整体写入；用户上传的局部数据若写入，会覆盖其中期刊的全量指标。</p>
+ *
+ * <p>Python 对每个期刊、每个年份分别过滤整个 DataFrame 并重新 value_counts（O(期刊数 × 行数)）；
+ * 此处关键词取自 {@link PaperCorpus} 的 int 编号，只遍历一次论文，同时累加全局、期刊、(期刊, 年份) 三级 {@link IntCountMap} 计数，
+ * 各期刊的熵在引擎线程池中并行计算。
+ * value_counts 同频时的顺序由 numpy 排序实现决定，此处固定为首次出现顺序（影响同频关键词的先后与第 50 名的取舍）。</p>
+ *
+ * <p>年份列为数值时直接取整；为文本时提取第一个 19xx/20xx 年份（超过 10% 的行能提取到才采用），
+ * Python 在此之外还会尝试 pd.to_datetime，此处视为没有有效年份。</p>
+ */
+public class ThemeHotnessEngine {
+
+    private static final int FIRST_YEAR = 2021;
+    private static final int LAST_YEAR = 2025;
+    private static final int HOT_WORDS = 50;
+    private static final int TOP_KEYWORDS = 5;
+    private static final int NO_YEAR = 0;
+
+    private static final String JOURNAL_COL = "journal";
+    private static final String KEYWORDS_COL = "keywords";
+    private static final String[] YEAR_CANDIDATES = {"year", "publish_year", "publish_date"};
+    /** 读取的原始列（之后的指标都不需要时由 MetricEngines 释放） */
+    static final Set<String> RAW_COLUMNS = Set.of(KEYWORDS_COL, "year", "publish_year", "publish_date");
+    private static final Pattern YEAR_PATTERN = Pattern.compile("\\b((19|20)\\d{2})\\b", Pattern.UNICODE_CHARACTER_CLASS);
+    private static final Pattern SEPARATORS = Pattern.compile("[;,|/、；，]");
+    private static final Set<String> NULL_TEXTS = Set.of("nan", "none", "null");
+    /** 与 json.loads 一致：接受 NaN/Infinity，拒绝尾随内容 */
+    private static final ObjectMapper objectMapper = JsonMapper.builder()
+        .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+        .build();
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool 并行计算使用的线程池
+     */
+    public ThemeHotnessEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 计算期刊主题集中度与热点响应度
+     *
+     * @param corpus 论文语料（使用 journal、keywords 列及 year/publish_year/publish_date 中第一个存在的列）
+     * @param topN 只返回前 topN 个期刊，不大于 0 表示全部
+     * @return 期刊得分行（journal, theme_concentration_raw, hot_response_raw, top_keywords_2021..2025,
+     *         theme_concentration, hot_response），按 theme_concentration 降序
+     */
+    public List<Map<String, Object>> analyze(PaperCorpus corpus, int topN) throws InterruptedException {
+        PaperTable table = corpus.table();
+        int rows = corpus.size();
+        int[] years = corpus.column("theme.years", c -> extractYears(c.table()));
+        if (Arrays.stream(years).allMatch(y -> y == NO_YEAR)) {
+            throw new IllegalArgumentException("No valid year column found");
+        }
+        if (!corpus.hasJournals()) {
+            throw new IllegalArgumentException("Missing column: " + JOURNAL_COL);
+        }
+        if (!corpus.hasColumn(KEYWORDS_COL)) {
+            throw new IllegalArgumentException("Missing column: " + KEYWORDS_COL);
+        }
+
+        // 只拆分窗口内论文的关键词（语料中并行构建）
+        PaperCorpus.TokenColumn keywords = corpus.keywords("theme", row -> {
+            boolean inWindow = years[row] >= FIRST_YEAR && years[row] <= LAST_YEAR;
+            return inWindow ? splitKeywords(table.get(KEYWORDS_COL, row), corpus.keywordLiteral(row)) : null;
+        });
+
+        // 单次遍历：累加全局、期刊、(期刊, 年份) 计数
+        int n = corpus.journalCount();
+        JournalCounts[] journals = new JournalCounts[n];
+        for (int j = 0; j < n; j++) journals[j] = new JournalCounts();
+        IntCountMap global = new IntCountMap(1024);
+        for (int i = 0; i < rows; i++) {
+            int journal = corpus.journalOf(i);
+            if (journal < 0 || years[i] < FIRST_YEAR || years[i] > LAST_YEAR) continue;
+            JournalCounts counts = journals[journal];
+            IntCountMap byYear = counts.year(years[i]);
+            for (int id : keywords.ids(i)) {
+                global.increment(id);
+                counts.all.increment(id);
+                byYear.increment(id);
+            }
+        }
+        boolean[] hot = new boolean[keywords.dictionarySize()];
+        for (int id : global.topKeys(HOT_WORDS)) hot[id] = true;
+        System.out.println("[ThemeHotnessEngine] Journals: " + n + ", keywords: " + global.size());
+
+        return toRows(corpus, journals, hot, keywords, topN);
+    }
+
+    // ===================== 期刊级指标 =====================
+
+    private List<Map<String, Object>> toRows(PaperCorpus corpus, JournalCounts[] journals, boolean[] hot,
+                                             PaperCorpus.TokenColumn words, int topN) throws InterruptedException {
+        int n = journals.length;
+        String[] names = new String[n];
+        for (int j = 0; j < n; j++) names[j] = corpus.journalName(j);
+        double[] themeRaw = new double[n];
+        double[] hotRaw = new double[n];
+        boolean[] hasData = new boolean[n];
+        run(() -> IntStream.range(0, n).parallel().forEach(j -> {
+            IntCountMap all = journals[j].all;
+            hasData[j] = all.total() > 0;
+            if (hasData[j]) {
+                // _format_percent 使用内置 round(x * 100, 2)
+                themeRaw[j] = PythonUtils.round(themeConcentration(all) * 100, 2);
+                hotRaw[j] = PythonUtils.round(hotResponse(all, hot) * 100, 2);
+            }
+        }));
+        List<Map<String, Object>> result = new ArrayList<>(n);
+        for (int j = 0; j < n; j++) {
+            JournalCounts counts = journals[j];
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("journal", names[j]);
+            row.put("theme_concentration_raw", themeRaw[j]);
+            row.put("hot_response_raw", hotRaw[j]);
+            for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+                List<String> top = new ArrayList<>();
+                IntCountMap byYear = counts.byYear[year - FIRST_YEAR];
+                if (hasData[j] && byYear != null) {
+                    for (int id : byYear.topKeys(TOP_KEYWORDS)) top.add(words.name(id));
+                }
+                row.put("top_keywords_" + year, top);
+            }
+            result.add(row);
+        }
+
+        // 仅对有关键词的期刊做 1~100 均匀化，其余为 0
+        double[] themeRanked = new double[n];
+        double[] hotRanked = new double[n];
+        int[] tieKeys = new int[n];
+        for (int j = 0; j < n; j++) {
+            themeRanked[j] = hasData[j] ? themeRaw[j] : Double.NaN;
+            hotRanked[j] = hasData[j] ? hotRaw[j] : Double.NaN;
+            tieKeys[j] = corpus.journalSortKey(j);
+        }
+        double[] theme = UniformRanker.rank(themeRanked, tieKeys, 2, 0.0);
+        double[] hotResponse = UniformRanker.rank(hotRanked, tieKeys, 2, 0.0);
+        for (int j = 0; j < n; j++) {
+            result.get(j).put("theme_concentration", theme[j]);
+            result.get(j).put("hot_response", hotResponse[j]);
+        }
+        // 稳定排序：同分保持期刊出现顺序
+        result.sort((a, b) -> Double.compare((Double) b.get("theme_concentration"),
+            (Double) a.get("theme_concentration")));
+        return topN > 0 && result.size() > topN ? new ArrayList<>(result.subList(0, topN)) : result;
+    }
+
+    /**
+     * 主题集中度：1 - H / ln(不同关键词数)，H = -Σ p·ln(p + 1e-12)，只有一个关键词时为 1
+     */
+    private static double themeConcentration(IntCountMap counts) {
+        int size = counts.size();
+        // value_counts 按频次降序，同频的项数值相同，求和顺序不影响结果
+        int[] sorted = new int[size];
+        for (int i = 0; i < size; i++) sorted[i] = counts.countAt(i);
+        Arrays.sort(sorted);
+        long total = counts.total();
+        double[] terms = new double[size];
+        for (int i = 0; i < size; i++) {
+            double p = (double) sorted[size - 1 - i] / total;
+            terms[i] = p * Math.log(p + 1e-12);
+        }
+        double h = -PythonUtils.sum(terms, 0, size);
+        double normalized = size > 1 ? h / Math.log(size) : 0.0;
+        return 1 - normalized;
+    }
+
+    /**
+     * 热点响应度：关键词（按出现次数计）落在全局高频词中的比例
+     */
+    private static double hotResponse(IntCountMap counts, boolean[] hot) {
+        long hits = 0;
+        for (int i = 0; i < counts.size(); i++) {
+            if (hot[counts.keyAt(i)]) hits += counts.countAt(i);
+        }
+        return (double) hits / counts.total();
+    }
+
+    /** 单个期刊窗口内的计数 */
+    private static final class JournalCounts {
+        final IntCountMap all = new IntCountMap();
+        final IntCountMap[] byYear = new IntCountMap[LAST_YEAR - FIRST_YEAR + 1];
+
+        IntCountMap year(int year) {
+            int index = year - FIRST_YEAR;
+            if (byYear[index] == null) byYear[index] = new IntCountMap();
+            return byYear[index];
+        }
+    }
+
+    // ===================== 年份与关键词 =====================
+
+    /**
+     * 与 _extract_year_from_series 一致：取第一个存在的年份候选列；数值列截断取整，
+     * 文本列提取第一个 19xx/20xx（能提取的行不超过 10% 时视为无年份）
+     *
+     * @return 每行年份，无效为 0
+     */
+    static int[] extractYears(PaperTable table) {
+        int rows = table.size();
+        int[] years = new int[rows];
+        String column = null;
+        for (String candidate : YEAR_CANDIDATES) {
+            if (table.hasColumn(candidate)) {
+                column = candidate;
+                break;
+            }
+        }
+        if (column == null) return years;
+
+        // read_csv 推断为数值列：所有非缺失值都能解析为数字
+        boolean numeric = true;
+        Double[] numbers = new Double[rows];
+        for (int i = 0; i < rows && numeric; i++) {
+            String value = table.get(column, i);
+            if (value == null) continue;
+            numbers[i] = PythonUtils.parseFloat(value);
+            numeric = numbers[i] != null;
+        }
+        if (numeric) {
+            for (int i = 0; i < rows; i++) {
+                Double number = numbers[i];
+                if (number != null && !number.isNaN() && !number.isInfinite()) {
+                    years[i] = (int) number.doubleValue();
+                }
+            }
+            return years;
+        }
+
+        int extracted = 0;
+        for (int i = 0; i < rows; i++) {
+            String value = table.get(column, i);
+            Matcher m = YEAR_PATTERN.matcher(value == null ? "nan" : value);
+            if (m.find()) {
+                years[i] = Integer.parseInt(m.group(1));
+                extracted++;
+            }
+        }
+        if ((double) extracted / Math.max(1, rows) > 0.1) {
+            return years;
+        }
+        return new int[rows];
+    }
+
+    /**
+     * 与 _split_keywords 一致：JSON 列表 → Python 列表字面量 → 分隔符拆分，
+     * 去掉外层括号与引号碎片后保序去重
+     *
+     * @param literal value 的列表字面量解析结果（见 {@link PaperCorpus#keywordLiteral(int)}）
+     */
+    static String[] splitKeywords(String value, List<Object> literal) {
+        if (value == null) return new String[0];
+        String s = PythonUtils.strip(value);
+        if (s.isEmpty() || NULL_TEXTS.contains(s.toLowerCase(Locale.ROOT))) return new String[0];
+
+        List<String> items = null;
+        boolean unwrapped = false;
+        try {
+            JsonNode parsed = objectMapper.readTree(s);
+            if (parsed != null && parsed.isArray()) {
+                items = new ArrayList<>();
+                for (JsonNode item : parsed) {
+                    items.add(jsonStr(item));
+                }
+            } else if (parsed != null && parsed.isTextual()) {
+                s = PythonUtils.strip(parsed.textValue());
+                unwrapped = true;
+            }
+        } catch (Exception e) {
+            // 不是 JSON
+        }
+        if (items == null && s.startsWith("[") && s.endsWith("]")) {
+            List<Object> parsed = unwrapped ? PythonUtils.literalValues(s, "[") : literal;
+            if (parsed != null) {
+                items = new ArrayList<>();
+                for (Object item : parsed) {
+                    items.add(item == null ? null : PythonUtils.str(item));
+                }
+            }
+        }
+        if (items == null) {
+            items = Arrays.asList(SEPARATORS.split(s, -1));
+        }
+
+        Set<String> unique = new LinkedHashSet<>();
+        for (String item : items) {
+            if (item == null) continue;
+            String kw = PythonUtils.strip(item);
+            if (kw.isEmpty()) continue;
+            for (int pass = 0; pass < 2; pass++) {
+                kw = PythonUtils.strip(PythonUtils.rstrip(PythonUtils.lstrip(PythonUtils.strip(kw), "["), "]"));
+                kw = PythonUtils.strip(PythonUtils.strip(kw, "\"'"));
+            }
+            if (kw.isEmpty() || kw.equals("[]") || kw.equals("[ ]")) continue;
+            unique.add(kw);
+        }
+        return unique.toArray(new String[0]);
+    }
+
+    // 辅助方法：JSON 元素的 Python str() 文本，null 返回 null
+    private static String jsonStr(JsonNode item) {
+        if (item.isNull()) return null;
+        if (item.isTextual()) return item.textValue();
+        if (item.isBoolean()) return item.booleanValue() ? "True" : "False";
+        if (item.isIntegralNumber()) return item.bigIntegerValue().toString();
+        if (item.isNumber()) return PythonUtils.pythonFloatRepr(item.doubleValue());
+        return item.toString();
+    }
+
+    // 辅助方法：在引擎线程池中执行并行流
+    private void run(Runnable task) throws InterruptedException {
+        try {
+            pool.submit(task).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.paper.service;
+
+/**
+ * 有界 Top-K 排名 - 基于原始类型数组的小顶堆
+ * <p>元组为 (score, kwHit, matchPct, ordinal)，排序规则与推荐页一致：
+ * score 降序 → kwHit 降序 → matchPct 降序 → 期刊序号升序（等价于原列表稳定排序）。</p>
+ * <p>堆顶始终是当前 K 个候选中最差的一个；多个分片各自扫描后可用 {@link #merge} 合并。</p>
+ */
+public final class TopKRanking {
+
+    private final int capacity;
+    private final double[] scores;
+    private final int[] kwHits;
+    private final int[] matchPcts;
+    private final int[] ordinals;
+    private int size = 0;
+
+    public TopKRanking(int k) {
+        this.capacity = Math.max(0, k);
+        this.scores = new double[capacity];
+        this.kwHits = new int[capacity];
+        this.matchPcts = new int[capacity];
+        this.ordinals = new int[capacity];
+    }
+
+    /**
+     * 提交一个候选
+     */
+    public void offer(double score, int kwHit, int matchPct, int ordinal) {
+        if (capacity == 0) {
+            return;
+        }
+        if (size < capacity) {
+            set(size, score, kwHit, matchPct, ordinal);
+            siftUp(size++);
+        } else if (compare(score, kwHit, matchPct, ordinal, 0) > 0) {
+            set(0, score, kwHit, matchPct, ordinal);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * 合并另一个分片的结果
+     */
+    public void merge(TopKRanking other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.scores[i], other.kwHits[i], other.matchPcts[i], other.ordinals[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 按名次从高到低输出结果（不修改堆本身）
+     */
+    public Result sorted() {
+        Result result = new Result(size);
+        System.arraycopy(scores, 0, result.scores, 0, size);
+        System.arraycopy(kwHits, 0, result.kwHits, 0, size);
+        System.arraycopy(matchPcts, 0, result.matchPcts, 0, size);
+        System.arraycopy(ordinals, 0, result.ordinals, 0, size);
+
+        // K 很小，插入排序即可
+        for (int i = 1; i < size; i++) {
+            double s = result.scores[i];
+            int h = result.kwHits[i], p = result.matchPcts[i], o = result.ordinals[i];
+            int j = i - 1;
+            while (j >= 0 && better(s, h, p, o,
+                    result.scores[j], result.kwHits[j], result.matchPcts[j], result.ordinals[j])) {
+                result.scores[j + 1] = result.scores[j];
+                result.kwHits[j + 1] = result.kwHits[j];
+                result.matchPcts[j + 1] = result.matchPcts[j];
+                result.ordinals[j + 1] = result.ordinals[j];
+                j--;
+            }
+            result.scores[j + 1] = s;
+            result.kwHits[j + 1] = h;
+            result.matchPcts[j + 1] = p;
+            result.ordinals[j + 1] = o;
+        }
+        return result;
+    }
+
+    private void set(int i, double score, int kwHit, int matchPct, int ordinal) {
+        scores[i] = score;
+        kwHits[i] = kwHit;
+        matchPcts[i] = matchPct;
+        ordinals[i] = ordinal;
+    }
+
+    private void swap(int a, int b) {
+        double s = scores[a]; scores[a] = scores[b]; scores[b] = s;
+        int h = kwHits[a]; kwHits[a] = kwHits[b]; kwHits[b] = h;
+        int p = matchPcts[a]; matchPcts[a] = matchPcts[b]; matchPcts[b] = p;
+        int o = ordinals[a]; ordinals[a] = ordinals[b]; ordinals[b] = o;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compareSlots(i, parent) >= 0) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                break;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && compareSlots(right, left) < 0) {
+                worst = right;
+            }
+            if (compareSlots(worst, i) >= 0) {
+                break;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    /** 槽位比较：<0 表示 a 比 b 更差 */
+    private int compareSlots(int a, int b) {
+        return compare(scores[a], kwHits[a], matchPcts[a], ordinals[a], b);
+    }
+
+    /** 候选与槽位比较：>0 表示候选更好 */
+    private int compare(double score, int kwHit, int matchPct, int ordinal, int slot) {
+        int c = Double.compare(score, scores[slot]);
+        if (c != 0) return c;
+        c = Integer.compare(kwHit, kwHits[slot]);
+        if (c != 0) return c;
+        c = Integer.compare(matchPct, matchPcts[slot]);
+        if (c != 0) return c;
+        return Integer.compare(ordinals[slot], ordinal);
+    }
+
+    private static boolean better(double s1, int h1, int p1, int o1, double s2, int h2, int p2, int o2) {
+        int c = Double.compare(s1, s2);
+        if (c != 0) return c > 0;
+        c = Integer.compare(h1, h2);
+        if (c != 0) return c > 0;
+        c = Integer.compare(p1, p2);
+        if (c != 0) return c > 0;
+        return o1 < o2;
+    }
+
+    /**
+     * 排名结果（下标0为第一名）
+     */
+    public static final class Result {
+        private final double[] scores;
+        private final int[] kwHits;
+        private final int[] matchPcts;
+        private final int[] ordinals;
+
+        Result(int size) {
+            this.scores = new double[size];
+            this.kwHits = new int[size];
+            this.matchPcts = new int[size];
+            this.ordinals = new int[size];
+        }
+
+        public int size() {
+            return ordinals.length;
+        }
+
+        public double score(int rank) {
+            return scores[rank];
+        }
+
+        public int kwHit(int rank) {
+            return kwHits[rank];
+        }
+
+        public int matchPct(int rank) {
+            return matchPcts[rank];
+        }
+
+        public int ordinal(int rank) {
+            return ordinals[rank];
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.paper.service;
+
+import com.paper.model.PaperTable;
+import com.paper.utils.PythonUtils;
+import com.paper.utils.UniformRanker;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 主题复杂度（香农熵）计算引擎
+ * <p>与 topic_analyzer_036.py 的 analyze_topic_entropy 口径一致：论文的作者关键词经
+ * {@link FieldOfStudyMatcher} 映射到研究领域，论文熵为领域分布的香农熵（log2），
+ * 期刊得分为论文熵均值 × 100，percent_score 为按该得分排名的 1~100 均匀映射。</p>
+ *
+ * <p>关键词清洗、领域匹配与论文熵在引擎线程池中并行计算；清洗后的关键词驻留在 {@link PaperCorpus} 中，
+ * 每个不同关键词只匹配一次，匹配结果在各次分析之间共享缓存。
+ * Python 中每篇论文的领域顺序取决于 set 的迭代顺序，熵值可能在最后一位不同，此处固定按首次命中的顺序累加。</p>
+ */
+public class TopicEntropyEngine {
+
+    private static final String KEYWORDS_COL = "keywords";
+    /** 读取的原始列（之后的指标都不需要时由 MetricEngines 释放） */
+    static final Set<String> RAW_COLUMNS = Set.of(KEYWORDS_COL);
+    /** 缺少期刊列时的期刊名（与 row.get(journal_col, "Unknown") 一致） */
+    private static final String DEFAULT_JOURNAL = "Unknown";
+    private static final double LN2 = Math.log(2.0);
+
+    private final ForkJoinPool pool;
+    private final FieldOfStudyMatcher matcher;
+
+    /**
+     * @param pool 并行计算使用的线程池
+     */
+    public TopicEntropyEngine(ForkJoinPool pool) {
+        this(pool, FieldOfStudyMatcher.defaultMatcher());
+    }
+
+    TopicEntropyEngine(ForkJoinPool pool, FieldOfStudyMatcher matcher) {
+        this.pool = pool;
+        this.matcher = matcher;
+    }
+
+    /**
+     * 计算期刊主题复杂度得分
+     *
+     * @param corpus 论文语料（使用 journal、keywords 列）
+     * @return 期刊得分行（journal, entropy_mean, avg_field_count, paper_count, percent_score_raw, percent_score），
+     *         按 percent_score 降序
+     */
+    public List<Map<String, Object>> analyze(PaperCorpus corpus) throws InterruptedException {
+        PaperTable table = corpus.table();
+        PaperCorpus.TokenColumn keywords = corpus.keywords("topic",
+                row -> cleanAuthorKeywords(table.get(KEYWORDS_COL, row), corpus.keywordLiteral(row)).toArray(new String[0]));
+        // 每个不同关键词只做一次领域匹配
+        int vocabulary = keywords.dictionarySize();
+        int rows = corpus.size();
+        boolean[] used = new boolean[vocabulary];
+        for (int i = 0; i < rows; i++) {
+            for (int id : keywords.ids(i)) used[id] = true;
+        }
+        int[] masks = new int[vocabulary];
+        run(() -> IntStream.range(0, vocabulary).parallel().forEach(id -> {
+            if (used[id]) masks[id] = matcher.match(keywords.name(id));
+        }));
+
+        double[] entropy = new double[rows];
+        int[] fieldCounts = new int[rows];
+        run(() -> IntStream.range(0, rows).parallel().forEach(i -> {
+            int[] counts = new int[matcher.fieldCount()];
+            int[] order = new int[counts.length];
+            int seen = 0;
+            for (int id : keywords.ids(i)) {
+                int mask = masks[id];
+                while (mask != 0) {
+                    int field = Integer.numberOfTrailingZeros(mask);
+                    mask &= mask - 1;
+                    if (counts[field]++ == 0) order[seen++] = field;
+                }
+            }
+            entropy[i] = shannonEntropy(counts, order, seen);
+            fieldCounts[i] = seen;
+        }));
+        System.out.println("[TopicEntropyEngine] Cached keyword mappings: " + matcher.cacheSize());
+        return aggregate(corpus, entropy, fieldCounts);
+    }
+
+    /**
+     * 领域分布的香农熵（log2），没有命中任何领域为 0
+     */
+    private static double shannonEntropy(int[] counts, int[] order, int seen) {
+        if (seen == 0) return 0.0;
+        long total = 0;
+        for (int k = 0; k < seen; k++) total += counts[order[k]];
+        // shares = c / total，再按 numpy 的 ps /= ps.sum() 归一化
+        double[] ps = new double[seen];
+        for (int k = 0; k < seen; k++) ps[k] = (double) counts[order[k]] / total;
+        double sum = PythonUtils.sum(ps, 0, seen);
+        for (int k = 0; k < seen; k++) {
+            ps[k] /= sum;
+            ps[k] *= Math.log(ps[k]) / LN2;
+        }
+        return -PythonUtils.sum(ps, 0, seen);
+    }
+
+    // ===================== 期刊级聚合 =====================
+
+    private List<Map<String, Object>> aggregate(PaperCorpus corpus, double[] entropy, int[] fieldCounts) {
+        // groupby 按期刊名排序分组、跳过缺失期刊，均值按行顺序做 Kahan 补偿求和
+        boolean hasJournal = corpus.hasJournals();
+        Map<String, double[]> sums = new TreeMap<>(PythonUtils::compare);  // {entropy, c, fields, c, count}
+        for (int i = 0; i < entropy.length; i++) {
+            int ordinal = corpus.journalOf(i);
+            if (hasJournal && ordinal < 0) continue;
+            String journal = hasJournal ? corpus.journalName(ordinal) : DEFAULT_JOURNAL;
+            double[] acc = sums.computeIfAbsent(journal, k -> new double[5]);
+            kahanAdd(acc, 0, entropy[i]);
+            kahanAdd(acc, 2, fieldCounts[i]);
+            acc[4]++;
+        }
+
+        int n = sums.size();
+        String[] journals = sums.keySet().toArray(new String[0]);
+        double[] raw = new double[n];
+        List<Map<String, Object>> result = new ArrayList<>(n);
+        for (int j = 0; j < n; j++) {
+            double[] acc = sums.get(journals[j]);
+            double entropyMean = acc[0] / acc[4];
+            // calculate_percent_score 经 Series.apply 收到 Python float，使用内置 round
+            raw[j] = PythonUtils.round(entropyMean * 100, 1);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("journal", journals[j]);
+            row.put("entropy_mean", entropyMean);
+            row.put("avg_field_count", acc[2] / acc[4]);
+            row.put("paper_count", (int) acc[4]);
+            row.put("percent_score_raw", raw[j]);
+            result.add(row);
+        }
+        // journals 已按期刊名排序，下标即同分次序
+        double[] percent = UniformRanker.rank(raw, IntStream.range(0, n).toArray(), 1, Double.NaN);
+        for (int j = 0; j < n; j++) {
+            result.get(j).put("percent_score", percent[j]);
+        }
+        // 稳定排序：同分保持期刊名顺序
+        result.sort((a, b) -> Double.compare((Double) b.get("percent_score"), (Double) a.get("percent_score")));
+        return result;
+    }
+
+    private static void kahanAdd(double[] acc, int index, double value) {
+        double y = value - acc[index + 1];
+        double t = acc[index] + y;
+        acc[index + 1] = t - acc[index] - y;
+        acc[index] = t;
+    }
+
+    // ===================== 关键词清洗 =====================
+
+    /**
+     * 作者关键词清洗：列表字面量（元素均为字符串）逐项转小写去空白，否则按 , ; 拆分并去掉空项
+     *
+     * @param parsed value 的列表字面量解析结果（见 {@link PaperCorpus#keywordLiteral(int)}）
+     */
+    static List<String> cleanAuthorKeywords(String value, List<Object> parsed) {
+        List<String> result = new ArrayList<>();
+        if (value == null) {
+            return result;
+        }
+        if (value.startsWith("[") && value.endsWith("]")) {
+            if (parsed != null && parsed.stream().allMatch(item -> item instanceof String)) {
+                for (Object item : parsed) {
+                    result.add(PythonUtils.strip(((String) item).toLowerCase(Locale.ROOT)));
+                }
+                return result;
+            }
+        }
+        for (String part : value.split("[,;]", -1)) {
+            String keyword = PythonUtils.strip(part);
+            if (!keyword.isEmpty()) {
+                result.add(keyword.toLowerCase(Locale.ROOT));
+            }
+        }
+        return result;
+    }
+
+    // 辅助方法：在引擎线程池中执行并行流
+    private void run(Runnable task) throws InterruptedException {
+        try {
+            pool.submit(task).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
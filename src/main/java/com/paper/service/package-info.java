@@ -5,7 +5,8 @@
  * 
  * @see com.paper.service.UserService 用户服务（登录、注册）
  * @see com.paper.service.AnalysisService 分析服务（数据分析）
- * @see com.paper.service.AIService DeepSeek AI 服务
+ * @see com.paper.service.AnalysisChatService 分析页 AI 助手对话
  * @see com.paper.service.PythonCaller Python 脚本调用
+ * @see com.paper.service.PythonWorkerPool Python 分析常驻进程池
  */
 package com.paper.service;
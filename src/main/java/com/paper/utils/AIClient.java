@@ -2,58 +2,332 @@ package com.paper.utils;
 
 import com.paper.config.AIProperties;
 import com.paper.config.AIPromptProperties;
+import com.paper.config.EnvConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
- * AI客户端工具类 - 使用Spring配置注入
- * 调用DeepSeek或其他OpenAI兼容的API
+ * AI网关 - 应用内所有大模型调用的统一出口
+ * 调用DeepSeek或其他OpenAI兼容的API，共用一个连接池、一套并发限制/熔断、重试策略与调用统计
+ *
+ * <p>不同业务通过 {@link Route} 区分：各路由有自己的采样参数与超时
+ * （ai.api.route-timeouts.&lt;路由名&gt;，未配置时使用 ai.api.timeout）。
+ * 连接失败、429 与 5xx 按指数退避加抖动重试，最多 ai.api.max-retries 次，且不超过总时限 ai.api.total-timeout；
+ * 流式调用只在尚未推送任何增量时重试。</p>
+ *
+ * <p>凭据优先读取 ai.api.*，ai.api.key 留空时回退到 .env 中的 DEEPSEEK_API_KEY / DEEPSEEK_API_BASE / DEEPSEEK_MODEL。</p>
  */
 @Component
 public class AIClient {
     
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
+    /**
+     * 调用路由
+     */
+    public enum Route {
+        /** 期刊详情分析 */
+        JOURNAL_DETAIL("journal-detail", 0.2, null),
+        /** 推荐匹配分析 */
+        RECOMMEND_MATCH("recommend-match", 0.2, null),
+        /** 分析页AI助手对话 */
+        CHAT("chat", null, 2000);
+        
+        private final String key;
+        private final Double temperature;
+        private final Integer maxTokens;
+        
+        Route(String key, Double temperature, Integer maxTokens) {
+            this.key = key;
+            this.temperature = temperature;
+            this.maxTokens = maxTokens;
+        }
+        
+        /** 配置与统计中使用的路由名 */
+        public String getKey() {
+            return key;
+        }
+    }
+    
     private final AIProperties aiProperties;
     private final AIPromptProperties promptProperties;
     private final ResourceLoader resourceLoader;
+    private final HttpClient httpClient;
+    private final AIGuard guard;
+    private final Map<Route, RouteMetrics> metrics = new EnumMap<>(Route.class);
     
     @Autowired
     public AIClient(AIProperties aiProperties, 
                     AIPromptProperties promptProperties,
-                    ResourceLoader resourceLoader) {
+                    ResourceLoader resourceLoader,
+                    AIGuard guard) {
+        this(aiProperties, promptProperties, resourceLoader, guard, HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(Math.max(1, aiProperties.getConnectTimeout())))
+            .build());
+    }
+    
+    /**
+     * 指定HTTP客户端（如连接本地桩服务时）
+     * <p>HttpClient 内部维护连接池，整个应用共用一个实例；HTTPS 下协商 HTTP/2 多路复用，
+     * 明文地址自动回退 HTTP/1.1 长连接。</p>
+     */
+    public AIClient(AIProperties aiProperties,
+                    AIPromptProperties promptProperties,
+                    ResourceLoader resourceLoader,
+                    AIGuard guard,
+                    HttpClient httpClient) {
         this.aiProperties = aiProperties;
         this.promptProperties = promptProperties;
         this.resourceLoader = resourceLoader;
+        this.guard = guard;
+        this.httpClient = httpClient;
+        for (Route route : Route.values()) {
+            metrics.put(route, new RouteMetrics());
+        }
+    }
+    
+    /**
+     * 构造 system + user 两条消息
+     */
+    public static List<Map<String, String>> messages(String systemPrompt, String userPrompt) {
+        List<Map<String, String>> messages = new ArrayList<>();
+        if (systemPrompt != null && !systemPrompt.isEmpty()) {
+            messages.add(Map.of("role", "system", "content", systemPrompt));
+        }
+        messages.add(Map.of("role", "user", "content", userPrompt));
+        return messages;
     }
     
     /**
      * 调用OpenAI兼容的Chat Completions API
      */
-    public String callChatCompletion(String systemPrompt, String userPrompt) 
+    public String callChatCompletion(Route route, String systemPrompt, String userPrompt) 
             throws IOException {
-        return callChatCompletion(systemPrompt, userPrompt, aiProperties.getTimeout());
+        return chat(route, messages(systemPrompt, userPrompt));
+    }
+    
+    /**
+     * 同步调用，阻塞等待回复
+     */
+    public String chat(Route route, List<Map<String, String>> messages) throws IOException {
+        try {
+            return chatAsync(route, messages).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
     }
     
     /**
-     * 调用OpenAI兼容的Chat Completions API（带超时）
+     * 异步调用Chat Completions API，不占用调用线程等待响应
      */
-    public String callChatCompletion(String systemPrompt, String userPrompt, 
-                                   double timeoutSeconds) throws IOException {
-        String baseUrl = aiProperties.getBaseUrl();
-        String apiKey = aiProperties.getKey();
-        String model = aiProperties.getModel();
+    public CompletableFuture<String> callChatCompletionAsync(Route route, String systemPrompt, String userPrompt) {
+        return chatAsync(route, messages(systemPrompt, userPrompt));
+    }
+    
+    /**
+     * 异步调用Chat Completions API（任意消息列表）
+     */
+    public CompletableFuture<String> chatAsync(Route route, List<Map<String, String>> messages) {
+        HttpRequest request;
+        try {
+            request = buildChatRequest(route, messages, false);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        return withRetry(route, () -> 
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new CompletionException(new ApiStatusException(response.statusCode(), response.body()));
+                    }
+                    return parseContent(response.body());
+                }), () -> true, value -> -1);
+    }
+    
+    /**
+     * 流式调用Chat Completions API（stream: true）
+     * <p>每收到一段增量内容即回调 onDelta；返回的 Future 在流结束时完成，
+     * 携带完整内容、用量（接口返回时）与首字/总耗时。</p>
+     */
+    public CompletableFuture<StreamResult> streamChatCompletion(Route route, String systemPrompt, String userPrompt,
+                                                                Consumer<String> onDelta) {
+        HttpRequest request;
+        try {
+            request = buildChatRequest(route, messages(systemPrompt, userPrompt), true);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        // 已经推送过增量的流不能重试，否则下游会收到重复内容
+        AtomicBoolean started = new AtomicBoolean(false);
+        Consumer<String> tracked = delta -> {
+            started.set(true);
+            onDelta.accept(delta);
+        };
+        
+        return withRetry(route, () -> {
+            long startNanos = System.nanoTime();
+            HttpResponse.BodyHandler<StreamResult> handler = info -> {
+                if (info.statusCode() != 200) {
+                    return HttpResponse.BodySubscribers.mapping(
+                        HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
+                        body -> {
+                            throw new UncheckedIOException(new ApiStatusException(info.statusCode(), body));
+                        });
+                }
+                return HttpResponse.BodySubscribers.fromLineSubscriber(
+                    new StreamLineSubscriber(tracked, startNanos),
+                    StreamLineSubscriber::result, StandardCharsets.UTF_8, null);
+            };
+            return httpClient.sendAsync(request, handler).thenApply(HttpResponse::body);
+        }, () -> !started.get(), AIClient::upstreamLatency);
+    }
+    
+    // 辅助方法：流式调用计入并发调整的耗时取首段内容到达耗时，不随回复长度变化
+    private static long upstreamLatency(StreamResult result) {
+        return result.getFirstTokenMillis() >= 0 ? result.getFirstTokenMillis() : result.getTotalMillis();
+    }
+    
+    // 辅助方法：在并发限制/熔断保护下执行调用，可重试的失败按指数退避加抖动重试
+    private <T> CompletableFuture<T> withRetry(Route route, Supplier<CompletableFuture<T>> attempt,
+                                               BooleanSupplier retryAllowed, ToLongFunction<T> upstreamLatency) {
+        RouteMetrics routeMetrics = metrics.get(route);
+        routeMetrics.calls.increment();
+        long startNanos = System.nanoTime();
+        
+        CompletableFuture<T> result = new CompletableFuture<>();
+        runAttempt(route, attempt, retryAllowed, upstreamLatency, 0, startNanos, result);
+        return result.whenComplete((value, e) -> {
+            if (e == null) {
+                routeMetrics.successes.increment();
+                routeMetrics.latencyMillis.add((System.nanoTime() - startNanos) / 1_000_000);
+            } else {
+                routeMetrics.failures.increment();
+            }
+        });
+    }
+    
+    private <T> void runAttempt(Route route, Supplier<CompletableFuture<T>> attempt, BooleanSupplier retryAllowed,
+                                ToLongFunction<T> upstreamLatency, int attemptNo, long startNanos,
+                                CompletableFuture<T> result) {
+        guard.callAsync(attempt, e -> isUpstreamFailure(unwrap(e)), upstreamLatency).whenComplete((value, e) -> {
+            if (e == null) {
+                result.complete(value);
+                return;
+            }
+            
+            Throwable cause = unwrap(e);
+            long delay = backoffMillis(attemptNo);
+            if (attemptNo < aiProperties.getMaxRetries() && isRetryable(cause) && retryAllowed.getAsBoolean()
+                    && withinBudget(route, startNanos, delay)) {
+                metrics.get(route).retries.increment();
+                System.err.println("[AIClient] " + route.getKey() + " 调用失败，" + delay + "ms 后重试: " 
+                    + cause.getMessage());
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                    .execute(() -> runAttempt(route, attempt, retryAllowed, upstreamLatency, attemptNo + 1,
+                        startNanos, result));
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+    }
+    
+    // 辅助方法：连接失败、429、5xx 可重试；熔断/限流、请求超时与其他 4xx 不重试
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof AIUnavailableException) {
+            return false;
+        }
+        if (e instanceof HttpTimeoutException) {
+            // 连接超时可重试；请求超时已等满整个超时时间，不再重试
+            return e instanceof HttpConnectTimeoutException;
+        }
+        if (e instanceof ApiStatusException) {
+            int status = ((ApiStatusException) e).status;
+            return status == 429 || status >= 500;
+        }
+        return e instanceof IOException;
+    }
+    
+    // 辅助方法：计入熔断与并发收缩的上游故障：超时、连接/IO 错误、429、5xx；其他 4xx 是请求或配置问题
+    private static boolean isUpstreamFailure(Throwable e) {
+        if (e instanceof ApiStatusException) {
+            int status = ((ApiStatusException) e).status;
+            return status == 429 || status >= 500;
+        }
+        return e instanceof IOException && !(e instanceof AIUnavailableException);
+    }
+    
+    // 辅助方法：退避等待后再完整等一次路由超时，是否仍在总时限（ai.api.total-timeout）内，
+    // 保证重试不会拖到 spring.mvc.async.request-timeout 之后
+    private boolean withinBudget(Route route, long startNanos, long delayMillis) {
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        long nextMillis = delayMillis + Math.max(1, timeoutSeconds(route)) * 1000L;
+        return elapsedMillis + nextMillis <= aiProperties.getTotalTimeout() * 1000L;
+    }
+    
+    // 辅助方法：第 n 次重试等待 base * 2^n，叠加 ±20% 抖动，避免多个请求同时重试
+    private long backoffMillis(int attemptNo) {
+        long base = Math.max(0, aiProperties.getRetryBackoffMs()) << Math.min(attemptNo, 10);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (base * jitter);
+    }
+    
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof UncheckedIOException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+    
+    /**
+     * 构造Chat Completions请求
+     */
+    private HttpRequest buildChatRequest(Route route, List<Map<String, String>> messages,
+                                         boolean stream) throws IOException {
+        String baseUrl = getBaseUrl();
+        String apiKey = getApiKey();
+        String model = getModel();
         
         if (baseUrl == null || baseUrl.isEmpty()) {
             throw new RuntimeException("未配置 ai.api.base-url");
@@ -70,74 +344,80 @@ public class AIClient {
         // 构造请求体
         Map<String, Object> payload = new HashMap<>();
         payload.put("model", model);
-        payload.put("temperature", 0.2);
-        
-        // 构造消息列表
-        Map<String, String>[] messages;
-        if (systemPrompt != null && !systemPrompt.isEmpty()) {
-            messages = new Map[]{
-                Map.of("role", "system", "content", systemPrompt),
-                Map.of("role", "user", "content", userPrompt)
-            };
-        } else {
-            messages = new Map[]{
-                Map.of("role", "user", "content", userPrompt)
-            };
+        if (route.temperature != null) {
+            payload.put("temperature", route.temperature);
+        }
+        if (route.maxTokens != null) {
+            payload.put("max_tokens", route.maxTokens);
+        }
+        if (stream) {
+            payload.put("stream", true);
+            payload.put("stream_options", Map.of("include_usage", true));
         }
         payload.put("messages", messages);
         
         String jsonPayload = objectMapper.writeValueAsString(payload);
         
-        // 发送HTTP POST请求
-        URL url = new URL(endpoint);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Authorization", "Bearer " + apiKey);
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setDoOutput(true);
-        conn.setConnectTimeout((int) (timeoutSeconds * 1000));
-        conn.setReadTimeout((int) (timeoutSeconds * 1000));
-        
-        // 发送请求体
-        try (OutputStream os = conn.getOutputStream()) {
-            byte[] input = jsonPayload.getBytes(StandardCharsets.UTF_8);
-            os.write(input, 0, input.length);
-        }
-        
-        // 读取响应
-        int responseCode = conn.getResponseCode();
-        if (responseCode != 200) {
-            try (BufferedReader br = new BufferedReader(
-                    new InputStreamReader(conn.getErrorStream(), StandardCharsets.UTF_8))) {
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = br.readLine()) != null) {
-                    response.append(line);
-                }
-                throw new IOException("API调用失败，响应码: " + responseCode + 
-                    ", 错误信息: " + response.toString());
-            }
-        }
-        
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = br.readLine()) != null) {
-                response.append(line);
-            }
-            
-            // 解析响应
-            var root = objectMapper.readTree(response.toString());
-            try {
-                return root.get("choices").get(0).get("message").get("content").asText().strip();
-            } catch (Exception e) {
-                // 兜底：返回原始响应
-                return response.toString();
-            }
+        return HttpRequest.newBuilder(URI.create(endpoint))
+            .timeout(Duration.ofSeconds(Math.max(1, timeoutSeconds(route))))
+            .header("Authorization", "Bearer " + apiKey)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(jsonPayload, StandardCharsets.UTF_8))
+            .build();
+    }
+    
+    /**
+     * 路由超时（秒）
+     */
+    private int timeoutSeconds(Route route) {
+        Integer timeout = aiProperties.getRouteTimeouts().get(route.getKey());
+        return timeout != null ? timeout : aiProperties.getTimeout();
+    }
+    
+    /**
+     * 解析响应中的回复内容
+     */
+    private String parseContent(String body) {
+        try {
+            var root = objectMapper.readTree(body);
+            return root.get("choices").get(0).get("message").get("content").asText().strip();
+        } catch (Exception e) {
+            // 兜底：返回原始响应
+            return body;
         }
     }
     
+    /**
+     * 是否使用 .env 中的 DeepSeek 凭据（ai.api.key 未配置时）
+     */
+    private boolean useEnvCredentials() {
+        String key = aiProperties.getKey();
+        return (key == null || key.isBlank()) && EnvConfig.hasValidDeepSeekKey();
+    }
+    
+    private String getApiKey() {
+        return useEnvCredentials() ? EnvConfig.get(EnvConfig.DEEPSEEK_API_KEY) : aiProperties.getKey();
+    }
+    
+    private String getBaseUrl() {
+        return useEnvCredentials() ? EnvConfig.get(EnvConfig.DEEPSEEK_API_BASE) : aiProperties.getBaseUrl();
+    }
+    
+    /**
+     * 当前使用的模型名
+     */
+    public String getModel() {
+        return useEnvCredentials() ? EnvConfig.get(EnvConfig.DEEPSEEK_MODEL) : aiProperties.getModel();
+    }
+    
+    /**
+     * 是否已配置可用的 API Key
+     */
+    public boolean isConfigured() {
+        String key = getApiKey();
+        return key != null && !key.isBlank() && !key.startsWith("your-");
+    }
+    
     /**
      * 加载期刊详情系统提示词
      */
@@ -173,15 +453,192 @@ public class AIClient {
         return "";
     }
     
+    /**
+     * 并发限制与熔断统计
+     */
+    public Map<String, Object> getGuardStats() {
+        return guard.stats();
+    }
+    
+    /**
+     * 各路由调用统计
+     */
+    public Map<String, Object> getRouteStats() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Map.Entry<Route, RouteMetrics> entry : metrics.entrySet()) {
+            stats.put(entry.getKey().getKey(), entry.getValue().stats());
+        }
+        return stats;
+    }
+    
     /**
      * 获取当前配置信息
      */
     public Map<String, String> getConfig() {
         Map<String, String> config = new HashMap<>();
-        config.put("baseUrl", aiProperties.getBaseUrl());
-        config.put("model", aiProperties.getModel());
-        config.put("apiKeySet", 
-            aiProperties.getKey() != null && !aiProperties.getKey().isEmpty() ? "true" : "false");
+        config.put("baseUrl", getBaseUrl());
+        config.put("model", getModel());
+        config.put("apiKeySet", isConfigured() ? "true" : "false");
+        config.put("credentialSource", useEnvCredentials() ? "env" : "properties");
         return config;
     }
+    
+    /**
+     * 单个路由的调用统计
+     */
+    private static final class RouteMetrics {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder latencyMillis = new LongAdder();
+        
+        Map<String, Object> stats() {
+            long ok = successes.sum();
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("calls", calls.sum());
+            stats.put("successes", ok);
+            stats.put("failures", failures.sum());
+            stats.put("retries", retries.sum());
+            stats.put("avg_latency_ms", ok == 0 ? 0 : latencyMillis.sum() / ok);
+            return stats;
+        }
+    }
+    
+    /**
+     * 上游返回非 200 状态码
+     */
+    private static final class ApiStatusException extends IOException {
+        private final int status;
+        
+        ApiStatusException(int status, String body) {
+            super("API调用失败，响应码: " + status + ", 错误信息: " + body);
+            this.status = status;
+        }
+    }
+    
+    /**
+     * 流式调用结果
+     */
+    public static final class StreamResult {
+        private final String content;
+        private final String model;
+        private final Map<String, Object> usage;
+        private final long firstTokenMillis;
+        private final long totalMillis;
+        
+        StreamResult(String content, String model, Map<String, Object> usage,
+                     long firstTokenMillis, long totalMillis) {
+            this.content = content;
+            this.model = model;
+            this.usage = usage;
+            this.firstTokenMillis = firstTokenMillis;
+            this.totalMillis = totalMillis;
+        }
+        
+        public String getContent() {
+            return content;
+        }
+        
+        /** 接口返回的模型名，未返回时为 null */
+        public String getModel() {
+            return model;
+        }
+        
+        /** token 用量，接口未返回时为空 Map */
+        public Map<String, Object> getUsage() {
+            return usage;
+        }
+        
+        /** 首段内容到达耗时（毫秒），无内容时为 -1 */
+        public long getFirstTokenMillis() {
+            return firstTokenMillis;
+        }
+        
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+    }
+    
+    /**
+     * 按行解析 SSE 响应：只处理 data: 行，遇到 [DONE] 忽略
+     */
+    private static final class StreamLineSubscriber implements Flow.Subscriber<String> {
+        private final Consumer<String> onDelta;
+        private final long startNanos;
+        private final StringBuilder content = new StringBuilder();
+        private Map<String, Object> usage = Map.of();
+        private String model;
+        private long firstTokenNanos = -1;
+        private boolean downstreamFailed = false;
+        
+        StreamLineSubscriber(Consumer<String> onDelta, long startNanos) {
+            this.onDelta = onDelta;
+            this.startNanos = startNanos;
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+        
+        @Override
+        public void onNext(String line) {
+            if (!line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring(5).trim();
+            if (data.isEmpty() || "[DONE]".equals(data)) {
+                return;
+            }
+            
+            JsonNode chunk;
+            try {
+                chunk = objectMapper.readTree(data);
+            } catch (IOException e) {
+                System.err.println("[AIClient] 无法解析流式数据: " + data);
+                return;
+            }
+            if (chunk.hasNonNull("model")) {
+                model = chunk.get("model").asText();
+            }
+            if (chunk.hasNonNull("usage")) {
+                usage = objectMapper.convertValue(chunk.get("usage"), 
+                    new TypeReference<Map<String, Object>>() {});
+            }
+            
+            String delta = chunk.path("choices").path(0).path("delta").path("content").asText("");
+            if (delta.isEmpty()) {
+                return;
+            }
+            if (firstTokenNanos < 0) {
+                firstTokenNanos = System.nanoTime();
+            }
+            content.append(delta);
+            
+            // 下游（如浏览器已断开）失败后不再回调，但继续读完以拿到完整内容与用量
+            if (!downstreamFailed) {
+                try {
+                    onDelta.accept(delta);
+                } catch (RuntimeException e) {
+                    downstreamFailed = true;
+                }
+            }
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+        }
+        
+        @Override
+        public void onComplete() {
+        }
+        
+        StreamResult result() {
+            long now = System.nanoTime();
+            long firstMillis = firstTokenNanos < 0 ? -1 : (firstTokenNanos - startNanos) / 1_000_000;
+            return new StreamResult(content.toString().strip(), model, usage, firstMillis,
+                (now - startNanos) / 1_000_000);
+        }
+    }
 }
@@ -0,0 +1,150 @@
+package com.paper.utils;
+
+import com.paper.config.AIProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * AI调用保护 - 自适应并发限制 + 熔断
+ * AI网关（AIClient）的所有路由访问同一个上游，共用一个实例，
+ * 上游变慢或故障时快速失败，避免请求线程堆积拖垮其他页面
+ *
+ * <p>参数见 ai.api.limit-initial / limit-min / limit-max、
+ * ai.api.breaker-failures / breaker-open-seconds</p>
+ */
+@Component
+public final class AIGuard {
+
+    private final AdaptiveLimiter limiter;
+    private final CircuitBreaker breaker;
+
+    @Autowired
+    public AIGuard(AIProperties aiProperties) {
+        this(new AdaptiveLimiter(
+                aiProperties.getLimitInitial(),
+                aiProperties.getLimitMin(),
+                aiProperties.getLimitMax(),
+                2.0),
+            new CircuitBreaker(
+                aiProperties.getBreakerFailures(),
+                aiProperties.getBreakerOpenSeconds() * 1000L));
+    }
+
+    AIGuard(AdaptiveLimiter limiter, CircuitBreaker breaker) {
+        this.limiter = limiter;
+        this.breaker = breaker;
+    }
+
+    /**
+     * 申请一次调用许可，熔断或限流时抛出 AIUnavailableException
+     */
+    public Permit acquire() throws AIUnavailableException {
+        long generation = breaker.allowRequest();
+        if (generation < 0) {
+            throw new AIUnavailableException("AI 服务暂时不可用（熔断中）");
+        }
+        if (!limiter.tryAcquire()) {
+            breaker.onIgnore(generation);
+            throw new AIUnavailableException("AI 服务繁忙（并发已达上限）");
+        }
+        return new Permit(generation);
+    }
+
+    /**
+     * 在许可保护下执行异步调用，按结果记录成功或失败
+     * <p>只有上游故障（由 isUpstreamFailure 判断，如超时、连接错误、429、5xx）计入熔断并收缩并发上限；
+     * 其他失败（如 400、401/403 等请求或配置错误）只归还名额，避免一个错误的 Key 或请求熔断所有调用。</p>
+     *
+     * <p>成功时计入并发调整的耗时由 upstreamLatency 给出：流式调用的许可持续到整个流结束，
+     * 总耗时取决于回复长度而不是上游状况，应传入首段内容到达耗时。</p>
+     *
+     * @param isUpstreamFailure 失败原因是否属于上游故障
+     * @param upstreamLatency 结果 → 耗时（毫秒），为负时按许可持有时间计
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call,
+                                              Predicate<Throwable> isUpstreamFailure,
+                                              ToLongFunction<T> upstreamLatency) {
+        Permit permit;
+        try {
+            permit = acquire();
+        } catch (AIUnavailableException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            // 请求未发出
+            permit.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((value, e) -> {
+            if (e == null) {
+                permit.success(upstreamLatency.applyAsLong(value));
+            } else if (isUpstreamFailure.test(e)) {
+                permit.failure();
+            } else {
+                permit.release();
+            }
+        });
+    }
+
+    /**
+     * 保护统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("limiter", limiter.stats());
+        stats.put("breaker", breaker.stats());
+        return stats;
+    }
+
+    /**
+     * 调用许可，success/failure/release 只生效一次
+     */
+    public final class Permit {
+        private final long startMillis = System.currentTimeMillis();
+        /** 发放许可时熔断器的代 */
+        private final long generation;
+        private boolean released = false;
+
+        private Permit(long generation) {
+            this.generation = generation;
+        }
+
+        /**
+         * @param latencyMillis 计入并发调整的耗时，为负时按许可持有时间计
+         */
+        public synchronized void success(long latencyMillis) {
+            if (released) return;
+            released = true;
+            limiter.onSuccess(latencyMillis >= 0 ? latencyMillis : System.currentTimeMillis() - startMillis);
+            breaker.onSuccess(generation);
+        }
+
+        public synchronized void failure() {
+            if (released) return;
+            released = true;
+            limiter.onFailure();
+            breaker.onFailure(generation);
+        }
+
+        /**
+         * 结果不反映上游健康状况（如 4xx 请求错误），只归还名额，不影响并发上限与熔断计数
+         */
+        public synchronized void release() {
+            if (released) return;
+            released = true;
+            limiter.onIgnore();
+            breaker.onIgnore(generation);
+        }
+    }
+}
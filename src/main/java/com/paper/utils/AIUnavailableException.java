@@ -0,0 +1,13 @@
+package com.paper.utils;
+
+import java.io.IOException;
+
+/**
+ * AI服务暂不可用（熔断或限流），调用方应改用规则生成的兜底内容
+ */
+public class AIUnavailableException extends IOException {
+
+    public AIUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,104 @@
+package com.paper.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 自适应并发限制器（AIMD）
+ * 根据调用耗时动态调整允许的并发数：正常时加性增长，变慢或失败时乘性收缩
+ *
+ * <p>“变慢”以长期平均耗时为基准：单次耗时超过基准的 {@code slowRatio} 倍视为拥塞。
+ * 达到上限时 {@link #tryAcquire()} 立即返回 false，调用方应快速失败而不是排队等待。</p>
+ */
+public class AdaptiveLimiter {
+
+    /** 长期平均耗时的平滑系数 */
+    private static final double BASELINE_ALPHA = 0.05;
+    /** 拥塞时的收缩比例 */
+    private static final double SLOW_BACKOFF = 0.9;
+    /** 失败时的收缩比例 */
+    private static final double FAILURE_BACKOFF = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double slowRatio;
+
+    private double limit;
+    private int inFlight = 0;
+    private double baselineMillis = -1;
+
+    private long accepted = 0;
+    private long rejected = 0;
+
+    /**
+     * @param initialLimit 初始并发数
+     * @param minLimit 最小并发数
+     * @param maxLimit 最大并发数
+     * @param slowRatio 超过长期平均耗时多少倍视为拥塞
+     */
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double slowRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.slowRatio = slowRatio;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        accepted++;
+        return true;
+    }
+
+    /**
+     * 调用成功，归还名额并按耗时调整上限
+     */
+    public synchronized void onSuccess(long latencyMillis) {
+        inFlight = Math.max(0, inFlight - 1);
+        if (baselineMillis < 0) {
+            baselineMillis = latencyMillis;
+        }
+
+        if (latencyMillis > baselineMillis * slowRatio) {
+            limit = Math.max(minLimit, limit * SLOW_BACKOFF);
+        } else {
+            // 每累计一个窗口的成功约增长 1
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        baselineMillis += BASELINE_ALPHA * (latencyMillis - baselineMillis);
+    }
+
+    /**
+     * 调用失败或超时，归还名额并收缩上限
+     */
+    public synchronized void onFailure() {
+        inFlight = Math.max(0, inFlight - 1);
+        limit = Math.max(minLimit, limit * FAILURE_BACKOFF);
+    }
+
+    /**
+     * 调用被取消等无法判断结果的情况，只归还名额
+     */
+    public synchronized void onIgnore() {
+        inFlight = Math.max(0, inFlight - 1);
+    }
+
+    /**
+     * 限流统计
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("limit", (int) limit);
+        stats.put("in_flight", inFlight);
+        stats.put("baseline_ms", baselineMillis < 0 ? 0 : Math.round(baselineMillis));
+        stats.put("accepted", accepted);
+        stats.put("rejected", rejected);
+        return stats;
+    }
+}
@@ -0,0 +1,129 @@
+package com.paper.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 熔断器
+ * 连续失败达到阈值后断开，冷却期内直接拒绝；冷却结束后半开，只放行一个探测请求，
+ * 探测成功则闭合，失败则重新断开
+ *
+ * <p>每次断开进入新的一代，许可带上发放时的代；上一代发出、断开后才返回的调用结果不再改变状态，
+ * 避免一个断开前发出的慢请求成功后绕过冷却期与半开探测直接闭合。</p>
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeInFlight = false;
+    /** 当前代（断开次数） */
+    private long generation = 0;
+
+    private long opens = 0;
+    private long shortCircuited = 0;
+
+    /**
+     * @param failureThreshold 连续失败多少次后断开
+     * @param openMillis 断开后的冷却时间（毫秒）
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 是否允许本次调用
+     *
+     * @return 许可所属的代，拒绝时为 -1；结果回报时原样传回
+     */
+    public synchronized long allowRequest() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        switch (state) {
+            case CLOSED:
+                return generation;
+            case HALF_OPEN:
+                if (!probeInFlight) {
+                    probeInFlight = true;
+                    return generation;
+                }
+                shortCircuited++;
+                return -1;
+            default:
+                shortCircuited++;
+                return -1;
+        }
+    }
+
+    /**
+     * 记录调用成功
+     *
+     * @param permitGeneration {@link #allowRequest()} 返回的代
+     */
+    public synchronized void onSuccess(long permitGeneration) {
+        if (permitGeneration != generation || state == State.OPEN) {
+            return;
+        }
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            System.out.println("[CircuitBreaker] Probe succeeded, circuit closed");
+        }
+        state = State.CLOSED;
+        probeInFlight = false;
+    }
+
+    /**
+     * 记录调用失败
+     *
+     * @param permitGeneration {@link #allowRequest()} 返回的代
+     */
+    public synchronized void onFailure(long permitGeneration) {
+        if (permitGeneration != generation || state == State.OPEN) {
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            opens++;
+            generation++;
+            System.err.println("[CircuitBreaker] Circuit opened after " + consecutiveFailures + " failures");
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * 放行后未实际发出调用（如被限流）或结果不反映上游状况，释放探测名额
+     *
+     * @param permitGeneration {@link #allowRequest()} 返回的代
+     */
+    public synchronized void onIgnore(long permitGeneration) {
+        if (permitGeneration == generation && state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 熔断统计
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", state.name());
+        stats.put("consecutive_failures", consecutiveFailures);
+        stats.put("opens", opens);
+        stats.put("short_circuited", shortCircuited);
+        return stats;
+    }
+}
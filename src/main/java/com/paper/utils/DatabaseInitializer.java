@@ -44,6 +44,9 @@ public class DatabaseInitializer {
                 // 创建分析记录表
                 createAnalysisRecordTable(stmt);
                 
+                // 创建AI响应缓存表
+                createAIResponseCacheTable(stmt);
+                
                 System.out.println("[DB Init] Database initialization completed!");
                 
             }
@@ -281,6 +284,10 @@ public class DatabaseInitializer {
                     original_name VARCHAR(255),
                     file_size BIGINT,
                     analysis_result TEXT,
+                    status VARCHAR(20),
+                    job_id VARCHAR(64),
+                    error_message TEXT,
+                    updated_at TIMESTAMP,
                     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
                 )
             """;
@@ -293,23 +300,90 @@ public class DatabaseInitializer {
                     original_name VARCHAR(255),
                     file_size BIGINT,
                     analysis_result TEXT,
+                    status VARCHAR(20),
+                    job_id VARCHAR(64),
+                    error_message TEXT,
+                    updated_at TIMESTAMP NULL,
                     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
                     INDEX idx_analysis_username (username),
-                    INDEX idx_analysis_created (created_at)
+                    INDEX idx_analysis_created (created_at),
+                    INDEX idx_analysis_job (job_id)
                 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
             """;
         }
         stmt.executeUpdate(sql);
         
+        // 旧表补充分析任务状态列
+        addColumnIfMissing(stmt, "analysis_record", "status", "VARCHAR(20)");
+        addColumnIfMissing(stmt, "analysis_record", "job_id", "VARCHAR(64)");
+        addColumnIfMissing(stmt, "analysis_record", "error_message", "TEXT");
+        addColumnIfMissing(stmt, "analysis_record", "updated_at",
+            DatabaseConfig.isSQLiteMode() ? "TIMESTAMP" : "TIMESTAMP NULL");
+        
         // 为 SQLite 创建索引
         if (DatabaseConfig.isSQLiteMode()) {
             try {
                 stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_analysis_username ON analysis_record(username)");
                 stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_analysis_created ON analysis_record(created_at)");
+                stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_analysis_job ON analysis_record(job_id)");
             } catch (SQLException e) {
                 // 索引可能已存在，忽略
             }
         }
         System.out.println("  [OK] Table 'analysis_record' created");
     }
+    
+    /**
+     * 为已存在的表补充新增列，列已存在时忽略
+     */
+    private static void addColumnIfMissing(Statement stmt, String table, String column, String definition) {
+        try {
+            stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+            System.out.println("  [OK] Column '" + table + "." + column + "' added");
+        } catch (SQLException e) {
+            // 列已存在，忽略
+        }
+    }
+    
+    /**
+     * 创建AI响应缓存表
+     */
+    private static void createAIResponseCacheTable(Statement stmt) throws SQLException {
+        String sql;
+        if (DatabaseConfig.isSQLiteMode()) {
+            sql = """
+                CREATE TABLE IF NOT EXISTS ai_response_cache (
+                    cache_key VARCHAR(64) PRIMARY KEY,
+                    model VARCHAR(100),
+                    catalog_fingerprint VARCHAR(64),
+                    response TEXT NOT NULL,
+                    latency_ms BIGINT,
+                    created_at BIGINT NOT NULL
+                )
+            """;
+        } else {
+            sql = """
+                CREATE TABLE IF NOT EXISTS ai_response_cache (
+                    cache_key VARCHAR(64) PRIMARY KEY,
+                    model VARCHAR(100),
+                    catalog_fingerprint VARCHAR(64),
+                    response MEDIUMTEXT NOT NULL,
+                    latency_ms BIGINT,
+                    created_at BIGINT NOT NULL,
+                    INDEX idx_ai_cache_created (created_at)
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+            """;
+        }
+        stmt.executeUpdate(sql);
+        
+        // 为 SQLite 创建索引
+        if (DatabaseConfig.isSQLiteMode()) {
+            try {
+                stmt.executeUpdate("CREATE INDEX IF NOT EXISTS idx_ai_cache_created ON ai_response_cache(created_at)");
+            } catch (SQLException e) {
+                // 索引可能已存在，忽略
+            }
+        }
+        System.out.println("  [OK] Table 'ai_response_cache' created");
+    }
 }
@@ -0,0 +1,151 @@
+package com.paper.utils;
+
+import java.util.Arrays;
+
+/**
+ * int → int 计数表（开放寻址，线性探测），按键首次出现的顺序遍历
+ * <p>哈希槽只存放条目序号，键与计数按插入顺序存放在两个 int[] 中，
+ * 用于关键词编号的频次统计（对应 pandas value_counts 之前的 hashtable 计数）。</p>
+ * <p>非线程安全。</p>
+ */
+public class IntCountMap {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** 槽内为条目序号 + 1，0 为空槽 */
+    private int[] slots;
+    private int[] keys;
+    private int[] counts;
+    private int mask;
+    private int size = 0;
+    private long total = 0;
+    private int resizeAt;
+
+    public IntCountMap() {
+        this(8);
+    }
+
+    /**
+     * @param expectedSize 预计不同键的个数
+     */
+    public IntCountMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) Math.ceil(expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+        keys = new int[Math.max(4, expectedSize)];
+        counts = new int[keys.length];
+    }
+
+    /**
+     * 键的计数加一
+     */
+    public void increment(int key) {
+        int slot = slot(key);
+        while (true) {
+            int entry = slots[slot];
+            if (entry == 0) {
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size << 1);
+                    counts = Arrays.copyOf(counts, size << 1);
+                }
+                keys[size] = key;
+                counts[size] = 1;
+                slots[slot] = ++size;
+                total++;
+                if (size > resizeAt) {
+                    resize();
+                }
+                return;
+            }
+            if (keys[entry - 1] == key) {
+                counts[entry - 1]++;
+                total++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 获取键的计数，不存在为 0
+     */
+    public int get(int key) {
+        int slot = slot(key);
+        while (true) {
+            int entry = slots[slot];
+            if (entry == 0) return 0;
+            if (keys[entry - 1] == key) return counts[entry - 1];
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /** 不同键的个数 */
+    public int size() {
+        return size;
+    }
+
+    /** 所有计数之和 */
+    public long total() {
+        return total;
+    }
+
+    /** 第 index 个插入的键 */
+    public int keyAt(int index) {
+        return keys[index];
+    }
+
+    /** 第 index 个插入的键的计数 */
+    public int countAt(int index) {
+        return counts[index];
+    }
+
+    /**
+     * 计数最高的前 k 个键，同频按首次出现顺序
+     */
+    public int[] topKeys(int k) {
+        int n = Math.min(k, size);
+        int[] top = new int[n];
+        boolean[] taken = new boolean[size];
+        for (int t = 0; t < n; t++) {
+            int best = -1;
+            for (int i = 0; i < size; i++) {
+                if (!taken[i] && (best < 0 || counts[i] > counts[best])) best = i;
+            }
+            taken[best] = true;
+            top[t] = keys[best];
+        }
+        return top;
+    }
+
+    private int slot(int key) {
+        // murmur3 fmix32
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    private void allocate(int capacity) {
+        slots = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void resize() {
+        allocate(slots.length << 1);
+        for (int i = 0; i < size; i++) {
+            int slot = slot(keys[i]);
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IntCountMap{size=" + size + ", capacity=" + slots.length + "}";
+    }
+}
@@ -0,0 +1,111 @@
+package com.paper.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paper.model.JournalMetrics;
+
+/**
+ * 关键词工具类
+ * 提供期刊 top_keywords 字段解析与关键词归一化
+ */
+public class KeywordUtils {
+
+    /** top_keywords 覆盖的起止年份 */
+    public static final int FIRST_KEYWORD_YEAR = 2021;
+    public static final int LAST_KEYWORD_YEAR = 2025;
+
+    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 归一化关键词（小写、去除多余空格）
+     *
+     * @param keyword 原始关键词
+     * @return 归一化结果，null 返回空串
+     */
+    public static String normalize(String keyword) {
+        if (keyword == null) return "";
+        return String.join(" ", WHITESPACE_PATTERN.split(keyword.trim().toLowerCase()));
+    }
+
+    /**
+     * 从期刊行中提取各年份的 top_keywords
+     *
+     * @param row 期刊指标行
+     * @return 年份 → 关键词列表（2021-2025 均有键）
+     */
+    public static Map<Integer, List<String>> topKeywordsByYear(JournalMetrics row) {
+        Map<Integer, List<String>> result = new LinkedHashMap<>();
+        if (row == null) {
+            return result;
+        }
+        result.put(2021, parseKeywordsValue(row.getTopKeywords2021()));
+        result.put(2022, parseKeywordsValue(row.getTopKeywords2022()));
+        result.put(2023, parseKeywordsValue(row.getTopKeywords2023()));
+        result.put(2024, parseKeywordsValue(row.getTopKeywords2024()));
+        result.put(2025, parseKeywordsValue(row.getTopKeywords2025()));
+        return result;
+    }
+
+    /**
+     * 解析关键词字段（支持JSON数组、Python字符串表示等）
+     *
+     * @param value 字段原始文本
+     * @return 关键词列表
+     */
+    public static List<String> parseKeywordsValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String s = value.trim();
+
+        // 尝试JSON解析
+        try {
+            JsonNode node = objectMapper.readTree(s);
+            if (node.isArray()) {
+                List<String> result = new ArrayList<>();
+                for (JsonNode item : node) {
+                    String keyword = item.asText().trim();
+                    if (!keyword.isEmpty()) {
+                        result.add(keyword);
+                    }
+                }
+                return result;
+            } else if (node.isObject()) {
+                // 如果是对象，按值（频次）降序排列
+                List<String> result = new ArrayList<>();
+                node.fields().forEachRemaining(entry -> {
+                    result.add(entry.getKey());
+                });
+                return result;
+            }
+        } catch (Exception e) {
+            // 不是有效JSON，继续尝试其他方式
+        }
+
+        // 兜底：按分隔符拆分
+        String[] separators = {";", "；", ",", "，", "|", "/"};
+        for (String sep : separators) {
+            if (s.contains(sep)) {
+                String[] parts = s.split(sep);
+                List<String> result = new ArrayList<>();
+                for (String part : parts) {
+                    String trimmed = part.trim();
+                    if (!trimmed.isEmpty()) {
+                        result.add(trimmed);
+                    }
+                }
+                return result;
+            }
+        }
+
+        return List.of(s);
+    }
+}
@@ -0,0 +1,115 @@
+package com.paper.utils;
+
+/**
+ * long → short 开放寻址哈希表（线性探测）
+ * <p>键与值分别存放在 long[] 与 short[] 中，每个条目约 10 字节（按装载因子 0.75 约 13 字节），
+ * 用于关键词对首次出现年份等大规模索引。键 0 保留为空槽标记，不能作为键使用。</p>
+ * <p>非线程安全：构建完成后可被多个线程并发只读。</p>
+ */
+public class LongShortMap {
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private short[] values;
+    private int mask;
+    private int size = 0;
+    private int resizeAt;
+
+    /**
+     * @param expectedSize 预计条目数
+     */
+    public LongShortMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) Math.ceil(expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * 获取键对应的值
+     *
+     * @param missing 键不存在时的返回值
+     */
+    public short get(long key, short missing) {
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == 0) return missing;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 写入 min(原值, value)，键不存在时直接写入
+     */
+    public void putMin(long key, short value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                if (value < values[slot]) values[slot] = value;
+                return;
+            }
+            if (k == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > resizeAt) {
+                    resize();
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** 占用的数组字节数（不含对象头） */
+    public long memoryBytes() {
+        return (long) keys.length * (Long.BYTES + Short.BYTES);
+    }
+
+    private int slot(long key) {
+        // murmur3 fmix64
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new short[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        short[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k == 0) continue;
+            int slot = slot(k);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = k;
+            values[slot] = oldValues[i];
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongShortMap{size=" + size + ", capacity=" + keys.length + "}";
+    }
+}
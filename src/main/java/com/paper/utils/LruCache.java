@@ -0,0 +1,172 @@
+package com.paper.utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * 内存LRU缓存工具类
+ * 按容量淘汰最久未访问的条目，可选按时间过期，并统计命中率
+ *
+ * <p>所有方法均为同步方法，适用于读写量不大的服务端缓存</p>
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final boolean refreshOnAccess;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param maxSize 最大条目数
+     * @param ttlMillis 过期时间（毫秒），不大于0表示不过期
+     * @param refreshOnAccess true 按空闲时间过期（每次访问续期），false 按写入时间过期
+     */
+    public LruCache(int maxSize, long ttlMillis, boolean refreshOnAccess) {
+        this.maxSize = Math.max(1, maxSize);
+        this.ttlMillis = ttlMillis;
+        this.refreshOnAccess = refreshOnAccess;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存值，不存在或已过期返回 null
+     */
+    public synchronized V get(K key) {
+        if (key == null) {
+            misses++;
+            return null;
+        }
+        Entry<V> entry = map.get(key);
+        long now = System.currentTimeMillis();
+        if (entry == null || isExpired(entry, now)) {
+            if (entry != null) {
+                map.remove(key);
+                evictions++;
+            }
+            misses++;
+            return null;
+        }
+        if (refreshOnAccess) {
+            entry.touchedAt = now;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * 写入缓存
+     */
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        map.put(key, new Entry<>(value, System.currentTimeMillis()));
+    }
+
+    /**
+     * 删除指定键
+     */
+    public synchronized V remove(K key) {
+        Entry<V> entry = map.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * 删除满足条件的条目
+     *
+     * @return 删除数量
+     */
+    public synchronized int removeIf(BiPredicate<K, V> predicate) {
+        int removed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entry<V>> e = it.next();
+            if (predicate.test(e.getKey(), e.getValue().value)) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 清理已过期的条目
+     *
+     * @return 清理数量
+     */
+    public synchronized int evictExpired() {
+        if (ttlMillis <= 0) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        Iterator<Entry<V>> it = map.values().iterator();
+        while (it.hasNext()) {
+            if (isExpired(it.next(), now)) {
+                it.remove();
+                removed++;
+            }
+        }
+        evictions += removed;
+        return removed;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * 命中统计
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        long total = hits + misses;
+        stats.put("size", map.size());
+        stats.put("max_size", maxSize);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("evictions", evictions);
+        stats.put("hit_ratio", total == 0 ? 0.0 : (double) hits / total);
+        return stats;
+    }
+
+    private boolean isExpired(Entry<V> entry, long now) {
+        return ttlMillis > 0 && now - entry.touchedAt > ttlMillis;
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        long touchedAt;
+
+        Entry(V value, long touchedAt) {
+            this.value = value;
+            this.touchedAt = touchedAt;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.paper.utils;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import com.paper.model.PaperTable;
+
+/**
+ * 论文 CSV 读取工具类
+ * 与 main.py 的 analyze_user_data 读取方式一致：目录下所有 *.csv，依次尝试 UTF-8(BOM)/GB18030 编码，
+ * pandas 默认的缺失值标记（空串、NA、null 等）读为 null，无法解析的文件跳过
+ */
+public class PaperCsvReader {
+
+    /** pandas read_csv 默认的缺失值文本 */
+    private static final Set<String> NA_VALUES = Set.of(
+        "", "#N/A", "#N/A N/A", "#NA", "-1.#IND", "-1.#QNAN", "-NaN", "-nan", "1.#IND", "1.#QNAN",
+        "<NA>", "N/A", "NA", "NULL", "NaN", "None", "n/a", "nan", "null");
+
+    private static final Charset GB18030 = Charset.forName("GB18030");
+
+    /**
+     * 读取目录下的所有 CSV 文件
+     *
+     * @param dir 数据目录
+     * @return 合并后的数据表，没有可读文件时为空表
+     */
+    public static PaperTable readDirectory(Path dir) throws IOException {
+        PaperTable table = new PaperTable();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.csv")) {
+            for (Path file : stream) {
+                if (!Files.isRegularFile(file)) continue;
+                try {
+                    readFile(file, table);
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("[PaperCsvReader] Skipped " + file.getFileName() + ": " + e.getMessage());
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * 读取单个 CSV 文件并追加到数据表
+     * <p>按记录流式解析，不整体读入文件内容；UTF-8 解码失败时从头以 GB18030 重新解析</p>
+     */
+    public static void readFile(Path file, PaperTable table) throws IOException {
+        List<String[]> records;
+        try {
+            records = readRecords(file, StandardCharsets.UTF_8, true);
+        } catch (CharacterCodingException e) {
+            records = readRecords(file, GB18030, false);
+        }
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("No columns to parse from file");
+        }
+        String[] headerRow = records.get(0);
+        List<String> header = new ArrayList<>(headerRow.length);
+        for (String name : headerRow) {
+            header.add(name == null ? "" : name);
+        }
+        table.append(file.getFileName().toString(), header, records.subList(1, records.size()));
+    }
+
+    // 辅助方法：严格解码（无法解码时抛出 CharacterCodingException），逐条解析记录并检查字段数
+    private static List<String[]> readRecords(Path file, Charset charset, boolean skipBom) throws IOException {
+        CharsetDecoder decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), decoder)) {
+            RecordParser parser = new RecordParser(reader, skipBom);
+            List<String[]> records = new ArrayList<>();
+            String[] record;
+            while ((record = parser.next()) != null) {
+                if (!records.isEmpty() && record.length > records.get(0).length) {
+                    throw new IllegalArgumentException("Expected " + records.get(0).length + " fields in line "
+                        + (records.size() + 1) + ", saw " + record.length);
+                }
+                records.add(record);
+            }
+            return records;
+        }
+    }
+
+    /**
+     * RFC 4180 记录解析器（引号内可含逗号与换行，"" 表示引号），跳过空行，缺失值转为 null
+     */
+    private static final class RecordParser {
+        private final Reader reader;
+        private final char[] buffer = new char[8192];
+        private int position = 0;
+        private int limit = 0;
+        private final List<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+
+        RecordParser(Reader reader, boolean skipBom) throws IOException {
+            this.reader = reader;
+            if (skipBom && peek() == '\uFEFF') {
+                read();
+            }
+        }
+
+        /**
+         * 下一条记录，文件结束时返回 null
+         */
+        String[] next() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            while (true) {
+                int c = read();
+                if (c < 0) {
+                    return fields.isEmpty() && field.length() == 0 && !wasQuoted ? null : finish();
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            read();
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == ',') {
+                    fields.add(toValue(field));
+                    field.setLength(0);
+                    wasQuoted = false;
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r' && peek() == '\n') {
+                        read();
+                    }
+                    if (!fields.isEmpty() || field.length() > 0 || wasQuoted) {
+                        return finish();
+                    }
+                    // 空行
+                } else {
+                    field.append((char) c);
+                }
+            }
+        }
+
+        private String[] finish() {
+            fields.add(toValue(field));
+            return fields.toArray(new String[0]);
+        }
+
+        private int read() throws IOException {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        private int peek() throws IOException {
+            int c = read();
+            if (c >= 0) {
+                position--;
+            }
+            return c;
+        }
+    }
+
+    private static String toValue(StringBuilder field) {
+        String value = field.toString();
+        return NA_VALUES.contains(value) ? null : value;
+    }
+}
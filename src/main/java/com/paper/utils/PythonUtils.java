@@ -0,0 +1,518 @@
+package com.paper.utils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Python 兼容工具类
+ * 提供与 Python 分析脚本行为一致的字面量解析、空白判断与舍入，供 Java 指标引擎复现相同结果
+ */
+public class PythonUtils {
+
+    /** Python float() 接受的十进制文本（数字间可有下划线） */
+    private static final Pattern FLOAT_PATTERN = Pattern.compile(
+        "[+-]?(?:\\d(?:_?\\d)*(?:\\.(?:\\d(?:_?\\d)*)?)?|\\.\\d(?:_?\\d)*)(?:[eE][+-]?\\d(?:_?\\d)*)?");
+
+    /**
+     * 与 Python {@code str.isspace()} 一致的空白判断（包括 \xa0、　 等）
+     */
+    public static boolean isSpace(int c) {
+        return Character.isWhitespace(c) || Character.isSpaceChar(c) || c == 0x85;
+    }
+
+    /**
+     * 与 Python {@code str.strip()} 一致：去除两侧空白
+     */
+    public static String strip(String s) {
+        int start = 0;
+        int end = s.length();
+        while (start < end && isSpace(s.charAt(start))) start++;
+        while (end > start && isSpace(s.charAt(end - 1))) end--;
+        return s.substring(start, end);
+    }
+
+    /**
+     * 与 Python {@code str.strip(chars)} 一致：去除两侧属于 chars 的字符
+     */
+    public static String strip(String s, String chars) {
+        int start = 0;
+        int end = s.length();
+        while (start < end && chars.indexOf(s.charAt(start)) >= 0) start++;
+        while (end > start && chars.indexOf(s.charAt(end - 1)) >= 0) end--;
+        return s.substring(start, end);
+    }
+
+    /**
+     * 与 Python {@code str.rstrip(chars)} 一致
+     */
+    public static String rstrip(String s, String chars) {
+        int end = s.length();
+        while (end > 0 && chars.indexOf(s.charAt(end - 1)) >= 0) end--;
+        return s.substring(0, end);
+    }
+
+    /**
+     * 与 Python {@code str.lstrip(chars)} 一致
+     */
+    public static String lstrip(String s, String chars) {
+        int start = 0;
+        while (start < s.length() && chars.indexOf(s.charAt(start)) >= 0) start++;
+        return s.substring(start);
+    }
+
+    /**
+     * 按码点计算长度（Python {@code len(str)}）
+     */
+    public static int length(String s) {
+        return s.codePointCount(0, s.length());
+    }
+
+    /**
+     * 按码点比较字符串（Python 字符串排序规则）
+     */
+    public static int compare(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) return Integer.compare(ca, cb);
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    /**
+     * 与 numpy/pandas {@code round(x, 2)} 一致（半数取偶）
+     */
+    public static double round2(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return value;
+        return Math.rint(value * 100.0) / 100.0;
+    }
+
+    /**
+     * 与 Python 内置 {@code round(x, digits)}（参数为 float）一致：按 double 的精确值半数取偶，
+     * 如 round(1.15, 1) = 1.1（1.15 实际略小于 1.15）；numpy 先乘 10^digits 再取整，结果可能不同
+     */
+    public static double round(double value, int digits) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return value;
+        double rounded = new BigDecimal(value).setScale(digits, RoundingMode.HALF_EVEN).doubleValue();
+        // 与 Python 一致保留零的符号，如 round(-0.04, 1) = -0.0
+        return rounded == 0.0 ? Math.copySign(0.0, value) : rounded;
+    }
+
+    /**
+     * 与 numpy {@code sum} 一致的成对求和（8 路展开，块大小 128），保证与 pandas 求均值的结果逐位相同
+     */
+    public static double sum(double[] values, int from, int to) {
+        int n = to - from;
+        if (n < 8) {
+            double res = 0.0;
+            for (int i = from; i < to; i++) res += values[i];
+            return res;
+        }
+        if (n <= 128) {
+            double[] r = new double[8];
+            System.arraycopy(values, from, r, 0, 8);
+            int i = 8;
+            for (; i < n - (n % 8); i += 8) {
+                for (int j = 0; j < 8; j++) r[j] += values[from + i + j];
+            }
+            double res = ((r[0] + r[1]) + (r[2] + r[3])) + ((r[4] + r[5]) + (r[6] + r[7]));
+            for (; i < n; i++) res += values[from + i];
+            return res;
+        }
+        int half = n / 2;
+        half -= half % 8;
+        return sum(values, from, from + half) + sum(values, from + half, to);
+    }
+
+    /**
+     * 与 Python {@code float(str)} 一致的解析
+     *
+     * @return 无法解析时返回 null
+     */
+    public static Double parseFloat(String value) {
+        if (value == null) return null;
+        String t = strip(value);
+        String lower = t.toLowerCase(Locale.ROOT);
+        String unsigned = lower.startsWith("+") || lower.startsWith("-") ? lower.substring(1) : lower;
+        if (unsigned.equals("nan")) return Double.NaN;
+        if (unsigned.equals("inf") || unsigned.equals("infinity")) {
+            return lower.startsWith("-") ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        if (!FLOAT_PATTERN.matcher(t).matches()) return null;
+        return Double.parseDouble(t.replace("_", ""));
+    }
+
+    /**
+     * 与 {@code [str(x) for x in ast.literal_eval(value)]} 一致：解析列表/元组/集合字面量，
+     * None 元素保留为 "None"
+     *
+     * @return 不是容器字面量或无法解析时返回 null
+     */
+    public static List<String> literalList(String value) {
+        List<Object> values = literalValues(value, "[({");
+        if (values == null) return null;
+        List<String> result = new ArrayList<>(values.size());
+        for (Object v : values) {
+            result.add(str(v));
+        }
+        return result;
+    }
+
+    /**
+     * 与 {@code ast.literal_eval(value)} 一致地解析容器字面量，保留元素类型：
+     * str → String，int → BigInteger，float → Double，bool → Boolean，None → null
+     *
+     * @param containers 接受的容器起始字符，如 "[(" 表示只接受 list/tuple
+     * @return 不是接受的容器或无法解析时返回 null
+     */
+    public static List<Object> literalValues(String value, String containers) {
+        if (value == null) return null;
+        LiteralParser parser = new LiteralParser(value);
+        try {
+            return parser.parseContainerOnly(containers);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 与 Python {@code str(x)} 一致（x 为 {@link #literalValues} 返回的元素）
+     */
+    public static String str(Object value) {
+        if (value == null) return "None";
+        if (value instanceof Boolean) return (Boolean) value ? "True" : "False";
+        if (value instanceof Double) return pythonFloatRepr((Double) value);
+        return value.toString();
+    }
+
+    /**
+     * 与 Python {@code bool(x)} 一致（x 为 {@link #literalValues} 返回的元素）
+     */
+    public static boolean truthy(Object value) {
+        if (value == null) return false;
+        if (value instanceof Boolean) return (Boolean) value;
+        if (value instanceof Double) return (Double) value != 0.0;
+        if (value instanceof BigInteger) return ((BigInteger) value).signum() != 0;
+        return !value.toString().isEmpty();
+    }
+
+    /**
+     * 将字段值转换为列表，与分析脚本中的 {@code _to_list} 一致：
+     * <ul>
+     *   <li>null → 空列表</li>
+     *   <li>Python 列表/元组/集合字面量 → 元素列表（None 元素跳过，数字保留文本）</li>
+     *   <li>其他可解析的字面量（字符串、数字）→ 空列表</li>
+     *   <li>无法解析 → 整个值作为单个元素</li>
+     * </ul>
+     */
+    public static List<String> toList(String value) {
+        if (value == null) {
+            return new ArrayList<>();
+        }
+        LiteralParser parser = new LiteralParser(value);
+        try {
+            List<String> result = new ArrayList<>();
+            for (Object item : parser.parseTopLevel()) {
+                if (item != null) {
+                    result.add(str(item));
+                }
+            }
+            return result;
+        } catch (IllegalArgumentException e) {
+            List<String> single = new ArrayList<>();
+            single.add(value);
+            return single;
+        }
+    }
+
+    /**
+     * Python 字面量解析器（仅支持分析数据中出现的字符串、数字、None 及一层容器）
+     */
+    private static final class LiteralParser {
+        private final String s;
+        private int pos = 0;
+
+        LiteralParser(String s) {
+            this.s = s;
+        }
+
+        List<Object> parseContainerOnly(String containers) {
+            skipSpaces();
+            char c = peek();
+            if (c == '\0' || containers.indexOf(c) < 0) {
+                throw new IllegalArgumentException("not a container");
+            }
+            List<Object> result = parseContainer();
+            skipSpaces();
+            if (pos != s.length()) {
+                throw new IllegalArgumentException("trailing characters");
+            }
+            return result;
+        }
+
+        List<Object> parseTopLevel() {
+            skipSpaces();
+            if (pos >= s.length()) {
+                throw new IllegalArgumentException("empty");
+            }
+            List<Object> result;
+            char c = s.charAt(pos);
+            if (c == '[' || c == '(' || c == '{') {
+                result = parseContainer();
+            } else {
+                // 标量字面量：可解析则不是列表
+                parseScalar();
+                result = new ArrayList<>();
+            }
+            skipSpaces();
+            if (pos != s.length()) {
+                throw new IllegalArgumentException("trailing characters");
+            }
+            return result;
+        }
+
+        private List<Object> parseContainer() {
+            char open = s.charAt(pos++);
+            char close = open == '[' ? ']' : open == '(' ? ')' : '}';
+            List<Object> items = new ArrayList<>();
+            skipSpaces();
+            if (peek() == close) {
+                pos++;
+                return items;
+            }
+            while (true) {
+                skipSpaces();
+                items.add(parseScalar());
+                skipSpaces();
+                char c = peek();
+                if (c == ',') {
+                    pos++;
+                    skipSpaces();
+                    if (peek() == close) {
+                        pos++;
+                        return items;
+                    }
+                } else if (c == close) {
+                    pos++;
+                    // 单元素元组必须带逗号，"(x)" 只是括号表达式
+                    if (open == '(' && items.size() == 1) {
+                        return new ArrayList<>();
+                    }
+                    return items;
+                } else {
+                    throw new IllegalArgumentException("expected ',' or '" + close + "'");
+                }
+            }
+        }
+
+        // 返回标量值：str → String，int → BigInteger，float → Double，bool → Boolean，None → null
+        private Object parseScalar() {
+            char c = peek();
+            if (c == '\'' || c == '"') {
+                StringBuilder sb = new StringBuilder();
+                // 相邻字符串字面量自动拼接
+                while (peek() == '\'' || peek() == '"') {
+                    sb.append(parseString());
+                    skipSpaces();
+                }
+                return sb.toString();
+            }
+            if (s.startsWith("None", pos)) {
+                pos += 4;
+                return null;
+            }
+            if (s.startsWith("True", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (s.startsWith("False", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            int start = pos;
+            if (c == '-' || c == '+') pos++;
+            while (pos < s.length() && (Character.isDigit(s.charAt(pos)) || s.charAt(pos) == '.'
+                    || s.charAt(pos) == 'e' || s.charAt(pos) == 'E' || s.charAt(pos) == '_')) {
+                pos++;
+            }
+            String number = s.substring(start, pos).replace("_", "");
+            try {
+                if (number.contains(".") || number.contains("e") || number.contains("E")) {
+                    return Double.parseDouble(number);
+                }
+                return new BigInteger(number.startsWith("+") ? number.substring(1) : number);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid literal");
+            }
+        }
+
+        private String parseString() {
+            char quote = s.charAt(pos);
+            boolean triple = s.startsWith(String.valueOf(quote).repeat(3), pos);
+            pos += triple ? 3 : 1;
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                if (pos >= s.length()) {
+                    throw new IllegalArgumentException("unterminated string");
+                }
+                char c = s.charAt(pos);
+                if (triple ? s.startsWith(String.valueOf(quote).repeat(3), pos) : c == quote) {
+                    pos += triple ? 3 : 1;
+                    return sb.toString();
+                }
+                if (!triple && (c == '\n' || c == '\r')) {
+                    throw new IllegalArgumentException("newline in string");
+                }
+                if (c == '\\') {
+                    pos++;
+                    appendEscape(sb);
+                } else {
+                    sb.append(c);
+                    pos++;
+                }
+            }
+        }
+
+        private void appendEscape(StringBuilder sb) {
+            if (pos >= s.length()) {
+                throw new IllegalArgumentException("bad escape");
+            }
+            char e = s.charAt(pos++);
+            switch (e) {
+                case '\n': break;
+                case '\\': sb.append('\\'); break;
+                case '\'': sb.append('\''); break;
+                case '"': sb.append('"'); break;
+                case 'n': sb.append('\n'); break;
+                case 't': sb.append('\t'); break;
+                case 'r': sb.append('\r'); break;
+                case 'a': sb.append('\u0007'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'v': sb.append('\u000b'); break;
+                case 'x': sb.appendCodePoint(hex(2)); break;
+                case 'u': sb.appendCodePoint(hex(4)); break;
+                case 'U': sb.appendCodePoint(hex(8)); break;
+                default:
+                    if (e >= '0' && e <= '7') {
+                        int value = e - '0';
+                        for (int i = 0; i < 2 && pos < s.length() && s.charAt(pos) >= '0' && s.charAt(pos) <= '7'; i++) {
+                            value = value * 8 + (s.charAt(pos++) - '0');
+                        }
+                        sb.appendCodePoint(value);
+                    } else {
+                        // 未知转义保留反斜杠
+                        sb.append('\\').append(e);
+                    }
+            }
+        }
+
+        private int hex(int digits) {
+            if (pos + digits > s.length()) {
+                throw new IllegalArgumentException("bad escape");
+            }
+            try {
+                int value = Integer.parseUnsignedInt(s.substring(pos, pos + digits), 16);
+                pos += digits;
+                return value;
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException("bad escape");
+            }
+        }
+
+        private char peek() {
+            return pos < s.length() ? s.charAt(pos) : '\0';
+        }
+
+        private void skipSpaces() {
+            while (pos < s.length() && isSpace(s.charAt(pos))) pos++;
+        }
+    }
+
+    /**
+     * 与 Python {@code repr(float)} 一致的浮点数文本（最短表示）
+     */
+    public static String pythonFloatRepr(double value) {
+        if (Double.isNaN(value)) return "nan";
+        if (Double.isInfinite(value)) return value > 0 ? "inf" : "-inf";
+        double abs = Math.abs(value);
+        if (abs != 0 && (abs < 1e-4 || abs >= 1e16)) {
+            // Python: 1e-05 / 1.5e+16
+            String text = Double.toString(value);
+            int e = text.indexOf('E');
+            String mantissa = text.substring(0, e);
+            if (mantissa.endsWith(".0")) mantissa = mantissa.substring(0, mantissa.length() - 2);
+            int exponent = Integer.parseInt(text.substring(e + 1));
+            return mantissa + (exponent < 0 ? "e-" : "e+") + String.format("%02d", Math.abs(exponent));
+        }
+        String plain = new BigDecimal(Double.toString(value)).stripTrailingZeros().toPlainString();
+        return plain.contains(".") ? plain : plain + ".0";
+    }
+
+    /**
+     * 与 Python {@code repr(str)} 一致：含单引号且不含双引号时用双引号，否则用单引号；不可打印字符转义
+     */
+    public static String repr(String value) {
+        char quote = value.indexOf('\'') >= 0 && value.indexOf('"') < 0 ? '"' : '\'';
+        StringBuilder sb = new StringBuilder(value.length() + 2).append(quote);
+        value.codePoints().forEach(c -> {
+            if (c == quote || c == '\\') {
+                sb.append('\\').appendCodePoint(c);
+            } else if (c == '\t') {
+                sb.append("\\t");
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else if (isPrintable(c)) {
+                sb.appendCodePoint(c);
+            } else if (c < 0x100) {
+                sb.append(String.format("\\x%02x", c));
+            } else if (c < 0x10000) {
+                sb.append(String.format("\\u%04x", c));
+            } else {
+                sb.append(String.format("\\U%08x", c));
+            }
+        });
+        return sb.append(quote).toString();
+    }
+
+    /**
+     * 与 Python {@code str(list_of_str)} 一致，如 {@code ['a', "b's"]}
+     */
+    public static String repr(List<String> values) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(repr(values.get(i)));
+        }
+        return sb.append(']').toString();
+    }
+
+    // 与 Python str.isprintable() 的单字符判断一致：除空格外的分隔符、控制、格式、代理、私用与未分配字符不可打印
+    private static boolean isPrintable(int c) {
+        if (c == ' ') return true;
+        switch (Character.getType(c)) {
+            case Character.CONTROL:
+            case Character.FORMAT:
+            case Character.SURROGATE:
+            case Character.PRIVATE_USE:
+            case Character.UNASSIGNED:
+            case Character.LINE_SEPARATOR:
+            case Character.PARAGRAPH_SEPARATOR:
+            case Character.SPACE_SEPARATOR:
+                return false;
+            default:
+                return true;
+        }
+    }
+}
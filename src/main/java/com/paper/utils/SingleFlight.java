@@ -0,0 +1,73 @@
+package com.paper.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并工具类（single-flight）
+ * 同一个键同时只有一个调用在执行，并发的相同请求共享该调用的结果
+ *
+ * <p>调用结束时先移除再完成，之后到达的请求会重新发起调用，不会拿到过期结果</p>
+ *
+ * @param <K> 键类型
+ * @param <V> 结果类型
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * 执行或加入同键的进行中调用
+     *
+     * @param loader 首个调用者发起实际请求
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> loader) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            // 返回副本，某个调用方取消不影响其他调用方
+            return existing.copy();
+        }
+
+        executed.incrementAndGet();
+        try {
+            loader.get().whenComplete((value, e) -> {
+                calls.remove(key, call);
+                if (e != null) {
+                    call.completeExceptionally(e);
+                } else {
+                    call.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            calls.remove(key, call);
+            call.completeExceptionally(e);
+        }
+        return call;
+    }
+
+    /**
+     * 当前进行中的调用数
+     */
+    public int inFlight() {
+        return calls.size();
+    }
+
+    /**
+     * 合并统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("executed", executed.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("in_flight", calls.size());
+        return stats;
+    }
+}
@@ -0,0 +1,56 @@
+package com.paper.utils;
+
+/**
+ * Token 估算工具类
+ * 不依赖具体分词器的粗略估算：中日韩等非 ASCII 字符按 1 个 token 计，ASCII 字符按每 4 个 1 个 token 计，
+ * 对中文为主的提示词偏保守，用于控制提示词长度
+ */
+public class TokenUtils {
+
+    private static final int ASCII_CHARS_PER_TOKEN = 4;
+
+    /**
+     * 估算文本的 token 数
+     *
+     * @param text 文本，null 按 0 计
+     */
+    public static int estimate(CharSequence text) {
+        if (text == null) return 0;
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 128) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return other + (ascii + ASCII_CHARS_PER_TOKEN - 1) / ASCII_CHARS_PER_TOKEN;
+    }
+
+    /**
+     * 截断文本使估算 token 数不超过预算，截断时末尾追加省略号
+     *
+     * @param text 文本
+     * @param maxTokens token 预算
+     */
+    public static String truncate(String text, int maxTokens) {
+        if (text == null || estimate(text) <= maxTokens) return text;
+        int budget = Math.max(0, maxTokens - 1);
+        int ascii = 0;
+        int other = 0;
+        int end = 0;
+        while (end < text.length()) {
+            if (text.charAt(end) < 128) {
+                ascii++;
+            } else {
+                other++;
+            }
+            if (other + (ascii + ASCII_CHARS_PER_TOKEN - 1) / ASCII_CHARS_PER_TOKEN > budget) {
+                break;
+            }
+            end++;
+        }
+        return text.substring(0, end) + "…";
+    }
+}
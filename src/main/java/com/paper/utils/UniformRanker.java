@@ -0,0 +1,171 @@
+package com.paper.utils;
+
+import java.util.Arrays;
+
+/**
+ * 排名均匀化（对应各分析模块的 _uniform_rank_to_1_100）
+ * <p>按得分降序、同分按 tieKey 升序排名，第 r 名（从 0 开始）映射为 100 - r·99/(n-1)，只有一个时为 100；
+ * NaN 不参与排名（与 pd.to_numeric(...).notna() 一致）。排名为 int 下标数组上的归并排序，不装箱。</p>
+ * <p>保留排名顺序，{@link #update} 只修改部分得分时，{@link #percent} 只对变化的条目排序后与其余条目归并（O(n + m log m)）。</p>
+ * <p>非线程安全。</p>
+ */
+public class UniformRanker {
+
+    private final double[] values;
+    private final int[] tieKeys;
+    /** 已排名的下标（得分降序），null 表示需要完整排序 */
+    private int[] order;
+    private final boolean[] dirty;
+    private int[] changed = new int[8];
+    private int changedCount = 0;
+
+    /**
+     * @param values 得分（复制保存）
+     * @param tieKeys 同分时的次序键，升序在前（期刊按名称排序后的序号，见 PaperCorpus.journalSortKey）
+     */
+    public UniformRanker(double[] values, int[] tieKeys) {
+        if (values.length != tieKeys.length) {
+            throw new IllegalArgumentException("values and tieKeys differ in length");
+        }
+        this.values = values.clone();
+        this.tieKeys = tieKeys.clone();
+        this.dirty = new boolean[values.length];
+    }
+
+    /**
+     * 一次性排名并映射到 1~100
+     *
+     * @param decimals 保留小数位数（与 Series.round 一致，半数取偶）
+     * @param missing NaN 得分的结果
+     */
+    public static double[] rank(double[] values, int[] tieKeys, int decimals, double missing) {
+        return new UniformRanker(values, tieKeys).percent(decimals, missing);
+    }
+
+    /** 条目数（含 NaN） */
+    public int size() {
+        return values.length;
+    }
+
+    public double value(int index) {
+        return values[index];
+    }
+
+    /**
+     * 修改单个条目的得分，下次 {@link #percent} 时增量重排
+     *
+     * @param value 新得分，NaN 表示不参与排名
+     */
+    public void update(int index, double value) {
+        if (Double.compare(values[index], value) == 0) return;
+        values[index] = value;
+        if (order != null && !dirty[index]) {
+            dirty[index] = true;
+            if (changedCount == changed.length) changed = Arrays.copyOf(changed, changedCount << 1);
+            changed[changedCount++] = index;
+        }
+    }
+
+    /**
+     * 按当前得分映射到 1~100
+     *
+     * @param decimals 保留小数位数
+     * @param missing NaN 得分的结果
+     * @return 与输入下标对应的分数
+     */
+    public double[] percent(int decimals, double missing) {
+        int[] ranked = order();
+        int n = ranked.length;
+        double scale = Math.pow(10, decimals);
+        double step = n > 1 ? 99.0 / (n - 1.0) : 0.0;
+        double[] scores = new double[values.length];
+        Arrays.fill(scores, missing);
+        for (int r = 0; r < n; r++) {
+            double score = n == 1 ? 100.0 : 100.0 - r * step;
+            scores[ranked[r]] = Math.rint(score * scale) / scale;
+        }
+        return scores;
+    }
+
+    /**
+     * 排名顺序：参与排名的下标，按得分降序、同分按 tieKey 升序
+     */
+    public int[] order() {
+        if (order == null) {
+            order = sort(validIndices(0, values.length, null));
+        } else if (changedCount > 0) {
+            order = changedCount * 8 > order.length ? sort(validIndices(0, values.length, null)) : merge();
+            for (int k = 0; k < changedCount; k++) dirty[changed[k]] = false;
+            changedCount = 0;
+        }
+        return order;
+    }
+
+    // 辅助方法：未变化条目保持原顺序，变化条目单独排序后归并
+    private int[] merge() {
+        int[] kept = new int[order.length];
+        int keptCount = 0;
+        for (int index : order) {
+            if (!dirty[index]) kept[keptCount++] = index;
+        }
+        int[] moved = sort(validIndices(0, changedCount, changed));
+        int[] merged = new int[keptCount + moved.length];
+        int i = 0;
+        int j = 0;
+        int w = 0;
+        while (i < keptCount && j < moved.length) {
+            merged[w++] = before(moved[j], kept[i]) ? moved[j++] : kept[i++];
+        }
+        while (i < keptCount) merged[w++] = kept[i++];
+        while (j < moved.length) merged[w++] = moved[j++];
+        return merged;
+    }
+
+    // 辅助方法：[from, to) 中得分不是 NaN 的下标（indices 为 null 时即下标本身）
+    private int[] validIndices(int from, int to, int[] indices) {
+        int[] result = new int[to - from];
+        int count = 0;
+        for (int k = from; k < to; k++) {
+            int index = indices == null ? k : indices[k];
+            if (!Double.isNaN(values[index])) result[count++] = index;
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    // 辅助方法：自底向上归并排序
+    private int[] sort(int[] indices) {
+        int n = indices.length;
+        int[] src = indices;
+        int[] dst = new int[n];
+        for (int width = 1; width < n; width <<= 1) {
+            for (int lo = 0; lo < n; lo += width << 1) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + (width << 1), n);
+                int i = lo;
+                int j = mid;
+                int w = lo;
+                while (i < mid && j < hi) {
+                    dst[w++] = before(src[j], src[i]) ? src[j++] : src[i++];
+                }
+                while (i < mid) dst[w++] = src[i++];
+                while (j < hi) dst[w++] = src[j++];
+            }
+            int[] t = src;
+            src = dst;
+            dst = t;
+        }
+        return src;
+    }
+
+    // 辅助方法：a 是否排在 b 之前（得分降序，同分按 tieKey 升序，再按下标；0.0 与 -0.0 视为同分）
+    private boolean before(int a, int b) {
+        if (values[a] != values[b]) return values[a] > values[b];
+        if (tieKeys[a] != tieKeys[b]) return tieKeys[a] < tieKeys[b];
+        return a < b;
+    }
+
+    @Override
+    public String toString() {
+        return "UniformRanker{size=" + values.length + ", pending=" + changedCount + "}";
+    }
+}
@@ -7,5 +7,11 @@
  * @see com.paper.utils.DatabaseInitializer 数据库初始化器
  * @see com.paper.utils.ResponseUtils HTTP 响应工具
  * @see com.paper.utils.ValidationUtils 输入验证工具
+ * @see com.paper.utils.TokenUtils Token 估算工具
+ * @see com.paper.utils.PythonUtils Python 兼容工具
+ * @see com.paper.utils.PaperCsvReader 论文 CSV 读取工具
+ * @see com.paper.utils.LongShortMap long → short 开放寻址哈希表
+ * @see com.paper.utils.IntCountMap int → int 计数表
+ * @see com.paper.utils.UniformRanker 排名均匀化（1~100）
  */
 package com.paper.utils;
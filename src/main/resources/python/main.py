@@ -10,15 +10,19 @@ main.py - 用户数据分析主入口
     python main.py --user <username>        # 分析指定用户的数据
     python main.py --user-dir <dir_path>    # 分析指定目录的数据
     python main.py --pipeline               # 执行完整流水线（01/02/03）
+    python main.py --worker                 # 常驻工作进程（供 Java 进程池调用）
 """
 
 from __future__ import annotations
 
 import argparse
+import os
 import subprocess
 import sys
+import time
 import glob
 import json
+import traceback
 from pathlib import Path
 
 import pandas as pd
@@ -34,19 +38,85 @@ def log(msg: str):
         print(msg)
 
 
-def analyze_user_data(user_dir: Path, output_dir: Path = None) -> dict:
+# 分析阶段及其在总进度中的权重（按典型耗时估计，合计 100）
+PROGRESS_STAGES = {
+    "load": 10,
+    "disruption": 25,
+    "interdisciplinary": 15,
+    "novelty": 20,
+    "topic": 15,
+    "theme": 15,
+}
+
+
+class ProgressReporter:
+    """
+    分析进度上报：每个阶段开始和结束时产生一条进度消息
+    {"type": "progress", "stage": ..., "state": "started"/"finished", "percent": ..., "eta_seconds": ...,
+     "elapsed_ms": ..., "stage_ms": ...}
+
+    工作进程模式下消息写入协议通道（带任务 id），命令行模式下输出为日志。
+    ETA 按已完成权重的平均速度线性估计，第一个阶段完成前为 None。
+    """
+
+    def __init__(self, emit=None):
+        self._emit = emit
+        self._started = time.monotonic()
+        self._done = 0
+        self._stage_started = 0.0
+
+    def begin(self, stage: str) -> None:
+        self._stage_started = time.monotonic()
+        self._report(stage, "started", None)
+
+    def end(self, stage: str) -> None:
+        stage_ms = int((time.monotonic() - self._stage_started) * 1000)
+        self._done = min(100, self._done + PROGRESS_STAGES.get(stage, 0))
+        self._report(stage, "finished", stage_ms)
+
+    def skip(self, stage: str) -> None:
+        """由 Java 指标引擎计算的阶段：只计入权重，不产生消息"""
+        self._done = min(100, self._done + PROGRESS_STAGES.get(stage, 0))
+
+    def _report(self, stage: str, state: str, stage_ms) -> None:
+        elapsed = time.monotonic() - self._started
+        eta = None
+        if self._done > 0:
+            eta = round(elapsed * (100 - self._done) / self._done, 1)
+        message = {
+            "type": "progress",
+            "stage": stage,
+            "state": state,
+            "percent": self._done,
+            "eta_seconds": eta,
+            "elapsed_ms": int(elapsed * 1000),
+        }
+        if stage_ms is not None:
+            message["stage_ms"] = stage_ms
+        if self._emit is not None:
+            self._emit(message)
+        elif stage_ms is not None:
+            log(f"[Progress] {stage} finished in {stage_ms}ms ({self._done}%)")
+
+
+def analyze_user_data(user_dir: Path, output_dir: Path = None, progress: ProgressReporter = None,
+                      skip=None) -> dict:
     """
     分析用户目录下的所有CSV文件
     
     Args:
         user_dir: 用户数据目录路径
         output_dir: 输出目录路径（默认为 user_dir/outputs）
+        progress: 进度上报（默认输出到日志）
+        skip: 跳过的指标阶段（由 Java 指标引擎计算）
     
     Returns:
         分析结果字典
     """
     if not user_dir.exists():
         return {"success": False, "message": f"Directory not found: {user_dir}"}
+    if progress is None:
+        progress = ProgressReporter()
     
     # 设置输出目录
     if output_dir is None:
@@ -59,6 +129,7 @@ def analyze_user_data(user_dir: Path, output_dir: Path = None) -> dict:
         return {"success": False, "message": "No CSV files in directory"}
     
     # 合并所有CSV数据
+    progress.begin("load")
     dfs = []
     processed_files = []
     for csv_file in csv_files:
@@ -82,9 +153,10 @@ def analyze_user_data(user_dir: Path, output_dir: Path = None) -> dict:
     # 合并数据
     combined_df = pd.concat(dfs, ignore_index=True)
     log(f"\n[Merged] {len(combined_df)} records from {len(processed_files)} files")
+    progress.end("load")
     
     # 执行分析（传入输出目录）
-    result = perform_analysis(combined_df, output_dir)
+    result = perform_analysis(combined_df, output_dir, progress, skip)
     result["processed_files"] = processed_files
     result["total_files"] = len(processed_files)
     result["output_dir"] = str(output_dir)
@@ -103,17 +175,23 @@ def analyze_user_data(user_dir: Path, output_dir: Path = None) -> dict:
     return result
 
 
-def perform_analysis(df: pd.DataFrame, output_dir: Path = None) -> dict:
+def perform_analysis(df: pd.DataFrame, output_dir: Path = None, progress: ProgressReporter = None,
+                     skip=None) -> dict:
     """
     执行数据分析
     
     Args:
         df: 合并后的DataFrame
         output_dir: 输出目录（用于保存各指标的结果文件）
+        progress: 进度上报（默认输出到日志）
+        skip: 跳过的指标阶段（由 Java 指标引擎计算）
     
     Returns:
         分析结果
     """
+    if progress is None:
+        progress = ProgressReporter()
+    skip = set(skip or ())
     result = {
         "total_records": len(df),
         "columns": list(df.columns),
@@ -168,56 +246,81 @@ def perform_analysis(df: pd.DataFrame, output_dir: Path = None) -> dict:
             for d in [disrupt_out, inter_out, novelty_out, topic_out, theme_out]:
                 d.mkdir(parents=True, exist_ok=True)
         
-        try:
-            log("  Calculating disruption index...")
-            disrupt_df = analyze_disruption(df)
-            result["disruption"] = disrupt_df.head(10).to_dict(orient="records")
-            if output_dir:
-                disrupt_df.to_csv(disrupt_out / "disruption.csv", index=False)
-                result["disruption_file"] = str(disrupt_out / "disruption.csv")
-        except Exception as e:
-            log(f"  Disruption index failed: {e}")
+        if "disruption" in skip:
+            progress.skip("disruption")
+        else:
+            progress.begin("disruption")
+            try:
+                log("  Calculating disruption index...")
+                disrupt_df = analyze_disruption(df)
+                result["disruption"] = disrupt_df.head(10).to_dict(orient="records")
+                if output_dir:
+                    disrupt_df.to_csv(disrupt_out / "disruption.csv", index=False)
+                    result["disruption_file"] = str(disrupt_out / "disruption.csv")
+            except Exception as e:
+                log(f"  Disruption index failed: {e}")
+            progress.end("disruption")
         
-        try:
-            log("  Calculating interdisciplinarity...")
-            inter_df = analyze_interdisciplinary(df)
-            result["interdisciplinary"] = inter_df.head(10).to_dict(orient="records")
-            if output_dir:
-                inter_df.to_csv(inter_out / "interdisciplinary.csv", index=False)
-                result["interdisciplinary_file"] = str(inter_out / "interdisciplinary.csv")
-        except Exception as e:
-            log(f"  Interdisciplinarity failed: {e}")
+        if "interdisciplinary" in skip:
+            progress.skip("interdisciplinary")
+        else:
+            progress.begin("interdisciplinary")
+            try:
+                log("  Calculating interdisciplinarity...")
+                inter_df = analyze_interdisciplinary(df)
+                result["interdisciplinary"] = inter_df.head(10).to_dict(orient="records")
+                if output_dir:
+                    inter_df.to_csv(inter_out / "interdisciplinary.csv", index=False)
+                    result["interdisciplinary_file"] = str(inter_out / "interdisciplinary.csv")
+            except Exception as e:
+                log(f"  Interdisciplinarity failed: {e}")
+            progress.end("interdisciplinary")
         
-        try:
-            log("  Calculating novelty...")
-            novelty_df = analyze_journal_novelty(df)
-            result["novelty"] = novelty_df.head(10).to_dict(orient="records")
-            if output_dir:
-                novelty_df.to_csv(novelty_out / "novelty.csv", index=False)
-                result["novelty_file"] = str(novelty_out / "novelty.csv")
-        except Exception as e:
-            log(f"  Novelty failed: {e}")
+        if "novelty" in skip:
+            progress.skip("novelty")
+        else:
+            progress.begin("novelty")
+            try:
+                log("  Calculating novelty...")
+                novelty_df = analyze_journal_novelty(df)
+                result["novelty"] = novelty_df.head(10).to_dict(orient="records")
+                if output_dir:
+                    novelty_df.to_csv(novelty_out / "novelty.csv", index=False)
+                    result["novelty_file"] = str(novelty_out / "novelty.csv")
+            except Exception as e:
+                log(f"  Novelty failed: {e}")
+            progress.end("novelty")
         
-        try:
-            log("  Calculating topic complexity...")
-            topic_df = analyze_topic_entropy(df)
-            result["topic"] = topic_df.head(10).to_dict(orient="records")
-            if output_dir:
-                topic_df.to_csv(topic_out / "topic.csv", index=False)
-                result["topic_file"] = str(topic_out / "topic.csv")
-        except Exception as e:
-            log(f"  Topic complexity failed: {e}")
+        if "topic" in skip:
+            progress.skip("topic")
+        else:
+            progress.begin("topic")
+            try:
+                log("  Calculating topic complexity...")
+                topic_df = analyze_topic_entropy(df)
+                result["topic"] = topic_df.head(10).to_dict(orient="records")
+                if output_dir:
+                    topic_df.to_csv(topic_out / "topic.csv", index=False)
+                    result["topic_file"] = str(topic_out / "topic.csv")
+            except Exception as e:
+                log(f"  Topic complexity failed: {e}")
+            progress.end("topic")
         
-        try:
-            log("  Calculating theme hotness...")
-            theme_analyzer = ThemeHotnessAnalyzer(df)
-            theme_df = theme_analyzer.run(top_n=10)
-            result["theme"] = theme_df.to_dict(orient="records")
-            if output_dir:
-                theme_df.to_csv(theme_out / "theme.csv", index=False)
-                result["theme_file"] = str(theme_out / "theme.csv")
-        except Exception as e:
-            log(f"  Theme hotness failed: {e}")
+        if "theme" in skip:
+            progress.skip("theme")
+        else:
+            progress.begin("theme")
+            try:
+                log("  Calculating theme hotness...")
+                theme_analyzer = ThemeHotnessAnalyzer(df)
+                theme_df = theme_analyzer.run(top_n=10)
+                result["theme"] = theme_df.to_dict(orient="records")
+                if output_dir:
+                    theme_df.to_csv(theme_out / "theme.csv", index=False)
+                    result["theme_file"] = str(theme_out / "theme.csv")
+            except Exception as e:
+                log(f"  Theme hotness failed: {e}")
+            progress.end("theme")
         
     except ImportError as e:
         log(f"[INFO] Metrics modules not found: {e}")
@@ -225,6 +328,70 @@ def perform_analysis(df: pd.DataFrame, output_dir: Path = None) -> dict:
     return result
 
 
+def _send(out, message: dict) -> None:
+    """向协议通道写一行 JSON"""
+    out.write(json.dumps(message, ensure_ascii=False) + "\n")
+    out.flush()
+
+
+def worker_loop() -> None:
+    """
+    常驻工作进程：启动时加载 pandas 与各指标模块，之后逐行读取 stdin 中的 JSON 请求，
+    每个请求在 stdout 输出一行 JSON 响应。
+
+    请求：{"id": ..., "cmd": "analyze", "user_dir": "...", "skip": [...]} / {"id": ..., "cmd": "ping"} / {"cmd": "exit"}
+    响应：{"type": "ready", "pid": ...}（启动完成）
+          {"type": "progress", "id": ..., "stage": ..., "percent": ..., ...}（分析过程中，见 ProgressReporter）
+          {"type": "result", "id": ..., "ok": true, "result": {...}} / {"type": "result", "id": ..., "ok": false, "error": "..."}
+    """
+    global _json_mode
+    _json_mode = True
+
+    # stdout 只用于协议；分析代码中的 print 一律转到 stderr，避免混入响应
+    out = sys.stdout
+    sys.stdout = sys.stderr
+
+    try:
+        import disrupt_calculator_031  # noqa: F401
+        import interdisciplinary_032  # noqa: F401
+        import novelty_analyzer_033  # noqa: F401
+        import topic_analyzer_036  # noqa: F401
+        import theme_034  # noqa: F401
+    except ImportError as e:
+        log(f"[Worker] Metrics modules not preloaded: {e}")
+
+    _send(out, {"type": "ready", "pid": os.getpid()})
+
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+        try:
+            request = json.loads(line)
+        except ValueError:
+            _send(out, {"type": "result", "id": None, "ok": False, "error": "invalid request"})
+            continue
+
+        cmd = request.get("cmd")
+        job_id = request.get("id")
+        if cmd == "exit":
+            break
+        if cmd == "ping":
+            _send(out, {"type": "result", "id": job_id, "ok": True, "result": "pong"})
+            continue
+        if cmd != "analyze":
+            _send(out, {"type": "result", "id": job_id, "ok": False, "error": f"unknown cmd: {cmd}"})
+            continue
+
+        try:
+            progress = ProgressReporter(lambda message, job_id=job_id: _send(out, {**message, "id": job_id}))
+            result = analyze_user_data(Path(request["user_dir"]), progress=progress, skip=request.get("skip"))
+            _send(out, {"type": "result", "id": job_id, "ok": True, "result": result})
+        except Exception:
+            log(traceback.format_exc())
+            _send(out, {"type": "result", "id": job_id, "ok": False, "error": traceback.format_exc(limit=3)})
+
+
 def _run_step(args: list[str], *, cwd: Path, name: str) -> None:
     """运行子脚本"""
     log(f"\n========== RUN {name} ==========")
@@ -281,9 +448,14 @@ def main() -> None:
     # 输出参数
     parser.add_argument("--output", type=str, help="输出结果到JSON文件")
     parser.add_argument("--json", action="store_true", help="以JSON格式输出结果（用于Java调用）")
+    parser.add_argument("--worker", action="store_true", help="常驻工作进程模式，通过 stdin/stdout 逐行收发 JSON")
     
     args = parser.parse_args()
 
+    if args.worker:
+        worker_loop()
+        return
+
     # 设置 JSON 模式全局变量（日志输出到 stderr）
     global _json_mode
     _json_mode = args.json
@@ -2,6 +2,9 @@
 
 let uploadedFilename = null;
 let analysisContext = null;
+// AI助手会话：服务端保存上下文与对话历史，上下文未变时追问只发送消息
+let chatSessionId = null;
+let chatSentContext = null;
 
 // 获取当前用户名
 function getUsername() {
@@ -154,7 +157,14 @@ async function runAnalysis(useDatabase = false) {
             body: formData
         });
         
-        const data = await response.json();
+        const submitted = await response.json();
+        if (!submitted.success) {
+            showAnalysisError(submitted.message || '分析失败');
+            return;
+        }
+        
+        // 分析在后台执行，轮询任务状态
+        const data = await waitForAnalysisJob(submitted.jobId, username, submitted.token);
         
         if (data.success) {
             displayAnalysisResult(data);
@@ -162,12 +172,7 @@ async function runAnalysis(useDatabase = false) {
             // 刷新历史记录
             loadHistory();
         } else {
-            analysisResult.innerHTML = `
-                <div class="error-message">
-                    <i class="fas fa-exclamation-circle"></i>
-                    ${data.message || '分析失败'}
-                </div>
-            `;
+            showAnalysisError(data.message || '分析失败');
         }
     } catch (error) {
         console.error('分析失败:', error);
@@ -182,6 +187,90 @@ async function runAnalysis(useDatabase = false) {
     }
 }
 
+const ANALYSIS_STAGE_LABELS = {
+    load: '读取数据',
+    disruption: '颠覆性指数',
+    interdisciplinary: '跨学科性',
+    novelty: '新颖性',
+    topic: '主题复杂度',
+    theme: '主题热度'
+};
+
+// 等待分析任务完成并返回结果：优先通过 SSE 接收进度，连接失败时改为轮询
+// 匿名任务凭提交时返回的 token 查询
+async function waitForAnalysisJob(jobId, username, token) {
+    const params = new URLSearchParams();
+    if (username) params.append('username', username);
+    if (token) params.append('token', token);
+    const query = params.toString() ? '?' + params.toString() : '';
+    const jobUrl = `/analysis/jobs/${encodeURIComponent(jobId)}`;
+    
+    let finished = false;
+    if (window.EventSource) {
+        finished = await new Promise(resolve => {
+            const source = new EventSource(`${jobUrl}/events${query}`);
+            source.addEventListener('status', e => renderAnalysisProgress(JSON.parse(e.data)));
+            source.addEventListener('progress', e => renderAnalysisProgress({ status: 'RUNNING', progress: JSON.parse(e.data) }));
+            source.addEventListener('done', () => {
+                source.close();
+                resolve(true);
+            });
+            source.onerror = () => {
+                source.close();
+                resolve(false);
+            };
+        });
+    }
+    
+    while (!finished) {
+        const response = await fetch(`${jobUrl}${query}`);
+        const status = await response.json();
+        
+        if (!status.success) {
+            return status;
+        }
+        if (status.status === 'SUCCEEDED' || status.status === 'FAILED') {
+            break;
+        }
+        renderAnalysisProgress(status);
+        await new Promise(resolve => setTimeout(resolve, 2000));
+    }
+    
+    const resultResponse = await fetch(`${jobUrl}/result${query}`);
+    return await resultResponse.json();
+}
+
+// 显示分析进度：当前阶段、总进度与预计剩余时间
+function renderAnalysisProgress(status) {
+    const progress = status.progress;
+    let text = status.status === 'QUEUED' ? '排队中' : '分析中';
+    let percent = 0;
+    if (progress) {
+        percent = progress.percent || 0;
+        const label = ANALYSIS_STAGE_LABELS[progress.stage] || progress.stage;
+        text = progress.state === 'finished' ? `${label}完成` : `正在计算${label}`;
+        if (progress.etaSeconds != null) {
+            text += `，预计剩余 ${Math.max(1, Math.round(progress.etaSeconds))} 秒`;
+        }
+    }
+    
+    document.getElementById('analysisResult').innerHTML = `
+        <div class="analysis-progress">
+            <div class="analysis-progress-text">${text}（${percent}%）</div>
+            <div class="analysis-progress-bar"><div style="width: ${percent}%"></div></div>
+        </div>
+    `;
+}
+
+function showAnalysisError(message) {
+    document.getElementById('analysisResult').innerHTML = `
+        <div class="error-message">
+            <i class="fas fa-exclamation-circle"></i>
+            ${message}
+        </div>
+    `;
+}
+
 // 显示分析结果
 function displayAnalysisResult(data) {
     const container = document.getElementById('analysisResult');
@@ -405,24 +494,42 @@ function formatScore(score) {
     return (typeof score === 'number') ? score.toFixed(2) : score;
 }
 
+// 构造对话请求：会话已收到当前分析结果时不再重复发送 context
+function buildChatPayload(message) {
+    const payload = {
+        message: message,
+        username: getUsername(),
+        sessionId: chatSessionId
+    };
+    if (!chatSessionId || analysisContext !== chatSentContext) {
+        payload.context = analysisContext;
+    }
+    return payload;
+}
+
+// 记录服务端返回的会话 id
+function rememberChatSession(data) {
+    if (data && data.success && data.sessionId) {
+        chatSessionId = data.sessionId;
+        chatSentContext = analysisContext;
+    }
+}
+
 // 生成AI总结
 async function generateAISummary() {
     const summaryContent = document.getElementById('aiSummaryContent');
     summaryContent.innerHTML = '<div class="loading"><i class="fas fa-spinner fa-spin"></i> AI正在分析中...</div>';
     
     try {
-        const username = getUsername();
         const response = await fetch('/analysis/chat', {
             method: 'POST',
             headers: { 'Content-Type': 'application/json' },
-            body: JSON.stringify({
-                message: '请根据以上分析结果，给出一个专业的学术期刊评价总结报告，包括：1. 数据概况 2. 各指标特点分析 3. 综合评价建议',
-                context: analysisContext,
-                username: username
-            })
+            body: JSON.stringify(buildChatPayload(
+                '请根据以上分析结果，给出一个专业的学术期刊评价总结报告，包括：1. 数据概况 2. 各指标特点分析 3. 综合评价建议'))
         });
         
         const data = await response.json();
+        rememberChatSession(data);
         
         if (data.success) {
             summaryContent.innerHTML = `
@@ -550,19 +657,14 @@ async function sendMessage() {
     input.value = '';
     
     try {
-        const username = getUsername();
-        
         const response = await fetch('/analysis/chat', {
             method: 'POST',
             headers: { 'Content-Type': 'application/json' },
-            body: JSON.stringify({
-                message: message,
-                context: analysisContext,
-                username: username
-            })
+            body: JSON.stringify(buildChatPayload(message))
         });
         
         const data = await response.json();
+        rememberChatSession(data);
         
         if (data.success) {
             addChatMessage(data.reply, 'bot');
@@ -0,0 +1,26 @@
+package com.paper.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * DisruptionEngine 与 disrupt_calculator_031.py 的结果一致性
+ * <p>metrics/disruption/papers.csv 覆盖：DOI 的 URL/doi: 前缀与大小写、尾部标点，缺 DOI 时的题名节点，
+ * 中文题名引用（书名号/引号）、过短题名与期刊名引用的过滤、URL 引用、非列表字面量的 citing，
+ * 无参考文献（NaN）与 D = 0 的论文剔除，以及 percent_score_raw 同分按期刊名排序。
+ * expected.csv 为 analyze_disruption 对该文件的输出。</p>
+ */
+class DisruptionEngineTest {
+
+    @Test
+    void matchesPythonRankings() throws Exception {
+        PaperCorpus corpus = MetricFixtures.corpus("/metrics/disruption/papers.csv");
+
+        List<Map<String, Object>> result = new DisruptionEngine(ForkJoinPool.commonPool()).analyze(corpus);
+
+        MetricFixtures.assertRows(MetricFixtures.expected("/metrics/disruption/expected.csv"), result);
+    }
+}
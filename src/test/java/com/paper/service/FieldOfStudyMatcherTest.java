@@ -0,0 +1,49 @@
+package com.paper.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * FieldOfStudyMatcher 与 topic_analyzer_036.py 的 map_keyword_to_fields / difflib 的一致性
+ * <p>期望值由 Python 生成：difflib-pairs.csv 为 SequenceMatcher(None, a, b).get_matching_blocks() 各块长度之和
+ * （小字母表的随机串，大量同长候选块，用来固定最长匹配块的选取顺序）；fields.csv 为 map_keyword_to_fields
+ * 对词典词扰动后的关键词的结果（领域名排序后以 ; 连接）。</p>
+ */
+class FieldOfStudyMatcherTest {
+
+    @Test
+    void matchingCharactersAgreeWithDifflib() throws Exception {
+        List<String[]> pairs = MetricFixtures.expected("/metrics/topic/difflib-pairs.csv");
+        for (String[] pair : pairs.subList(1, pairs.size())) {
+            int matched = FieldOfStudyMatcher.matchingCharacters(
+                pair[0].codePoints().toArray(), pair[1].codePoints().toArray());
+            assertEquals(Integer.parseInt(pair[2]), matched, pair[0] + " / " + pair[1]);
+        }
+    }
+
+    /**
+     * 模糊匹配的边界：相似度恰好为 0.75 时命中，略低于 0.75 不命中，相似度够高但长度差超过 3 时不参与比较
+     */
+    @Test
+    void fuzzyCutoffAgreesWithPython() throws Exception {
+        FieldOfStudyMatcher matcher = FieldOfStudyMatcher.defaultMatcher();
+        List<String[]> rows = MetricFixtures.expected("/metrics/topic/fields.csv");
+        for (String[] row : rows.subList(1, rows.size())) {
+            assertEquals(row[1], fieldNames(matcher, matcher.match(row[0])), row[0]);
+        }
+    }
+
+    // 辅助方法：位掩码转为排序后以 ; 连接的领域名
+    private static String fieldNames(FieldOfStudyMatcher matcher, int mask) {
+        List<String> names = new ArrayList<>();
+        for (int bit = 0; bit < matcher.fieldCount(); bit++) {
+            if ((mask & (1 << bit)) != 0) names.add(matcher.fieldName(bit));
+        }
+        names.sort(null);
+        return String.join(";", names);
+    }
+}
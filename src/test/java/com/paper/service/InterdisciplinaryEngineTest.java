@@ -0,0 +1,47 @@
+package com.paper.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * InterdisciplinaryEngine 与 interdisciplinary_032.py 的结果一致性
+ * <p>期望输出为 analyze_interdisciplinary 对同一 CSV 的结果。Python 的相似度矩阵与类别分布为 float32，
+ * 引擎用 double 计算，td_mean 按 1e-6 比较，percent_score（一位小数）精确比较。</p>
+ */
+class InterdisciplinaryEngineTest {
+
+    private static final Map<String, Double> FLOAT32_TOLERANCE = Map.of("td_mean", 1e-6);
+
+    /**
+     * metrics/interdisciplinary/papers.csv 覆盖：列表字面量（含空串与 None 元素）及 ; | / 分隔的类别，
+     * 参考文献不在样本内或没有参考文献时 TD 为 0，只有一个类别时为 1；
+     * 缺失期刊的论文不参与聚合，但以 UNKNOWN（td_mean 0、paper_count 0）出现在首次缺失的位置，
+     * 与同为 0 分的期刊按出现顺序排列。
+     */
+    @Test
+    void matchesPythonScores() throws Exception {
+        PaperCorpus corpus = MetricFixtures.corpus("/metrics/interdisciplinary/papers.csv");
+
+        List<Map<String, Object>> result = new InterdisciplinaryEngine(ForkJoinPool.commonPool()).analyze(corpus);
+
+        MetricFixtures.assertRows(MetricFixtures.expected("/metrics/interdisciplinary/expected.csv"), result,
+            FLOAT32_TOLERANCE);
+    }
+
+    /**
+     * 数据中本身有名为 UNKNOWN 的期刊时，Python 的 fillna("UNKNOWN").unique() 把缺失期刊与它合并为一行，
+     * 取该期刊的得分
+     */
+    @Test
+    void mergesMissingJournalIntoJournalNamedUnknown() throws Exception {
+        PaperCorpus corpus = MetricFixtures.corpus("/metrics/interdisciplinary/unknown-journal-papers.csv");
+
+        List<Map<String, Object>> result = new InterdisciplinaryEngine(ForkJoinPool.commonPool()).analyze(corpus);
+
+        MetricFixtures.assertRows(MetricFixtures.expected("/metrics/interdisciplinary/unknown-journal-expected.csv"),
+            result, FLOAT32_TOLERANCE);
+    }
+}
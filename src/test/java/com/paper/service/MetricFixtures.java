@@ -0,0 +1,100 @@
+package com.paper.service;
+
+import com.paper.model.PaperTable;
+import com.paper.utils.PaperCsvReader;
+import com.paper.utils.PythonUtils;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 指标引擎测试夹具：src/test/resources/metrics 下的论文 CSV 与 Python 模块的期望输出
+ * <p>期望输出为对应 Python 模块对同一 CSV 的结果（to_csv(index=False) 的列与行序）。</p>
+ */
+final class MetricFixtures {
+
+    private MetricFixtures() {
+    }
+
+    /**
+     * 读取论文 CSV 并构建语料（与 main.py 一样经 PaperCsvReader 读入）
+     */
+    static PaperCorpus corpus(String resource) throws IOException {
+        PaperTable table = new PaperTable();
+        PaperCsvReader.readFile(path(resource), table);
+        return PaperCorpus.of(table, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 读取期望输出（首行为表头，空单元格为空串）
+     */
+    static List<String[]> expected(String resource) throws IOException {
+        PaperTable table = new PaperTable();
+        PaperCsvReader.readFile(path(resource), table);
+        List<String> header = table.getColumns();
+        List<String[]> rows = new ArrayList<>();
+        rows.add(header.toArray(new String[0]));
+        for (int i = 0; i < table.size(); i++) {
+            String[] row = new String[header.size()];
+            for (int c = 0; c < row.length; c++) {
+                String value = table.get(header.get(c), i);
+                row[c] = value == null ? "" : value;
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 逐行逐列比较引擎输出与期望输出：数值列按 double 精确比较（NaN 相等），
+     * 字符串列表按 Python 字面量（to_csv 写出的形式）比较，其余按字符串比较
+     */
+    static void assertRows(List<String[]> expected, List<Map<String, Object>> actual) {
+        assertRows(expected, actual, Map.of());
+    }
+
+    /**
+     * 逐行逐列比较引擎输出与期望输出，tolerances 中的数值列按给定误差比较
+     */
+    static void assertRows(List<String[]> expected, List<Map<String, Object>> actual,
+                           Map<String, Double> tolerances) {
+        String[] header = expected.get(0);
+        assertEquals(expected.size() - 1, actual.size(), "行数");
+        for (int i = 1; i < expected.size(); i++) {
+            String[] row = expected.get(i);
+            Map<String, Object> result = actual.get(i - 1);
+            for (int c = 0; c < header.length; c++) {
+                String message = "第 " + i + " 行 " + header[c];
+                Object value = result.get(header[c]);
+                if (value instanceof Number number) {
+                    assertEquals(Double.parseDouble(row[c]), number.doubleValue(),
+                        tolerances.getOrDefault(header[c], 0.0), message);
+                } else if (value instanceof List<?> list) {
+                    assertEquals(row[c], PythonUtils.repr(list.stream().map(String::valueOf).toList()), message);
+                } else {
+                    assertEquals(row[c], String.valueOf(value), message);
+                }
+            }
+        }
+    }
+
+    private static Path path(String resource) throws IOException {
+        URL url = MetricFixtures.class.getResource(resource);
+        if (url == null) {
+            throw new IOException("测试资源不存在: " + resource);
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.paper.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * NoveltyEngine 与 novelty_analyzer_033.py 的结果一致性
+ * <p>metrics/novelty/papers.csv 覆盖：</p>
+ * <ul>
+ *   <li>关键词上限：17 个关键词的论文只取排序后的前 15 个，kw16/kw17 这一对不计入首次出现年份，
+ *       之后的论文中仍按从未出现计 1.0</li>
+ *   <li>年份解析：publish_date 为日期文本（2019-05-01）或超出 1900~2100（1850）时不计年份，
+ *       2020.0 按 2020 计</li>
+ *   <li>停用词、单字符、大小写与重复关键词的清洗，关键词不足 2 个的论文计 0 分仍计入 paper_count，
+ *       缺失期刊的行不输出</li>
+ * </ul>
+ * <p>expected.csv 为 analyze_journal_novelty 对该文件的输出（期刊按首次出现顺序）。</p>
+ */
+class NoveltyEngineTest {
+
+    @Test
+    void matchesPythonScores() throws Exception {
+        PaperCorpus corpus = MetricFixtures.corpus("/metrics/novelty/papers.csv");
+
+        List<Map<String, Object>> result = new NoveltyEngine(ForkJoinPool.commonPool()).analyze(corpus);
+
+        MetricFixtures.assertRows(MetricFixtures.expected("/metrics/novelty/expected.csv"), result);
+    }
+}
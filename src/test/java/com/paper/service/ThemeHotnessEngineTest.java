@@ -0,0 +1,101 @@
+package com.paper.service;
+
+import com.paper.model.PaperTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ThemeHotnessEngine 与 theme_034.py 的结果一致性
+ * <p>metrics/theme/papers.csv 的 publish_date 为文本列（走正则提取年份），含无年份、窗口外年份与缺失日期的行；
+ * 关键词覆盖 JSON、列表字面量、分隔符与引号碎片格式；Tie Journal 2023 年的同频关键词首次出现顺序与字母序不同，
+ * Wide Journal 使全局关键词超过 50 个且第 50、51 名频次不同。
+ * expected.csv 为 ThemeHotnessAnalyzer(df).run() 对该文件的输出。</p>
+ */
+class ThemeHotnessEngineTest {
+
+    @Test
+    void matchesPythonScores() throws Exception {
+        PaperCorpus corpus = MetricFixtures.corpus("/metrics/theme/papers.csv");
+
+        List<Map<String, Object>> result = new ThemeHotnessEngine(ForkJoinPool.commonPool()).analyze(corpus, 0);
+
+        MetricFixtures.assertRows(MetricFixtures.expected("/metrics/theme/expected.csv"), result);
+    }
+
+    @Test
+    void numericYearColumnIsTruncated() {
+        PaperTable table = table(List.of("year", "publish_date"),
+            new String[]{"2021", "2019-01-01"},
+            new String[]{"2022.7", "2019-01-01"},
+            new String[]{null, "2023-01-01"});
+
+        // year 优先于 publish_date，缺失为 0
+        assertArrayEquals(new int[]{2021, 2022, 0}, ThemeHotnessEngine.extractYears(table));
+    }
+
+    @Test
+    void textYearColumnTakesFirstStandaloneYear() {
+        PaperTable table = table(List.of("publish_date"),
+            new String[]{"2023-05-01"},
+            new String[]{"Published 2024, revised 2025"},
+            new String[]{"20231"},
+            new String[]{"in press"},
+            new String[]{null});
+
+        assertArrayEquals(new int[]{2023, 2024, 0, 0, 0}, ThemeHotnessEngine.extractYears(table));
+    }
+
+    @Test
+    void textYearColumnNeedsMoreThanTenPercentMatches() {
+        String[] dates = new String[10];
+        Arrays.fill(dates, "n/a");
+        dates[0] = "2023-05-01";
+        // 恰好 10%：Python 会退回 pd.to_datetime，此处视为没有有效年份
+        assertArrayEquals(new int[10], ThemeHotnessEngine.extractYears(dateTable(dates)));
+
+        dates[1] = "2024";
+        int[] expected = new int[10];
+        expected[0] = 2023;
+        expected[1] = 2024;
+        assertArrayEquals(expected, ThemeHotnessEngine.extractYears(dateTable(dates)));
+    }
+
+    @Test
+    void rejectsTableWithoutYears() {
+        PaperTable table = table(List.of("journal", "publish_date", "keywords"),
+            new String[]{"A", "in press", "graph"},
+            new String[]{"B", "online first", "vision"});
+        PaperCorpus corpus = PaperCorpus.of(table, ForkJoinPool.commonPool());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> new ThemeHotnessEngine(ForkJoinPool.commonPool()).analyze(corpus, 0));
+        assertEquals("No valid year column found", e.getMessage());
+    }
+
+    // 辅助方法：只有 publish_date 列的表
+    private static PaperTable dateTable(String[] dates) {
+        List<String[]> rows = new ArrayList<>();
+        for (String date : dates) {
+            rows.add(new String[]{date});
+        }
+        PaperTable table = new PaperTable();
+        table.append("dates.csv", List.of("publish_date"), rows);
+        return table;
+    }
+
+    // 辅助方法：按行构造表，null 表示缺失
+    private static PaperTable table(List<String> header, String[]... rows) {
+        PaperTable table = new PaperTable();
+        table.append("papers.csv", header, List.of(rows));
+        return table;
+    }
+}
@@ -0,0 +1,25 @@
+package com.paper.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * TopicEntropyEngine 与 topic_analyzer_036.py 的结果一致性
+ * <p>metrics/topic/papers.csv 的关键词取自 fields.csv 的模糊匹配边界（相似度恰好 0.75、略低于 0.75、
+ * 长度差超过 3），另有列表字面量与 , ; 分隔的关键词、没有命中领域与缺失关键词的论文、缺失期刊的行。
+ * expected.csv 为 analyze_topic_entropy 对该文件的输出。</p>
+ */
+class TopicEntropyEngineTest {
+
+    @Test
+    void matchesPythonScores() throws Exception {
+        PaperCorpus corpus = MetricFixtures.corpus("/metrics/topic/papers.csv");
+
+        List<Map<String, Object>> result = new TopicEntropyEngine(ForkJoinPool.commonPool()).analyze(corpus);
+
+        MetricFixtures.assertRows(MetricFixtures.expected("/metrics/topic/expected.csv"), result);
+    }
+}
@@ -0,0 +1,130 @@
+package com.paper.utils;
+
+import com.paper.config.AIProperties;
+import com.paper.config.AIPromptProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AIClient 对本地桩服务（HttpServer）的调用：成功、请求超时、非 2xx
+ */
+class AIClientTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMillis = 0;
+    private AIClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::handle);
+        server.start();
+
+        AIProperties properties = new AIProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/v1");
+        properties.setKey("test-key");
+        properties.setModel("test-model");
+        properties.setRouteTimeouts(Map.of("chat", 1));
+        properties.setRetryBackoffMs(1);
+
+        HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+        client = new AIClient(properties, new AIPromptProperties(), new DefaultResourceLoader(),
+            new AIGuard(properties), httpClient);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String body = status == 200
+            ? "{\"choices\":[{\"message\":{\"role\":\"assistant\",\"content\":\" 你好 \"}}]}"
+            : "{\"error\":{\"message\":\"upstream error\"}}";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try {
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (IOException e) {
+            // 客户端已超时断开
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Test
+    void returnsMessageContent() throws IOException {
+        String reply = client.callChatCompletion(AIClient.Route.CHAT, "system", "hello");
+
+        assertEquals("你好", reply);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void requestTimeoutFailsWithoutRetry() {
+        delayMillis = 3000;
+
+        IOException e = assertThrows(IOException.class,
+            () -> client.callChatCompletion(AIClient.Route.CHAT, "system", "hello"));
+
+        assertInstanceOf(HttpTimeoutException.class, e);
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void clientErrorFailsWithoutRetry() {
+        status = 400;
+
+        IOException e = assertThrows(IOException.class,
+            () -> client.callChatCompletion(AIClient.Route.CHAT, "system", "hello"));
+
+        assertTrue(e.getMessage().contains("400"), e.getMessage());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void serverErrorIsRetried() {
+        status = 503;
+
+        IOException e = assertThrows(IOException.class,
+            () -> client.callChatCompletion(AIClient.Route.CHAT, "system", "hello"));
+
+        assertTrue(e.getMessage().contains("503"), e.getMessage());
+        assertEquals(3, requests.get());
+    }
+}